@@ -0,0 +1,121 @@
+package com.github.masiuchi.mtdataapi;
+
+import okhttp3.FormBody;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+
+// Building requests and serializing resources, without executing anything.
+// The baseline* benchmarks build the same requests the way DataAPI did before precompiled routes.
+@State(Scope.Benchmark)
+public class RequestBenchmark {
+    private static final String API_BASE_URL = "http://localhost/mt-data-api.cgi";
+    private static final String TOKEN = "0123456789abcdef0123456789abcdef";
+
+    private DataAPI api;
+    private Parameter query;
+    private Parameter form;
+    private Resource entry;
+
+    @Setup
+    public void setUp() {
+        api = new DataAPI.Builder()
+                .APIBaseURL(API_BASE_URL)
+                .authState(new AuthState(TOKEN, ""))
+                .build();
+
+        query = new Parameter();
+        query.put("limit", "50");
+        query.put("offset", "100");
+        query.put("fields", "id,title,date,permalink");
+        query.put("search", "java sdk");
+
+        entry = new Resource();
+        for (String key : StubServer.entry(1).keySet()) {
+            entry.put(key, StubServer.entry(1).get(key));
+        }
+        form = new Parameter();
+        form.put("entry", new JSONObject(entry).toString());
+    }
+
+    @Benchmark
+    public Request makeGetRequest() {
+        return api.makeRequest(HttpMethod.GET, api.endpoint(Routes.ENTRIES, "1"), query, false);
+    }
+
+    @Benchmark
+    public Request makeFormRequest() {
+        return api.makeRequest(HttpMethod.POST, api.endpoint(Routes.ENTRIES, "1"), form, false);
+    }
+
+    // What action() does with every Resource it sends.
+    @Benchmark
+    public String serializeResource() {
+        return new JSONObject(entry).toString();
+    }
+
+    @Benchmark
+    public Request baselineGetRequest() {
+        String siteID = "1";
+        return baselineRequest(HttpMethod.GET, API_BASE_URL + "/" + "v3" + "/sites/" + siteID + "/entries", query);
+    }
+
+    @Benchmark
+    public Request baselineFormRequest() {
+        String siteID = "1";
+        return baselineRequest(HttpMethod.POST, API_BASE_URL + "/" + "v3" + "/sites/" + siteID + "/entries", form);
+    }
+
+    // makeRequest() before routes were precompiled: the URL is concatenated per call, parsed, and rebuilt segment by
+    // segment for GETs, and the authorization header is concatenated per call.
+    private static Request baselineRequest(HttpMethod method, String url, Parameter parameters) {
+        Request.Builder requestBuilder = new Request.Builder();
+        requestBuilder.addHeader("X-MT-Authorization", "MTAuth accessToken=" + TOKEN);
+
+        if (method == HttpMethod.GET) {
+            HttpUrl httpUrl = HttpUrl.parse(url);
+
+            HttpUrl.Builder httpUrlBuilder = new HttpUrl.Builder();
+            httpUrlBuilder
+                    .scheme(httpUrl.scheme())
+                    .host(httpUrl.host())
+                    .port(httpUrl.port());
+
+            for (String s : httpUrl.pathSegments()) {
+                httpUrlBuilder.addPathSegment(s);
+            }
+            if (parameters != null) {
+                for (String key : parameters.keySet()) {
+                    httpUrlBuilder.addQueryParameter(key, parameters.get(key).toString());
+                }
+            }
+
+            requestBuilder
+                    .url(httpUrlBuilder.build())
+                    .get();
+        } else {
+            try {
+                requestBuilder.url(new URL(url));
+            } catch (MalformedURLException e) {
+                return null;
+            }
+
+            FormBody.Builder formBodyBuilder = new FormBody.Builder();
+            if (parameters != null) {
+                for (String key : parameters.keySet()) {
+                    formBodyBuilder.addEncoded(key, parameters.get(key).toString());
+                }
+            }
+            requestBuilder.method(method.name(), formBodyBuilder.build());
+        }
+
+        return requestBuilder.build();
+    }
+}
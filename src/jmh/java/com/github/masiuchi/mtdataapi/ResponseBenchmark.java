@@ -0,0 +1,69 @@
+package com.github.masiuchi.mtdataapi;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+
+// A full listEntries call against an in-memory page, parsed whole (ListCallback), streamed (ItemCallback)
+// or decoded lazily (ModelListCallback, reading two fields per item as an index builder would).
+@State(Scope.Benchmark)
+public class ResponseBenchmark {
+    @Param({"10", "100", "1000"})
+    public int items;
+
+    private DataAPI api;
+
+    @Setup
+    public void setUp() {
+        api = StubServer.api(StubServer.page(items));
+    }
+
+    @Benchmark
+    public void listCallback(final Blackhole blackhole) {
+        api.listEntries("1", null, new ListCallback() {
+            public void onSuccess(JSONArray items, int totalResults) {
+                blackhole.consume(items);
+            }
+
+            public void onFailure(JSONObject error) {
+                throw new IllegalStateException(error.toString());
+            }
+        });
+    }
+
+    @Benchmark
+    public void itemCallback(final Blackhole blackhole) {
+        api.listEntries("1", null, new ItemCallback() {
+            public void onItem(JSONObject item) {
+                blackhole.consume(item);
+            }
+
+            public void onFailure(JSONObject error) {
+                throw new IllegalStateException(error.toString());
+            }
+        });
+    }
+
+    @Benchmark
+    public void modelListCallback(final Blackhole blackhole) {
+        api.listEntries("1", null, new ModelListCallback<Entry>(Entry.TYPE) {
+            public void onSuccess(List<Entry> items, int totalResults) {
+                for (Entry entry : items) {
+                    blackhole.consume(entry.getID());
+                    blackhole.consume(entry.getModifiedDate());
+                }
+            }
+
+            public void onFailure(JSONObject error) {
+                throw new IllegalStateException(error.toString());
+            }
+        });
+    }
+}
@@ -0,0 +1,80 @@
+package com.github.masiuchi.mtdataapi;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+
+// Answers every call from memory, so benchmarks measure the SDK and OkHttp's chain but no sockets.
+// Request bodies are written out in full, as they would be to the network.
+class StubServer implements Interceptor {
+    private static final MediaType JSON = MediaType.parse("application/json; charset=utf-8");
+
+    private final byte[] body;
+
+    StubServer(byte[] body) {
+        this.body = body;
+    }
+
+    static DataAPI api(byte[] body) {
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(new StubServer(body))
+                .build();
+        return new DataAPI.Builder()
+                .APIBaseURL("http://localhost/mt-data-api.cgi")
+                .httpClient(client)
+                .build();
+    }
+
+    static byte[] page(int items) {
+        JSONArray array = new JSONArray();
+        for (int i = 0; i < items; i++) {
+            array.put(entry(i));
+        }
+        JSONObject page = new JSONObject();
+        page.put("totalResults", items * 10);
+        page.put("items", array);
+        return page.toString().getBytes();
+    }
+
+    static JSONObject entry(int id) {
+        JSONObject author = new JSONObject();
+        author.put("id", 1);
+        author.put("displayName", "Melody");
+        JSONObject entry = new JSONObject();
+        entry.put("id", id);
+        entry.put("title", "Entry " + id);
+        entry.put("status", "Publish");
+        entry.put("date", "2017-01-01T00:00:00+09:00");
+        entry.put("modifiedDate", "2017-01-02T00:00:00+09:00");
+        entry.put("permalink", "http://localhost/blog/2017/01/entry-" + id + ".html");
+        entry.put("author", author);
+        entry.put("body", "<p>Lorem ipsum dolor sit amet, consectetur adipiscing elit, sed do eiusmod tempor.</p>");
+        entry.put("tags", new JSONArray().put("news").put("java"));
+        return entry;
+    }
+
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (request.body() != null) {
+            Buffer sink = new Buffer();
+            request.body().writeTo(sink);
+            sink.clear();
+        }
+        return new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message("OK")
+                .body(ResponseBody.create(JSON, body))
+                .build();
+    }
+}
@@ -0,0 +1,42 @@
+package com.github.masiuchi.mtdataapi;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+// Building and writing out a multipart asset upload.
+@State(Scope.Benchmark)
+public class UploadBenchmark {
+    @Param({"16384", "1048576"})
+    public int size;
+
+    private DataAPI api;
+    private byte[] data;
+    private Parameter options;
+
+    @Setup
+    public void setUp() {
+        api = StubServer.api("{\"id\":1}".getBytes());
+        data = new byte[size];
+        options = new Parameter();
+        options.put("site_id", "1");
+        options.put("path", "/images");
+    }
+
+    @Benchmark
+    public void uploadAsset(final Blackhole blackhole) {
+        api.uploadAsset(data, "image.jpg", options, new ActionCallback() {
+            public void onSuccess(JSONObject response) {
+                blackhole.consume(response);
+            }
+
+            public void onFailure(JSONObject error) {
+                throw new IllegalStateException(error.toString());
+            }
+        });
+    }
+}
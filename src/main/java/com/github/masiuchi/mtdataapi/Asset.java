@@ -0,0 +1,45 @@
+package com.github.masiuchi.mtdataapi;
+
+public class Asset extends Model {
+    public static final Type<Asset> TYPE = new Type<Asset>() {
+        Asset create(LazyJSON json) {
+            return new Asset(json);
+        }
+    };
+
+    Asset(LazyJSON json) {
+        super(json);
+    }
+
+    public String getLabel() {
+        return getString("label");
+    }
+
+    public String getFilename() {
+        return getString("filename");
+    }
+
+    public String getURL() {
+        return getString("url");
+    }
+
+    public String getMimeType() {
+        return getString("mimeType");
+    }
+
+    public String getDescription() {
+        return getString("description");
+    }
+
+    public String getCreatedDate() {
+        return getString("createdDate");
+    }
+
+    public String getModifiedDate() {
+        return getString("modifiedDate");
+    }
+
+    public String getSiteID() {
+        return getNestedID("blog");
+    }
+}
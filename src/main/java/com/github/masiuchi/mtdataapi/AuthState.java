@@ -0,0 +1,52 @@
+package com.github.masiuchi.mtdataapi;
+
+// Immutable snapshot of the credentials a DataAPI sends; replaced atomically, never modified in place.
+public final class AuthState {
+    public static final AuthState EMPTY = new AuthState("", "");
+
+    public final String token;
+    public final String sessionID;
+
+    // Wall-clock expiry of the access token in milliseconds, or 0 when unknown.
+    public final long expiresAt;
+
+    // X-MT-Authorization values, built once per state instead of once per request; null when absent.
+    final String tokenHeader;
+    final String sessionHeader;
+
+    public AuthState(String token, String sessionID) {
+        this(token, sessionID, 0);
+    }
+
+    public AuthState(String token, String sessionID, long expiresAt) {
+        this.token = token != null ? token : "";
+        this.sessionID = sessionID != null ? sessionID : "";
+        this.expiresAt = expiresAt;
+        this.tokenHeader = hasToken() ? "MTAuth accessToken=" + this.token : null;
+        this.sessionHeader = hasSession() ? "MTAuth sessionId=" + this.sessionID : null;
+    }
+
+    public boolean hasToken() {
+        return !token.equals("");
+    }
+
+    public boolean hasSession() {
+        return !sessionID.equals("");
+    }
+
+    public boolean expiresWithin(long millis) {
+        return expiresAt > 0 && System.currentTimeMillis() + millis >= expiresAt;
+    }
+
+    public AuthState withToken(String token) {
+        return new AuthState(token, sessionID, 0);
+    }
+
+    public AuthState withToken(String token, long expiresAt) {
+        return new AuthState(token, sessionID, expiresAt);
+    }
+
+    public AuthState withSessionID(String sessionID) {
+        return new AuthState(token, sessionID, expiresAt);
+    }
+}
@@ -4,7 +4,13 @@ public class BasicAuth {
     public String username = "";
     public String password = "";
 
-    public boolean isSet() {
+    // Replaces both parts at once; DataAPI reads them under the same lock.
+    public synchronized void set(String username, String password) {
+        this.username = username;
+        this.password = password;
+    }
+
+    public synchronized boolean isSet() {
         return username != null && !username.equals("")
                 && password != null && !password.equals("");
     }
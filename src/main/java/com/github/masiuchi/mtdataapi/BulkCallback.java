@@ -0,0 +1,11 @@
+package com.github.masiuchi.mtdataapi;
+
+import org.json.JSONObject;
+
+// Called once per written resource, from worker threads and possibly concurrently.
+// `index` is the position of the resource in the order it was written.
+public abstract class BulkCallback {
+    public abstract void onSuccess(int index, Resource resource, JSONObject response);
+
+    public abstract void onFailure(int index, Resource resource, JSONObject error);
+}
@@ -0,0 +1,5 @@
+package com.github.masiuchi.mtdataapi;
+
+public interface BulkOperation {
+    public void apply(Resource resource, ActionCallback callback);
+}
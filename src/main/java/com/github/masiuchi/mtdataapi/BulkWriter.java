@@ -0,0 +1,128 @@
+package com.github.masiuchi.mtdataapi;
+
+import org.json.JSONObject;
+
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Applies one operation (createEntry, updateAsset, ...) to a stream of resources with up to `concurrency` calls in flight.
+// write() blocks while the window is full, so a producer can never run further ahead of the server than that.
+// A resource holds its slot until the operation reports it through the callback it was given, so an operation must
+// report every resource exactly once, success or failure; one that never does keeps its slot for good.
+public class BulkWriter {
+    private final DataAPI api;
+    private final BulkOperation operation;
+    private final BulkCallback callback;
+    private final int concurrency;
+    private final Semaphore window;
+
+    private final AtomicInteger nextIndex = new AtomicInteger();
+    private final AtomicLong succeededCount = new AtomicLong();
+    private final AtomicLong failedCount = new AtomicLong();
+
+    public BulkWriter(DataAPI api, BulkOperation operation, int concurrency, BulkCallback callback) {
+        if (concurrency <= 0) {
+            throw new IllegalArgumentException("concurrency must be positive");
+        }
+        this.api = api;
+        this.operation = operation;
+        this.callback = callback;
+        this.concurrency = concurrency;
+        this.window = new Semaphore(concurrency);
+    }
+
+    public void write(final Resource resource) throws InterruptedException {
+        window.acquire();
+        final Result result = new Result(nextIndex.getAndIncrement(), resource);
+        try {
+            api.submit(new Runnable() {
+                public void run() {
+                    try {
+                        operation.apply(resource, result);
+                    } catch (RuntimeException e) {
+                        result.onFailure(DataAPI.ERROR_JSON);
+                    }
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            result.onFailure(DataAPI.ERROR_JSON);
+        }
+    }
+
+    public void writeAll(Iterable<? extends Resource> resources) throws InterruptedException {
+        for (Resource resource : resources) {
+            write(resource);
+        }
+    }
+
+    // Waits until every resource written so far has been reported; call it once the producer has stopped writing.
+    public void awaitCompletion() throws InterruptedException {
+        window.acquire(concurrency);
+        window.release(concurrency);
+    }
+
+    // Like awaitCompletion(), but gives up after `timeout`; returns false if some resources are still unreported.
+    public boolean awaitCompletion(long timeout, TimeUnit unit) throws InterruptedException {
+        if (!window.tryAcquire(concurrency, timeout, unit)) {
+            return false;
+        }
+        window.release(concurrency);
+        return true;
+    }
+
+    public int writtenCount() {
+        return nextIndex.get();
+    }
+
+    public int inFlightCount() {
+        return concurrency - window.availablePermits();
+    }
+
+    public long succeededCount() {
+        return succeededCount.get();
+    }
+
+    public long failedCount() {
+        return failedCount.get();
+    }
+
+    // Frees the resource's slot exactly once, even if the operation reports twice or throws after reporting.
+    private class Result extends ActionCallback {
+        private final int index;
+        private final Resource resource;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        Result(int index, Resource resource) {
+            this.index = index;
+            this.resource = resource;
+        }
+
+        public void onSuccess(JSONObject response) {
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            succeededCount.incrementAndGet();
+            try {
+                callback.onSuccess(index, resource, response);
+            } finally {
+                window.release();
+            }
+        }
+
+        public void onFailure(JSONObject error) {
+            if (!done.compareAndSet(false, true)) {
+                return;
+            }
+            failedCount.incrementAndGet();
+            try {
+                callback.onFailure(index, resource, error);
+            } finally {
+                window.release();
+            }
+        }
+    }
+}
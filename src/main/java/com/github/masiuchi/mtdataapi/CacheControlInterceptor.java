@@ -0,0 +1,31 @@
+package com.github.masiuchi.mtdataapi;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+
+import java.io.IOException;
+
+// Network interceptor for the disk cache.
+// Responses are keyed per credentials, and validator-only responses are revalidated on every use.
+class CacheControlInterceptor implements Interceptor {
+    private static final String AUTH_HEADERS = "X-MT-Authorization, Authorization";
+
+    public Response intercept(Chain chain) throws IOException {
+        Response response = chain.proceed(chain.request());
+        if (!chain.request().method().equals("GET")) {
+            return response;
+        }
+
+        Response.Builder builder = response.newBuilder();
+
+        String vary = response.header("Vary");
+        builder.header("Vary", vary == null || vary.equals("") ? AUTH_HEADERS : vary + ", " + AUTH_HEADERS);
+
+        boolean hasValidator = response.header("ETag") != null || response.header("Last-Modified") != null;
+        if (hasValidator && response.header("Cache-Control") == null && response.header("Expires") == null) {
+            builder.header("Cache-Control", "no-cache");
+        }
+
+        return builder.build();
+    }
+}
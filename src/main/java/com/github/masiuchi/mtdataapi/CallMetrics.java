@@ -0,0 +1,41 @@
+package com.github.masiuchi.mtdataapi;
+
+// Timings of one call in nanoseconds. Phases that did not happen (e.g. DNS and connect on a pooled connection,
+// or everything for a call answered by the cache or coalescing) are -1.
+public final class CallMetrics {
+    // null for requests that were not built by DataAPI.
+    public final Route route;
+    public final String method;
+    // 0 when no response was received.
+    public final int code;
+    // True when the call or the reading of its body ended with an I/O error.
+    public final boolean failed;
+
+    public final long dnsNanos;
+    public final long connectNanos;
+    public final long tlsNanos;
+    // From sending the request headers to receiving the response headers, for the last attempt.
+    public final long ttfbNanos;
+    public final long totalNanos;
+
+    public final long requestBytes;
+    public final long responseBytes;
+    // Network attempts beyond the first, from the retry policy or redirects.
+    public final int retries;
+
+    CallMetrics(Route route, String method, int code, boolean failed, long dnsNanos, long connectNanos, long tlsNanos,
+                long ttfbNanos, long totalNanos, long requestBytes, long responseBytes, int retries) {
+        this.route = route;
+        this.method = method;
+        this.code = code;
+        this.failed = failed;
+        this.dnsNanos = dnsNanos;
+        this.connectNanos = connectNanos;
+        this.tlsNanos = tlsNanos;
+        this.ttfbNanos = ttfbNanos;
+        this.totalNanos = totalNanos;
+        this.requestBytes = requestBytes;
+        this.responseBytes = responseBytes;
+        this.retries = retries;
+    }
+}
@@ -0,0 +1,30 @@
+package com.github.masiuchi.mtdataapi;
+
+public class Category extends Model {
+    public static final Type<Category> TYPE = new Type<Category>() {
+        Category create(LazyJSON json) {
+            return new Category(json);
+        }
+    };
+
+    Category(LazyJSON json) {
+        super(json);
+    }
+
+    public String getLabel() {
+        return getString("label");
+    }
+
+    public String getBasename() {
+        return getString("basename");
+    }
+
+    public String getDescription() {
+        return getString("description");
+    }
+
+    // "0" for top-level categories.
+    public String getParentID() {
+        return getString("parent");
+    }
+}
@@ -0,0 +1,265 @@
+package com.github.masiuchi.mtdataapi;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Keeps one breaker per route family (entries, assets, publish, stats, ...), so a failing or slow endpoint
+// group fails fast without affecting the others. Connection failures and 5xx responses count as failures.
+// Calls a RateLimiter further down turns away or defers never reached the server and are not counted at all, and
+// the time calls spend waiting in the limiter is left out of their latency.
+public class CircuitBreaker implements Interceptor {
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long slowCallNanos;
+    private final double slowCallRateThreshold;
+    private final long openNanos;
+    private final int halfOpenCalls;
+
+    private final ConcurrentHashMap<String, Circuit> circuits = new ConcurrentHashMap<String, Circuit>();
+    private final AtomicLong rejectedCount = new AtomicLong();
+
+    private CircuitBreaker(Builder builder) {
+        windowSize = builder.windowSize;
+        minimumCalls = builder.minimumCalls;
+        failureRateThreshold = builder.failureRateThreshold;
+        slowCallNanos = builder.slowCallNanos;
+        slowCallRateThreshold = builder.slowCallRateThreshold;
+        openNanos = builder.openNanos;
+        halfOpenCalls = builder.halfOpenCalls;
+    }
+
+    public static class Builder {
+        private int windowSize = 20;
+        private int minimumCalls = 10;
+        private double failureRateThreshold = 0.5;
+        private long slowCallNanos = TimeUnit.SECONDS.toNanos(10);
+        private double slowCallRateThreshold = 1.0;
+        private long openNanos = TimeUnit.SECONDS.toNanos(30);
+        private int halfOpenCalls = 3;
+
+        // Rates are computed over the last `windowSize` calls, once at least `minimumCalls` have completed.
+        public Builder window(int windowSize, int minimumCalls) {
+            if (windowSize <= 0 || minimumCalls <= 0 || minimumCalls > windowSize) {
+                throw new IllegalArgumentException("minimumCalls must be between 1 and windowSize");
+            }
+            this.windowSize = windowSize;
+            this.minimumCalls = minimumCalls;
+            return this;
+        }
+
+        public Builder failureRateThreshold(double failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+            return this;
+        }
+
+        // Calls slower than `threshold` count as slow; the breaker also opens when their rate reaches `rate`.
+        public Builder slowCalls(long threshold, TimeUnit unit, double rate) {
+            this.slowCallNanos = unit.toNanos(threshold);
+            this.slowCallRateThreshold = rate;
+            return this;
+        }
+
+        // How long an open breaker rejects calls before letting `halfOpenCalls` probes through.
+        public Builder openDuration(long duration, TimeUnit unit) {
+            this.openNanos = unit.toNanos(duration);
+            return this;
+        }
+
+        public Builder halfOpenCalls(int halfOpenCalls) {
+            if (halfOpenCalls <= 0) {
+                throw new IllegalArgumentException("halfOpenCalls must be positive");
+            }
+            this.halfOpenCalls = halfOpenCalls;
+            return this;
+        }
+
+        public CircuitBreaker build() {
+            return new CircuitBreaker(this);
+        }
+    }
+
+    public static class OpenException extends IOException {
+        public final String family;
+
+        OpenException(String family) {
+            super("Circuit breaker is open for " + family);
+            this.family = family;
+        }
+    }
+
+    public State state(String family) {
+        Circuit circuit = circuits.get(family);
+        return circuit != null ? circuit.state(System.nanoTime()) : State.CLOSED;
+    }
+
+    public long rejectedCount() {
+        return rejectedCount.get();
+    }
+
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String family = family(request);
+        Circuit circuit = circuit(family);
+
+        long start = System.nanoTime();
+        long generation = circuit.acquire(start);
+        if (generation < 0) {
+            rejectedCount.incrementAndGet();
+            throw new OpenException(family);
+        }
+
+        RateLimiter.WaitTime waited = new RateLimiter.WaitTime();
+        Response response;
+        try {
+            response = chain.proceed(request.newBuilder().tag(RateLimiter.WaitTime.class, waited).build());
+        } catch (RateLimiter.RejectedException | RateLimiter.Throttled e) {
+            circuit.cancel(generation);
+            throw e;
+        } catch (IOException | RuntimeException e) {
+            long now = System.nanoTime();
+            circuit.record(generation, true, now - start - waited.nanos(), now);
+            throw e;
+        }
+        long now = System.nanoTime();
+        circuit.record(generation, response.code() >= 500, now - start - waited.nanos(), now);
+        return response;
+    }
+
+    Circuit circuit(String family) {
+        Circuit circuit = circuits.get(family);
+        if (circuit == null) {
+            Circuit created = new Circuit();
+            circuit = circuits.putIfAbsent(family, created);
+            if (circuit == null) {
+                circuit = created;
+            }
+        }
+        return circuit;
+    }
+
+    // Requests built by DataAPI carry their Route; for anything else, use the resource after the version
+    // (and after /sites/{site_id}), so "/v3/sites/1/entries/2" belongs to "entries".
+    static String family(Request request) {
+        Object tag = request.tag();
+        if (tag instanceof Route) {
+            return ((Route) tag).family;
+        }
+        List<String> segments = request.url().pathSegments();
+        int i = 0;
+        while (i < segments.size() && !segments.get(i).matches("v\\d+")) {
+            i++;
+        }
+        if (i == segments.size()) {
+            return "default";
+        }
+        i++;
+        if (i + 2 < segments.size() && segments.get(i).equals("sites")) {
+            i += 2;
+        }
+        return i < segments.size() ? segments.get(i) : "default";
+    }
+
+    class Circuit {
+        private State state = State.CLOSED;
+        private long generation = 0;
+        private long openedAt;
+        private int probes;
+        private int probeSuccesses;
+
+        private final boolean[] failed = new boolean[windowSize];
+        private final boolean[] slow = new boolean[windowSize];
+        private int count;
+        private int next;
+        private int failures;
+        private int slows;
+
+        synchronized State state(long now) {
+            if (state == State.OPEN && now - openedAt >= openNanos) {
+                return State.HALF_OPEN;
+            }
+            return state;
+        }
+
+        // Returns the generation the call belongs to, or -1 when it must be rejected.
+        synchronized long acquire(long now) {
+            if (state == State.OPEN) {
+                if (now - openedAt < openNanos) {
+                    return -1;
+                }
+                transition(State.HALF_OPEN, now);
+            }
+            if (state == State.HALF_OPEN) {
+                if (probes >= halfOpenCalls) {
+                    return -1;
+                }
+                probes++;
+            }
+            return generation;
+        }
+
+        // Gives back the probe of a call that ended without an outcome.
+        synchronized void cancel(long callGeneration) {
+            if (callGeneration == generation && state == State.HALF_OPEN) {
+                probes--;
+            }
+        }
+
+        // Outcomes of calls admitted before the last state change are ignored.
+        synchronized void record(long callGeneration, boolean failure, long elapsedNanos, long now) {
+            if (callGeneration != generation) {
+                return;
+            }
+            boolean isSlow = elapsedNanos >= slowCallNanos;
+
+            if (state == State.HALF_OPEN) {
+                if (failure || isSlow) {
+                    transition(State.OPEN, now);
+                } else if (++probeSuccesses >= halfOpenCalls) {
+                    transition(State.CLOSED, now);
+                }
+                return;
+            }
+
+            if (count == windowSize) {
+                failures -= failed[next] ? 1 : 0;
+                slows -= slow[next] ? 1 : 0;
+            } else {
+                count++;
+            }
+            failed[next] = failure;
+            slow[next] = isSlow;
+            failures += failure ? 1 : 0;
+            slows += isSlow ? 1 : 0;
+            next = (next + 1) % windowSize;
+
+            if (count >= minimumCalls
+                    && (failures >= failureRateThreshold * count || slows >= slowCallRateThreshold * count)) {
+                transition(State.OPEN, now);
+            }
+        }
+
+        private void transition(State to, long now) {
+            state = to;
+            generation++;
+            openedAt = now;
+            probes = 0;
+            probeSuccesses = 0;
+            count = 0;
+            next = 0;
+            failures = 0;
+            slows = 0;
+        }
+    }
+}
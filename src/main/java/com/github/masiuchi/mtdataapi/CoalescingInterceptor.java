@@ -0,0 +1,189 @@
+package com.github.masiuchi.mtdataapi;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Lets concurrent identical GETs (same URL, query and credentials) share one network call.
+// The leader buffers the body and every waiter gets its own copy of it. Blocking waiters wait on their own thread;
+// async calls go through lead() first and join as followers, so they never hold a dispatcher thread while waiting.
+class CoalescingInterceptor implements Interceptor {
+    private final ConcurrentHashMap<String, Flight> flights = new ConcurrentHashMap<String, Flight>();
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    // Completed with a copy of the shared response, or the leader's error, on the thread that finished the flight.
+    abstract static class Follower {
+        abstract void onResponse(Response response);
+
+        abstract void onFailure(IOException e);
+    }
+
+    private static class Flight {
+        final CountDownLatch done = new CountDownLatch(1);
+        Response response;
+        MediaType contentType;
+        byte[] body;
+        IOException error;
+        // Null once the flight has finished.
+        private List<Follower> followers = new ArrayList<Follower>();
+
+        Response copy() {
+            return response.newBuilder()
+                    .body(ResponseBody.create(contentType, body))
+                    .build();
+        }
+
+        synchronized boolean add(Follower follower) {
+            if (followers == null) {
+                return false;
+            }
+            followers.add(follower);
+            return true;
+        }
+
+        // For a flight whose leader never ran; does nothing once the flight has finished.
+        void fail(IOException e) {
+            synchronized (this) {
+                if (followers == null) {
+                    return;
+                }
+                error = e;
+            }
+            finish();
+        }
+
+        void finish() {
+            List<Follower> waiting;
+            synchronized (this) {
+                if (followers == null) {
+                    return;
+                }
+                waiting = followers;
+                followers = null;
+            }
+            done.countDown();
+            for (Follower follower : waiting) {
+                if (error == null) {
+                    follower.onResponse(copy());
+                } else {
+                    follower.onFailure(error instanceof RetryInterceptor.Deferred ? error : new IOException(error));
+                }
+            }
+        }
+    }
+
+    static String key(Request request) {
+        String auth = request.header("X-MT-Authorization");
+        String basic = request.header("Authorization");
+        return request.url() + "\n" + (auth != null ? auth : "") + "\n" + (basic != null ? basic : "");
+    }
+
+    long coalescedCount() {
+        return coalescedCount.get();
+    }
+
+    // Sharing means buffering the whole body, which streamed downloads (sent with no-store)
+    // and item-streamed lists (tagged with their ItemCallback) must avoid.
+    private static boolean coalescable(Request request) {
+        return request.method().equals("GET") && !request.cacheControl().noStore()
+                && request.tag(ItemCallback.class) == null;
+    }
+
+    // For a call about to be enqueued: attaches `follower` to an identical GET in flight and returns null,
+    // or opens a flight for this call and returns the request to enqueue, tagged so that it leads that flight.
+    Request lead(Request request, Follower follower) {
+        if (!coalescable(request)) {
+            return request;
+        }
+        String key = key(request);
+        while (true) {
+            Flight existing = flights.get(key);
+            if (existing != null) {
+                if (existing.add(follower)) {
+                    coalescedCount.incrementAndGet();
+                    return null;
+                }
+                // Finished but not yet removed by its leader.
+                flights.remove(key, existing);
+                continue;
+            }
+            Flight flight = new Flight();
+            if (flights.putIfAbsent(key, flight) == null) {
+                return request.newBuilder().tag(Flight.class, flight).build();
+            }
+        }
+    }
+
+    // Finishes the flight of a led call that failed before reaching this interceptor, so its followers are not left waiting.
+    void abandon(Request request, IOException e) {
+        Flight flight = request.tag(Flight.class);
+        if (flight != null) {
+            flights.remove(key(request), flight);
+            flight.fail(e);
+        }
+    }
+
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (!coalescable(request)) {
+            return chain.proceed(request);
+        }
+
+        String key = key(request);
+        Flight flight = request.tag(Flight.class);
+        if (flight == null) {
+            flight = new Flight();
+            Flight existing = flights.putIfAbsent(key, flight);
+            if (existing != null) {
+                coalescedCount.incrementAndGet();
+                return await(existing);
+            }
+        }
+
+        try {
+            Response response = chain.proceed(request);
+            ResponseBody body = response.body();
+            flight.contentType = body.contentType();
+            flight.body = body.bytes();
+            flight.response = response;
+        } catch (IOException e) {
+            flight.error = e;
+            throw e;
+        } catch (RuntimeException e) {
+            flight.error = new IOException(e);
+            throw e;
+        } finally {
+            flights.remove(key, flight);
+            flight.finish();
+        }
+
+        return flight.copy();
+    }
+
+    private Response await(Flight flight) throws IOException {
+        try {
+            flight.done.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+        if (flight.error instanceof RetryInterceptor.Deferred) {
+            // Waiters follow the leader's scheduled retry instead of failing.
+            throw flight.error;
+        }
+        if (flight.error != null) {
+            throw new IOException(flight.error);
+        }
+        return flight.copy();
+    }
+}
@@ -0,0 +1,37 @@
+package com.github.masiuchi.mtdataapi;
+
+public class Comment extends Model {
+    public static final Type<Comment> TYPE = new Type<Comment>() {
+        Comment create(LazyJSON json) {
+            return new Comment(json);
+        }
+    };
+
+    Comment(LazyJSON json) {
+        super(json);
+    }
+
+    public String getBody() {
+        return getString("body");
+    }
+
+    public String getStatus() {
+        return getString("status");
+    }
+
+    public String getDate() {
+        return getString("date");
+    }
+
+    public User getAuthor() {
+        return get("author", User.TYPE);
+    }
+
+    public String getEntryID() {
+        return getNestedID("entry");
+    }
+
+    public String getParentID() {
+        return getString("parent");
+    }
+}
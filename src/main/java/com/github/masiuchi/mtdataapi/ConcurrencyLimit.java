@@ -0,0 +1,128 @@
+package com.github.masiuchi.mtdataapi;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// AIMD limit on calls in flight: each call that completes within the latency target raises the limit by 1/limit
+// (about one per round of calls); a failure, rejection or slow call cuts it by `backoffRatio`, at most once per target period.
+class ConcurrencyLimit {
+    private final int minLimit;
+    private final int maxLimit;
+    private final long targetNanos;
+    private final double backoffRatio;
+
+    private double limit;
+    private int inFlight;
+    private int waiting;
+    private long decreasedAt;
+    private List<Parked> parked = new ArrayList<Parked>();
+
+    ConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, long targetNanos, double backoffRatio) {
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.targetNanos = targetNanos;
+        this.backoffRatio = backoffRatio;
+        this.limit = initialLimit;
+        this.decreasedAt = System.nanoTime() - targetNanos;
+    }
+
+    // Returns false if no slot freed up within `maxWaitNanos`.
+    synchronized boolean acquire(long maxWaitNanos) throws InterruptedException {
+        long deadline = System.nanoTime() + maxWaitNanos;
+        waiting++;
+        try {
+            while (inFlight >= (int) limit) {
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0) {
+                    return false;
+                }
+                wait(remaining / 1000000, (int) (remaining % 1000000));
+            }
+            inFlight++;
+            return true;
+        } finally {
+            waiting--;
+        }
+    }
+
+    synchronized boolean tryAcquire() {
+        if (inFlight >= (int) limit) {
+            return false;
+        }
+        inFlight++;
+        return true;
+    }
+
+    // For callers that cannot wait on a thread: runs `task` right away if a slot is free, otherwise on the next
+    // release or once `deadline` (System.nanoTime()) has passed, whichever comes first. The task must try again.
+    void whenReleased(Runnable task, long deadline) {
+        Parked waiter = new Parked(task);
+        boolean free;
+        synchronized (this) {
+            free = inFlight < (int) limit;
+            if (!free) {
+                parked.add(waiter);
+            }
+        }
+        if (free) {
+            waiter.run();
+            return;
+        }
+        long remaining = Math.max(0, deadline - System.nanoTime());
+        RetryInterceptor.schedule(waiter, (remaining + 999999) / 1000000);
+    }
+
+    void release(long latencyNanos, boolean dropped, long now) {
+        List<Parked> woken;
+        synchronized (this) {
+            inFlight--;
+            if (dropped || latencyNanos > targetNanos) {
+                if (now - decreasedAt >= targetNanos) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    decreasedAt = now;
+                }
+            } else {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            notifyAll();
+            if (parked.isEmpty()) {
+                return;
+            }
+            // Like notifyAll(): every parked call tries again, and those that lose the slot park again.
+            woken = parked;
+            parked = new ArrayList<Parked>();
+        }
+        for (Parked waiter : woken) {
+            waiter.run();
+        }
+    }
+
+    synchronized int limit() {
+        return (int) limit;
+    }
+
+    synchronized int inFlight() {
+        return inFlight;
+    }
+
+    synchronized int waiting() {
+        return waiting;
+    }
+
+    // Runs its task once, whether a release or the timeout gets to it first.
+    private static final class Parked implements Runnable {
+        private final Runnable task;
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        Parked(Runnable task) {
+            this.task = task;
+        }
+
+        public void run() {
+            if (started.compareAndSet(false, true)) {
+                task.run();
+            }
+        }
+    }
+}
@@ -1,244 +1,1489 @@
 package com.github.masiuchi.mtdataapi;
 
 import okhttp3.*;
+import org.json.JSONArray;
+import org.json.JSONException;
 import org.json.JSONObject;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.UnsupportedEncodingException;
-import java.net.MalformedURLException;
-import java.net.URL;
 import java.net.URLDecoder;
 import java.net.URLEncoder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class DataAPI {
-    private static final JSONObject ERROR_JSON = new JSONObject();
+    static final JSONObject ERROR_JSON = new JSONObject();
     static {
         ERROR_JSON.put("code", "-1");
         ERROR_JSON.put("message", "The operation has not been completed.");
     }
 
+    // Instances built without their own client share this one's connection pool, dispatcher and threads.
+    // Declared before sharedInstance, which is built from it.
+    private static final OkHttpClient DEFAULT_CLIENT = new OkHttpClient();
+
     //MARK: - Properties
-    public static DataAPI sharedInstance = new DataAPI();
+    // Point it at a server with `sharedInstance.APIBaseURL = ...`, or replace it with a built instance.
+    public static volatile DataAPI sharedInstance = new DataAPI();
+
+    // The mutable fields below are kept for code written before DataAPI.Builder. Only instances made with
+    // new DataAPI(), sharedInstance among them, pick up writes to them on the next call. Builder-built instances
+    // keep the configuration they were built with: the fields show it, and writes to them are ignored.
+    // Prefer the builder and setAuthState(), which other threads always see consistently.
+    @Deprecated
+    public volatile String token;
+    @Deprecated
+    public volatile String sessionID;
+
+    public volatile String endpointVersion;
+    @Deprecated
+    public volatile String APIBaseURL;
+
+    @Deprecated
+    public volatile String clientID;
+
+    // Set both parts with BasicAuth.set() so that a call never sees a new username with an old password.
+    @Deprecated
+    public volatile BasicAuth basicAuth;
+
+    public volatile String apiVersion;
+    @Deprecated
+    public volatile OkHttpClient httpClient;
+
+    // When true, calls return immediately and callbacks run on OkHttp's dispatcher threads.
+    public final boolean async;
+
+    // When set (and async is false), each call runs blocking on this executor and its callback runs there too.
+    // Pair with VirtualThreads.newExecutor() to get one virtual thread per call on Java 21+.
+    public final Executor executor;
+
+    // When set, single-resource GETs (getEntry, getCategory, ...) are served from memory
+    // and successful updates and deletes through this instance invalidate the matching paths.
+    public final ObjectCache objectCache;
+
+    // When set, calls to a route family whose breaker is open fail immediately instead of reaching the server.
+    public final CircuitBreaker circuitBreaker;
+
+    // When set, every attempt (including retries) waits for a token and a concurrency slot of its route family.
+    public final RateLimiter rateLimiter;
+
+    // When set, receives timings, byte counts and status codes of every call; see InMemoryMetrics.
+    public final MetricsListener metricsListener;
+
+    // When set, sees the route, redacted parameters and timings of every call; see SlowCallLogger.
+    public final Tracer tracer;
+
+    private final CoalescingInterceptor coalescing;
+    private final RetryInterceptor retry;
+    // Default `fields` per route family; see Builder.projection().
+    private final Map<String, Projection> projections;
+
+    private final AtomicReference<AuthState> auth;
+    // The token refresh in flight, shared by every call that finds the same token stale.
+    private final AtomicReference<PendingRefresh> refreshing = new AtomicReference<PendingRefresh>();
+    private final boolean tokenRefresh;
+    private final long tokenRefreshMargin;
+
+    // The token and session ID last copied into the legacy fields; a field that differs was assigned by the caller.
+    // Written together with the fields under legacyLock.
+    private final Object legacyLock = new Object();
+    private volatile String mirroredToken;
+    private volatile String mirroredSessionID;
+
+    // True for new DataAPI(), which reads the legacy fields on every call; the configuration below is used otherwise.
+    private final boolean legacy;
+    private final String configuredBaseURL;
+    private final String configuredClientID;
+    private final OkHttpClient configuredClient;
+    private final String configuredCredential;
+
+    // Parsed once per APIBaseURL and endpointVersion; routes append their segments to these
+    // instead of re-parsing a concatenated string.
+    private volatile URLs urls;
+    private volatile Credential credential;
+
+    // Marks threads that are already running DataAPI work, so nested calls stay on the current thread.
+    private static final ThreadLocal<Boolean> INLINE = new ThreadLocal<Boolean>();
+
+    //MARK: - Initializers
+    public DataAPI() {
+        this(new Builder(), true);
+    }
+
+    private DataAPI(Builder builder, boolean legacy) {
+        this.legacy = legacy;
+        APIBaseURL = configuredBaseURL = builder.APIBaseURL;
+        endpointVersion = builder.endpointVersion;
+        clientID = configuredClientID = builder.clientID;
+        apiVersion = "";
+        async = builder.async;
+        executor = builder.executor;
+        objectCache = builder.objectCache;
+        circuitBreaker = builder.circuitBreaker;
+        rateLimiter = builder.rateLimiter;
+        metricsListener = builder.metricsListener;
+        tracer = builder.tracer;
+        projections = new HashMap<String, Projection>(builder.projections);
+
+        basicAuth = new BasicAuth();
+        basicAuth.set(builder.basicAuthUsername, builder.basicAuthPassword);
+        configuredCredential = basicAuth.isSet() ? Credentials.basic(builder.basicAuthUsername, builder.basicAuthPassword) : null;
+
+        auth = new AtomicReference<AuthState>(builder.authState);
+        mirror();
+        tokenRefresh = builder.tokenRefresh;
+        tokenRefreshMargin = builder.tokenRefreshMargin;
+
+        OkHttpClient.Builder clientBuilder = builder.httpClient != null
+                ? builder.httpClient.newBuilder()
+                : DEFAULT_CLIENT.newBuilder();
+        if (builder.connectionPool != null) {
+            clientBuilder.connectionPool(builder.connectionPool);
+        }
+        if (builder.maxRequests > 0 || builder.maxRequestsPerHost > 0) {
+            Dispatcher dispatcher = new Dispatcher();
+            if (builder.maxRequests > 0) {
+                dispatcher.setMaxRequests(builder.maxRequests);
+            }
+            if (builder.maxRequestsPerHost > 0) {
+                dispatcher.setMaxRequestsPerHost(builder.maxRequestsPerHost);
+            }
+            clientBuilder.dispatcher(dispatcher);
+        }
+        if (builder.connectTimeoutMillis >= 0) {
+            clientBuilder.connectTimeout(builder.connectTimeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        if (builder.readTimeoutMillis >= 0) {
+            clientBuilder.readTimeout(builder.readTimeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        if (builder.writeTimeoutMillis >= 0) {
+            clientBuilder.writeTimeout(builder.writeTimeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        if (builder.callTimeoutMillis >= 0) {
+            clientBuilder.callTimeout(builder.callTimeoutMillis, TimeUnit.MILLISECONDS);
+        }
+        if (builder.protocols != null) {
+            clientBuilder.protocols(builder.protocols);
+        }
+        if (metricsListener != null || tracer != null) {
+            MetricsCollector collector = new MetricsCollector(metricsListener, tracer);
+            clientBuilder.addInterceptor(collector).eventListenerFactory(collector);
+        }
+        if (builder.coalescing) {
+            coalescing = new CoalescingInterceptor();
+            clientBuilder.addInterceptor(coalescing);
+        } else {
+            coalescing = null;
+        }
+        if (circuitBreaker != null) {
+            clientBuilder.addInterceptor(circuitBreaker);
+        }
+        if (builder.retryPolicy != null) {
+            retry = new RetryInterceptor(builder.retryPolicy);
+            clientBuilder.addInterceptor(retry);
+        } else {
+            retry = null;
+        }
+        if (rateLimiter != null) {
+            clientBuilder.addInterceptor(rateLimiter);
+        }
+        if (builder.cacheDirectory != null) {
+            clientBuilder
+                    .cache(new Cache(builder.cacheDirectory, builder.cacheMaxSize))
+                    .addNetworkInterceptor(new CacheControlInterceptor());
+        }
+        httpClient = configuredClient = clientBuilder.build();
+    }
+
+    // A view is built from the base's configuration as it is now; it never reads the legacy fields.
+    private DataAPI(DataAPI base, AuthState authState) {
+        legacy = false;
+        APIBaseURL = configuredBaseURL = base.urls().APIBaseURL;
+        endpointVersion = base.endpointVersion;
+        clientID = configuredClientID = base.clientID();
+        apiVersion = base.apiVersion;
+        httpClient = configuredClient = base.httpClient();
+        configuredCredential = base.basicCredential();
+        async = base.async;
+        executor = base.executor;
+        objectCache = base.objectCache;
+        circuitBreaker = base.circuitBreaker;
+        rateLimiter = base.rateLimiter;
+        metricsListener = base.metricsListener;
+        tracer = base.tracer;
+        basicAuth = base.basicAuth;
+        coalescing = base.coalescing;
+        retry = base.retry;
+        projections = base.projections;
+
+        auth = new AtomicReference<AuthState>(authState);
+        mirror();
+        tokenRefresh = base.tokenRefresh;
+        tokenRefreshMargin = base.tokenRefreshMargin;
+    }
+
+    public static class Builder {
+        private String APIBaseURL = "";
+        private String endpointVersion = "v3";
+        private String clientID = "MTDataAPIClient";
+        private String basicAuthUsername = "";
+        private String basicAuthPassword = "";
+        private AuthState authState = AuthState.EMPTY;
+        private OkHttpClient httpClient = null;
+        private ConnectionPool connectionPool = null;
+        private int maxRequests = 0;
+        private int maxRequestsPerHost = 0;
+        private long connectTimeoutMillis = -1;
+        private long readTimeoutMillis = -1;
+        private long writeTimeoutMillis = -1;
+        private long callTimeoutMillis = -1;
+        private List<Protocol> protocols = null;
+        private boolean async = false;
+        private Executor executor = null;
+        private ObjectCache objectCache = null;
+        private File cacheDirectory = null;
+        private long cacheMaxSize = 0;
+        private boolean coalescing = false;
+        private RetryPolicy retryPolicy = null;
+        private CircuitBreaker circuitBreaker = null;
+        private RateLimiter rateLimiter = null;
+        private MetricsListener metricsListener = null;
+        private Tracer tracer = null;
+        private final Map<String, Projection> projections = new HashMap<String, Projection>();
+        private boolean tokenRefresh = false;
+        private long tokenRefreshMargin = TimeUnit.SECONDS.toMillis(60);
+
+        public Builder APIBaseURL(String APIBaseURL) {
+            this.APIBaseURL = APIBaseURL;
+            return this;
+        }
+
+        public Builder endpointVersion(String endpointVersion) {
+            this.endpointVersion = endpointVersion;
+            return this;
+        }
+
+        public Builder clientID(String clientID) {
+            this.clientID = clientID;
+            return this;
+        }
+
+        public Builder basicAuth(String username, String password) {
+            this.basicAuthUsername = username;
+            this.basicAuthPassword = password;
+            return this;
+        }
+
+        public Builder authState(AuthState authState) {
+            this.authState = authState != null ? authState : AuthState.EMPTY;
+            return this;
+        }
+
+        // Instances built from the same client share its connection pool and dispatcher.
+        // Without one, all instances share a default client; the options below are applied on top of either.
+        public Builder httpClient(OkHttpClient httpClient) {
+            this.httpClient = httpClient;
+            return this;
+        }
+
+        // Gives this instance its own pool instead of the shared client's.
+        public Builder connectionPool(int maxIdleConnections, long keepAlive, TimeUnit unit) {
+            this.connectionPool = new ConnectionPool(maxIdleConnections, keepAlive, unit);
+            return this;
+        }
+
+        // Limits for async calls (OkHttp's defaults are 64 and 5). Setting either gives this instance its own dispatcher.
+        public Builder maxRequests(int maxRequests, int maxRequestsPerHost) {
+            if (maxRequests <= 0 || maxRequestsPerHost <= 0) {
+                throw new IllegalArgumentException("maxRequests and maxRequestsPerHost must be positive");
+            }
+            this.maxRequests = maxRequests;
+            this.maxRequestsPerHost = maxRequestsPerHost;
+            return this;
+        }
+
+        // 0 disables a timeout. OkHttp's defaults are 10 seconds for connect, read and write and no call timeout.
+        public Builder connectTimeout(long timeout, TimeUnit unit) {
+            this.connectTimeoutMillis = unit.toMillis(timeout);
+            return this;
+        }
+
+        public Builder readTimeout(long timeout, TimeUnit unit) {
+            this.readTimeoutMillis = unit.toMillis(timeout);
+            return this;
+        }
+
+        public Builder writeTimeout(long timeout, TimeUnit unit) {
+            this.writeTimeoutMillis = unit.toMillis(timeout);
+            return this;
+        }
+
+        // Bounds a whole call, including redirects and (for blocking calls) retries by the retry policy.
+        public Builder callTimeout(long timeout, TimeUnit unit) {
+            this.callTimeoutMillis = unit.toMillis(timeout);
+            return this;
+        }
+
+        // HTTP/2 is negotiated over TLS by default; pass HTTP_1_1 alone to turn it off,
+        // or H2_PRIOR_KNOWLEDGE alone for a cleartext HTTP/2 front end.
+        public Builder protocols(Protocol... protocols) {
+            this.protocols = Arrays.asList(protocols);
+            return this;
+        }
+
+        public Builder async(boolean async) {
+            this.async = async;
+            return this;
+        }
+
+        public Builder executor(Executor executor) {
+            this.executor = executor;
+            return this;
+        }
+
+        public Builder objectCache(ObjectCache objectCache) {
+            this.objectCache = objectCache;
+            return this;
+        }
+
+        // Stores GET responses on disk and revalidates them with If-None-Match / If-Modified-Since.
+        public Builder cache(File directory, long maxSize) {
+            this.cacheDirectory = directory;
+            this.cacheMaxSize = maxSize;
+            return this;
+        }
+
+        // Concurrent identical GETs share one in-flight call; every waiting callback is completed from its response.
+        // Async calls that find one in flight follow it without taking a dispatcher thread until it completes.
+        public Builder coalescing(boolean coalescing) {
+            this.coalescing = coalescing;
+            return this;
+        }
+
+        // Retries failed idempotent calls with backoff; runs inside coalescing, so a shared call is retried once for all waiters.
+        // Async calls wait out the backoff off the dispatcher and are enqueued again, so each of their attempts is a call
+        // of its own to coalescing, the breaker and the metrics listener.
+        public Builder retryPolicy(RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        // Sits outside the retry policy, so one blocking call and all of its retries count as a single outcome.
+        // Calls the rate limiter turns away are not counted, and time spent waiting for it is not latency.
+        public Builder circuitBreaker(CircuitBreaker circuitBreaker) {
+            this.circuitBreaker = circuitBreaker;
+            return this;
+        }
+
+        // Sits inside the retry policy, so each retry takes a token too. Share one limiter per MT server.
+        // Async calls over the limit are deferred rather than waited for on a dispatcher thread.
+        public Builder rateLimiter(RateLimiter rateLimiter) {
+            this.rateLimiter = rateLimiter;
+            return this;
+        }
+
+        // Outermost in the chain, so total times include waiting for coalescing, the breaker, retries and the limiter.
+        // Replaces any event listener factory of the client passed to httpClient().
+        public Builder metricsListener(MetricsListener metricsListener) {
+            this.metricsListener = metricsListener;
+            return this;
+        }
+
+        // Shares the metrics listener's place in the chain; without either, no per-call work is done.
+        public Builder tracer(Tracer tracer) {
+            this.tracer = tracer;
+            return this;
+        }
+
+        // Sent as `fields` on every list and get of the projection's family whose options do not set "fields".
+        public Builder projection(Projection projection) {
+            if (projection.family == null) {
+                throw new IllegalArgumentException("A default projection needs a family");
+            }
+            projections.put(projection.family, projection);
+            return this;
+        }
+
+        // Refreshes an expired access token through the session (POST /token) and replays the rejected request.
+        // Calls that find the same token rejected share one refresh; async calls never wait for it on a thread.
+        public Builder tokenRefresh(boolean tokenRefresh) {
+            this.tokenRefresh = tokenRefresh;
+            return this;
+        }
+
+        // With tokenRefresh, tokens are refreshed this long before the expiresIn reported by the server runs out.
+        public Builder tokenRefreshMargin(long margin, TimeUnit unit) {
+            this.tokenRefreshMargin = unit.toMillis(margin);
+            return this;
+        }
+
+        public DataAPI build() {
+            return new DataAPI(this, false);
+        }
+    }
+
+    //MARK: - Methods
+
+    public static String urlEncoding(String src) {
+        try {
+            return URLEncoder.encode(src, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            return src;
+        }
+    }
+
+    public static String urlDecoding(String src) {
+        try {
+            return URLDecoder.decode(src, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            return src;
+        }
+    }
+
+    // Package-private, like endpoint() and makeRequest(), for the benchmarks in src/jmh.
+    static final class Endpoint {
+        final Route route;
+        final HttpUrl url;
+
+        Endpoint(Route route, HttpUrl url) {
+            this.route = route;
+            this.url = url;
+        }
+    }
+
+    Endpoint endpoint(Route route, String... args) {
+        return endpoint(urls().apiURL, route, args);
+    }
+
+    private Endpoint endpoint(HttpUrl base, Route route, String... args) {
+        return new Endpoint(route, route.url(base, args));
+    }
+
+    private static final class URLs {
+        final String APIBaseURL;
+        final String endpointVersion;
+        final HttpUrl baseURL;
+        final HttpUrl apiURLV2;
+        final HttpUrl apiURL;
+
+        URLs(String APIBaseURL, String endpointVersion) {
+            this.APIBaseURL = APIBaseURL;
+            this.endpointVersion = endpointVersion;
+            baseURL = HttpUrl.parse(APIBaseURL);
+            apiURLV2 = HttpUrl.parse(APIBaseURL + "/v2");
+            apiURL = HttpUrl.parse(APIBaseURL + "/" + endpointVersion);
+        }
+    }
+
+    private URLs urls() {
+        URLs current = urls;
+        String base = legacy ? APIBaseURL : configuredBaseURL;
+        base = base != null ? base : "";
+        String version = endpointVersion != null ? endpointVersion : "";
+        if (current == null || !current.APIBaseURL.equals(base) || !current.endpointVersion.equals(version)) {
+            current = new URLs(base, version);
+            urls = current;
+        }
+        return current;
+    }
+
+    private static final class Credential {
+        final String username;
+        final String password;
+        final String header;
+
+        Credential(String username, String password) {
+            this.username = username;
+            this.password = password;
+            this.header = Credentials.basic(username, password);
+        }
+    }
+
+    // Encoded once per username and password rather than once per request.
+    private String basicCredential() {
+        if (!legacy) {
+            return configuredCredential;
+        }
+        BasicAuth basic = basicAuth;
+        if (basic == null) {
+            return null;
+        }
+        String username;
+        String password;
+        synchronized (basic) {
+            username = basic.username;
+            password = basic.password;
+        }
+        if (username == null || username.equals("") || password == null || password.equals("")) {
+            return null;
+        }
+        Credential current = credential;
+        if (current == null || !current.username.equals(username) || !current.password.equals(password)) {
+            current = new Credential(username, password);
+            credential = current;
+        }
+        return current.header;
+    }
+
+    private String clientID() {
+        return legacy ? clientID : configuredClientID;
+    }
+
+    private OkHttpClient httpClient() {
+        return legacy ? httpClient : configuredClient;
+    }
+
+    // Returns a view that shares this instance's configuration and client but carries its own credentials.
+    public DataAPI withAuthState(AuthState authState) {
+        return new DataAPI(this, authState != null ? authState : AuthState.EMPTY);
+    }
+
+    public AuthState getAuthState() {
+        return auth();
+    }
+
+    public void setAuthState(AuthState authState) {
+        auth.set(authState != null ? authState : AuthState.EMPTY);
+        mirror();
+    }
+
+    private void setToken(String token, long expiresAt) {
+        AuthState current;
+        do {
+            current = auth();
+        } while (!auth.compareAndSet(current, current.withToken(token, expiresAt)));
+        mirror();
+    }
+
+    private void setSessionID(String sessionID) {
+        AuthState current;
+        do {
+            current = auth();
+        } while (!auth.compareAndSet(current, current.withSessionID(sessionID)));
+        mirror();
+    }
+
+    // The current credentials, after taking over a token or session ID assigned to the legacy fields.
+    private AuthState auth() {
+        if (legacy && (token != mirroredToken || sessionID != mirroredSessionID)) {
+            synchronized (legacyLock) {
+                String assignedToken = token != null ? token : "";
+                String assignedSessionID = sessionID != null ? sessionID : "";
+                if (!assignedToken.equals(mirroredToken) || !assignedSessionID.equals(mirroredSessionID)) {
+                    // A token that did not change keeps its expiry, so proactive refresh stays on.
+                    AuthState current = auth.get();
+                    long expiresAt = assignedToken.equals(current.token) ? current.expiresAt : 0;
+                    auth.set(new AuthState(assignedToken, assignedSessionID, expiresAt));
+                }
+                token = mirroredToken = assignedToken;
+                sessionID = mirroredSessionID = assignedSessionID;
+            }
+        }
+        return auth.get();
+    }
+
+    // Copies the current credentials into the legacy fields; called after every change made by this instance.
+    private void mirror() {
+        synchronized (legacyLock) {
+            AuthState state = auth.get();
+            token = mirroredToken = state.token;
+            sessionID = mirroredSessionID = state.sessionID;
+        }
+    }
+
+    private static long expiresAt(JSONObject response) {
+        long expiresIn = response.optLong("expiresIn", 0);
+        return expiresIn > 0 ? System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(expiresIn) : 0;
+    }
+
+    // Calls go out with a token inside the refresh margin while its refresh runs in the background; only a blocking
+    // call holding a token that has already run out waits for the new one, on its own thread.
+    private AuthState currentAuth() {
+        AuthState state = auth();
+        if (!tokenRefresh || !state.hasToken() || !state.hasSession() || !state.expiresWithin(tokenRefreshMargin)) {
+            return state;
+        }
+        if (async || executor != null && INLINE.get() == null || !state.expiresWithin(0)) {
+            refresh(state, false);
+            return state;
+        }
+        PendingRefresh pending = refresh(state, true);
+        AuthState refreshed = pending != null ? pending.await() : null;
+        return refreshed != null ? refreshed : state;
+    }
+
+    // Returns the refresh of `stale`'s token, starting one unless a refresh is already pending;
+    // null when there is no session to refresh with. A blocking refresh runs on the calling thread.
+    private PendingRefresh refresh(AuthState stale, boolean blocking) {
+        while (true) {
+            PendingRefresh pending = refreshing.get();
+            if (pending != null) {
+                return pending;
+            }
+            AuthState current = auth();
+            if (!current.token.equals(stale.token)) {
+                return new PendingRefresh(current).finish(current);
+            }
+            Request request = tokenRequest(current);
+            if (request == null) {
+                return null;
+            }
+
+            PendingRefresh created = new PendingRefresh(current);
+            if (!refreshing.compareAndSet(null, created)) {
+                continue;
+            }
+            // A refresh may have finished between reading the token and publishing this one.
+            AuthState latest = auth();
+            if (!latest.token.equals(stale.token)) {
+                return created.finish(latest);
+            }
+            Call call = httpClient().newCall(request);
+            if (blocking) {
+                try {
+                    created.onResponse(call, call.execute());
+                } catch (IOException e) {
+                    created.onFailure(call, e);
+                }
+            } else {
+                call.enqueue(created);
+            }
+            return created;
+        }
+    }
 
-    public String token = "";
-    public String sessionID = "";
+    private Request tokenRequest(AuthState current) {
+        HttpUrl url = Routes.TOKEN.url(urls().apiURL);
+        if (url == null || !current.hasSession()) {
+            return null;
+        }
+        Request.Builder requestBuilder = new Request.Builder()
+                .url(url)
+                .tag(Routes.TOKEN)
+                .header("X-MT-Authorization", current.sessionHeader)
+                .post(new FormBody.Builder().build());
+        String basicCredential = basicCredential();
+        if (basicCredential != null) {
+            requestBuilder.header("Authorization", basicCredential);
+        }
+        return requestBuilder.build();
+    }
+
+    private abstract static class RefreshListener {
+        // `refreshed` is null when the refresh failed.
+        abstract void onRefreshed(AuthState refreshed);
+    }
+
+    // One POST /token. Every call that finds the same token stale shares it: blocking callers wait on the latch,
+    // async ones register a listener and give their dispatcher thread back.
+    private final class PendingRefresh implements okhttp3.Callback {
+        private final AuthState stale;
+        private final CountDownLatch done = new CountDownLatch(1);
+        // Null once finished.
+        private List<RefreshListener> listeners = new ArrayList<RefreshListener>();
+        private volatile AuthState result;
+
+        PendingRefresh(AuthState stale) {
+            this.stale = stale;
+        }
+
+        public void onFailure(Call call, IOException e) {
+            finish(null);
+        }
+
+        public void onResponse(Call call, Response response) {
+            AuthState refreshed = null;
+            try {
+                if (response.isSuccessful()) {
+                    JSONObject json = new JSONObject(response.body().string());
+                    if (json.has("accessToken")) {
+                        refreshed = stale.withToken(json.getString("accessToken"), expiresAt(json));
+                    }
+                }
+            } catch (IOException | JSONException e) {
+                refreshed = null;
+            } finally {
+                response.close();
+            }
+            if (refreshed != null) {
+                if (auth.compareAndSet(stale, refreshed)) {
+                    mirror();
+                } else {
+                    refreshed = auth();
+                }
+            }
+            finish(refreshed);
+        }
+
+        PendingRefresh finish(AuthState refreshed) {
+            List<RefreshListener> waiting;
+            synchronized (this) {
+                if (listeners == null) {
+                    return this;
+                }
+                result = refreshed;
+                waiting = listeners;
+                listeners = null;
+            }
+            refreshing.compareAndSet(this, null);
+            done.countDown();
+            for (RefreshListener listener : waiting) {
+                listener.onRefreshed(refreshed);
+            }
+            return this;
+        }
+
+        // Runs `listener` on the thread that finishes the refresh, or right away if it has finished.
+        void listen(RefreshListener listener) {
+            synchronized (this) {
+                if (listeners != null) {
+                    listeners.add(listener);
+                    return;
+                }
+            }
+            listener.onRefreshed(result);
+        }
+
+        AuthState await() {
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            return result;
+        }
+    }
+
+    // The token a 401 turned down, when its error says the token itself was rejected. Bad logins, sessions and
+    // permissions come back with other errors and go to the callback as they are.
+    private AuthState rejectedToken(Response response) {
+        if (!tokenRefresh || response.code() != 401) {
+            return null;
+        }
+        String header = response.request().header("X-MT-Authorization");
+        String prefix = "MTAuth accessToken=";
+        if (header == null || !header.startsWith(prefix)) {
+            return null;
+        }
+        try {
+            JSONObject error = new JSONObject(response.peekBody(64 * 1024).string()).optJSONObject("error");
+            if (error == null || !isTokenRejection(error)) {
+                return null;
+            }
+        } catch (IOException | JSONException e) {
+            return null;
+        }
+        return auth().withToken(header.substring(prefix.length()));
+    }
+
+    // MT answers "Unauthorized" for a missing, invalid or expired access token.
+    static boolean isTokenRejection(JSONObject error) {
+        String message = error.optString("message", "").toLowerCase(Locale.ROOT);
+        return message.equals("unauthorized") || message.contains("token");
+    }
+
+    private static Request replay(Request request, AuthState stale, AuthState refreshed) {
+        if (refreshed == null || !refreshed.hasToken() || refreshed.token.equals(stale.token)) {
+            return null;
+        }
+        return request.newBuilder()
+                .header("X-MT-Authorization", refreshed.tokenHeader)
+                .build();
+    }
+
+    // Returns the request to replay when `response` rejected an access token that could be refreshed.
+    // Only for calls on their own thread: it waits for the refresh.
+    private Request replayWithFreshToken(Response response) {
+        AuthState stale = rejectedToken(response);
+        PendingRefresh pending = stale != null ? refresh(stale, true) : null;
+        return pending != null ? replay(response.request(), stale, pending.await()) : null;
+    }
+
+    public String getEndpointVersion() {
+        return endpointVersion;
+    }
+
+    public String getAPIVersion() {
+        return apiVersion;
+    }
+
+    public int cacheHitCount() {
+        Cache cache = httpClient().cache();
+        return cache != null ? cache.hitCount() : 0;
+    }
+
+    public int cacheMissCount() {
+        Cache cache = httpClient().cache();
+        return cache != null ? cache.requestCount() - cache.hitCount() : 0;
+    }
+
+    public long coalescedRequestCount() {
+        return coalescing != null ? coalescing.coalescedCount() : 0;
+    }
+
+    // Attempts made after a first one failed.
+    public long retryCount() {
+        return retry != null ? retry.retryCount() : 0;
+    }
+
+    public long retriedCallCount() {
+        return retry != null ? retry.retriedCallCount() : 0;
+    }
+
+    // Calls that were still failing when their retry budget ran out.
+    public long retryExhaustedCount() {
+        return retry != null ? retry.exhaustedCount() : 0;
+    }
+
+    public void resetAuth() {
+        auth.set(AuthState.EMPTY);
+        mirror();
+    }
+
+    Request makeRequest(HttpMethod method, Endpoint endpoint, Parameter parameters, boolean useSession) {
+        if (endpoint.url == null) {
+            return null;
+        }
+
+        Request.Builder requestBuilder = new Request.Builder().tag(endpoint.route);
+
+        AuthState state = currentAuth();
+        if (state.hasToken()) {
+            requestBuilder.header("X-MT-Authorization", state.tokenHeader);
+        } else if (useSession && state.hasSession()) {
+            requestBuilder.header("X-MT-Authorization", state.sessionHeader);
+        }
+
+        if (method == HttpMethod.GET) {
+            HttpUrl url = endpoint.url;
+            Projection projection = defaultProjection(endpoint.route, parameters);
+            if (parameters != null && !parameters.isEmpty() || projection != null) {
+                HttpUrl.Builder httpUrlBuilder = url.newBuilder();
+                if (parameters != null) {
+                    for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+                        httpUrlBuilder.addQueryParameter(parameter.getKey(), value(endpoint, parameter.getValue()));
+                    }
+                }
+                if (projection != null) {
+                    httpUrlBuilder.addQueryParameter("fields", projection.toString());
+                }
+                url = httpUrlBuilder.build();
+            }
+
+            requestBuilder
+                    .url(url)
+                    .get();
+        } else {
+            FormBody.Builder formBodyBuilder = new FormBody.Builder();
+            if (parameters != null) {
+                for (Map.Entry<String, Object> parameter : parameters.entrySet()) {
+                    formBodyBuilder.addEncoded(parameter.getKey(), value(endpoint, parameter.getValue()));
+                }
+            }
+            requestBuilder
+                    .url(endpoint.url)
+                    .method(method.name(), formBodyBuilder.build());
+        }
+
+        String basicCredential = basicCredential();
+        if (basicCredential != null) {
+            requestBuilder.header("Authorization", basicCredential);
+        }
+
+        return requestBuilder.build();
+    }
+
+    // Projections are checked against the route they are sent to.
+    private static String value(Endpoint endpoint, Object value) {
+        if (value instanceof Projection) {
+            ((Projection) value).check(endpoint.route);
+        }
+        return value.toString();
+    }
+
+    private Projection defaultProjection(Route route, Parameter parameters) {
+        if (projections.isEmpty() || route == null || !route.returnsResources
+                || parameters != null && parameters.containsKey("fields")) {
+            return null;
+        }
+        return projections.get(route.family);
+    }
+
+    private static class ResponseHandler {
+        private final Callback callback;
+
+        ResponseHandler(Callback callback) {
+            this.callback = callback;
+        }
+
+        void handle(Response response) {
+            if (!response.isSuccessful()) {
+                response.close();
+                onFailure(ERROR_JSON);
+                return;
+            }
+
+            if (callback instanceof ItemCallback) {
+                stream(response, (ItemCallback) callback);
+                return;
+            }
+            if (callback instanceof ModelListCallback) {
+                decodeLazily(response, (ModelListCallback<?>) callback);
+                return;
+            }
+
+            String body;
+            try {
+                body = response.body().string();
+            } catch (IOException e) {
+                onFailure(ERROR_JSON);
+                return;
+            }
+
+            JSONObject json;
+            try {
+                json = new JSONObject(body);
+            } catch (JSONException e) {
+                onFailure(ERROR_JSON);
+                return;
+            }
+
+            if (json.has("error")) {
+                JSONObject error = json.optJSONObject("error");
+                onFailure(error != null ? error : ERROR_JSON);
+                return;
+            }
 
-    public String endpointVersion = "v3";
-    public String APIBaseURL = "";
+            onJSON(response, json);
+        }
+
+        private void stream(Response response, ItemCallback itemCallback) {
+            JSONObject error;
+            try {
+                error = ItemStreamParser.parse(response.body().charStream(), itemCallback);
+            } catch (ItemStreamParser.CallbackException e) {
+                throw e.unwrap();
+            } catch (JSONException e) {
+                error = ERROR_JSON;
+            } finally {
+                response.close();
+            }
+
+            if (error != null) {
+                onFailure(error);
+            }
+        }
+
+        // Only indexes the top level and the item boundaries; items decode their own fields when read.
+        private void decodeLazily(Response response, ModelListCallback<?> listCallback) {
+            LazyJSON json;
+            try {
+                json = LazyJSON.parse(response.body().string());
+            } catch (IOException | JSONException e) {
+                onFailure(ERROR_JSON);
+                return;
+            }
+
+            if (json.has("error")) {
+                LazyJSON error = json.getObject("error");
+                onFailure(error != null ? error.toJSONObject() : ERROR_JSON);
+                return;
+            }
+
+            listCallback.onSuccess(json);
+        }
+
+        void onJSON(Response response, JSONObject json) {
+            callback.onSuccess(json);
+        }
+
+        void onFailure(JSONObject error) {
+            callback.onFailure(error);
+        }
+    }
+
+    private static class DownloadHandler extends ResponseHandler {
+        private final DownloadTarget target;
+        private final long offset;
+
+        DownloadHandler(Callback callback, DownloadTarget target, long offset) {
+            super(callback);
+            this.target = target;
+            this.offset = offset;
+        }
+
+        void handle(Response response) {
+            // A 416 confirming the file is complete wins over whatever body the server sent with it.
+            boolean complete = DownloadTarget.alreadyComplete(response, offset);
+            if (!response.isSuccessful() && !complete) {
+                response.close();
+                onFailure(ERROR_JSON);
+                return;
+            }
+
+            JSONObject summary;
+            try {
+                JSONObject error = complete ? null : peekError(response);
+                if (error != null) {
+                    onFailure(error);
+                    return;
+                }
+                summary = target.receive(response, offset);
+            } catch (IOException e) {
+                onFailure(ERROR_JSON);
+                return;
+            } finally {
+                response.close();
+            }
+            onJSON(response, summary);
+        }
+
+        // Errors come back as small JSON documents; anything else is written to the target untouched.
+        private static JSONObject peekError(Response response) throws IOException {
+            MediaType contentType = response.body().contentType();
+            if (contentType == null || !contentType.subtype().equals("json")) {
+                return null;
+            }
+            try {
+                JSONObject json = new JSONObject(response.peekBody(64 * 1024).string());
+                if (!json.has("error")) {
+                    return null;
+                }
+                JSONObject error = json.optJSONObject("error");
+                return error != null ? error : ERROR_JSON;
+            } catch (JSONException e) {
+                return null;
+            }
+        }
+    }
 
-    public String clientID = "MTDataAPIClient";
+    private void execute(final Request request, final ResponseHandler handler) {
+        if (request == null) {
+            handler.onFailure(ERROR_JSON);
+            return;
+        }
 
-    public BasicAuth basicAuth = new BasicAuth();
+        if (async) {
+            enqueue(retry != null || rateLimiter != null ? RetryInterceptor.deferring(request) : request, handler, true);
+            return;
+        }
 
-    public String apiVersion = "";
-    public OkHttpClient httpClient = new OkHttpClient();
+        if (executor != null && INLINE.get() == null) {
+            try {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        runInline(new Runnable() {
+                            public void run() {
+                                executeBlocking(request, handler);
+                            }
+                        });
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                handler.onFailure(ERROR_JSON);
+            }
+            return;
+        }
 
-    //MARK: - Methods
+        executeBlocking(request, handler);
+    }
+
+    // Retries and calls the rate limiter holds back come back as Deferred and are enqueued again once they may go
+    // ahead, so no dispatcher thread sleeps through a backoff or waits for a token or a slot. With coalescing, a call
+    // identical to one in flight is not enqueued at all: it follows that call and is handed a copy of its response.
+    private void enqueue(Request request, final ResponseHandler handler, final boolean mayReplay) {
+        final AsyncCall asyncCall = new AsyncCall(handler, mayReplay);
+        if (coalescing != null) {
+            final Route route = request.tag() instanceof Route ? (Route) request.tag() : null;
+            final long start = System.nanoTime();
+            request = coalescing.lead(request, new CoalescingInterceptor.Follower() {
+                void onResponse(final Response response) {
+                    follow(handler, new Runnable() {
+                        public void run() {
+                            reportLocal(route, response.code(), false, start);
+                            asyncCall.responded(response);
+                        }
+                    });
+                }
 
-    public static String urlEncoding(String src) {
-        try {
-            return URLEncoder.encode(src, "UTF-8");
-        } catch (UnsupportedEncodingException e) {
-            return src;
+                void onFailure(final IOException e) {
+                    follow(handler, new Runnable() {
+                        public void run() {
+                            if (!(e instanceof RetryInterceptor.Deferred)) {
+                                reportLocal(route, 0, true, start);
+                            }
+                            asyncCall.failed(e);
+                        }
+                    });
+                }
+            });
+            if (request == null) {
+                return;
+            }
         }
+        httpClient().newCall(request).enqueue(asyncCall);
     }
 
-    public static String urlDecoding(String src) {
+    // Continues an async call that was completed from another call's thread (a coalesced leader or a token refresh)
+    // on a dispatcher thread of its own.
+    private void follow(ResponseHandler handler, Runnable task) {
         try {
-            return URLDecoder.decode(src, "UTF-8");
-        } catch (UnsupportedEncodingException e) {
-            return src;
+            httpClient().dispatcher().executorService().execute(task);
+        } catch (RejectedExecutionException e) {
+            handler.onFailure(ERROR_JSON);
         }
     }
 
-    private String APIURL() {
-        return APIBaseURL + "/" + endpointVersion;
-    }
-
-    private String APIURL_V2() {
-        return APIBaseURL + "/v2";
-    }
+    private class AsyncCall implements okhttp3.Callback {
+        private final ResponseHandler handler;
+        private final boolean mayReplay;
 
-    public void resetAuth() {
-        token = "";
-        sessionID = "";
-    }
+        AsyncCall(ResponseHandler handler, boolean mayReplay) {
+            this.handler = handler;
+            this.mayReplay = mayReplay;
+        }
 
-    private Request makeRequest(HttpMethod method, String url, Parameter parameters, boolean useSession) {
-        Request.Builder requestBuilder = new Request.Builder();
+        public void onFailure(Call call, IOException e) {
+            if (coalescing != null) {
+                coalescing.abandon(call.request(), e);
+            }
+            failed(e);
+        }
 
-        if (!token.equals("")) {
-            requestBuilder.addHeader("X-MT-Authorization", "MTAuth accessToken=" + token);
-        } else if (useSession && !sessionID.equals("")) {
-            requestBuilder.addHeader("X-MT-Authorization", "MTAuth sessionId=" + sessionID);
+        public void onResponse(Call call, Response response) {
+            responded(response);
         }
 
-        if (method == HttpMethod.GET) {
-            HttpUrl httpUrl = HttpUrl.parse(url);
+        void failed(IOException e) {
+            if (e instanceof RetryInterceptor.Deferred) {
+                final RetryInterceptor.Deferred deferred = (RetryInterceptor.Deferred) e;
+                deferred.resume(new Runnable() {
+                    public void run() {
+                        enqueue(deferred.next, handler, mayReplay);
+                    }
+                });
+                return;
+            }
+            handler.onFailure(ERROR_JSON);
+        }
 
-            HttpUrl.Builder httpUrlBuilder = new HttpUrl.Builder();
-            httpUrlBuilder
-                    .scheme(httpUrl.scheme())
-                    .host(httpUrl.host())
-                    .port(httpUrl.port());
+        // A rejected token is refreshed without holding this dispatcher thread: the call is replayed from a listener.
+        void responded(Response response) {
+            final AuthState stale = mayReplay ? rejectedToken(response) : null;
+            PendingRefresh pending = stale != null ? refresh(stale, false) : null;
+            if (pending == null) {
+                handler.handle(response);
+                return;
+            }
 
-            for (String s : httpUrl.pathSegments()) {
-                httpUrlBuilder.addPathSegment(s);
+            // The error body is small; holding it in memory frees the connection while the refresh runs.
+            final Response rejected;
+            try {
+                ResponseBody body = response.body();
+                rejected = response.newBuilder().body(ResponseBody.create(body.contentType(), body.bytes())).build();
+            } catch (IOException e) {
+                handler.onFailure(ERROR_JSON);
+                return;
+            } finally {
+                response.close();
             }
-            if (parameters != null) {
-                for (String key : parameters.keySet()) {
-                    httpUrlBuilder.addQueryParameter(key, parameters.get(key).toString());
+            pending.listen(new RefreshListener() {
+                void onRefreshed(final AuthState refreshed) {
+                    follow(handler, new Runnable() {
+                        public void run() {
+                            Request replay = replay(rejected.request(), stale, refreshed);
+                            if (replay == null) {
+                                handler.handle(rejected);
+                                return;
+                            }
+                            enqueue(replay, handler, false);
+                        }
+                    });
                 }
+            });
+        }
+    }
+
+    private void executeBlocking(Request request, ResponseHandler handler) {
+        Response response;
+        try {
+            response = httpClient().newCall(request).execute();
+            Request replay = replayWithFreshToken(response);
+            if (replay != null) {
+                response.close();
+                response = httpClient().newCall(replay).execute();
             }
+        } catch (IOException e) {
+            handler.onFailure(ERROR_JSON);
+            return;
+        }
+        handler.handle(response);
+    }
 
-            requestBuilder
-                    .url(httpUrlBuilder.build())
-                    .get();
-        } else {
-            try {
-                requestBuilder.url(new URL(url));
-            } catch (MalformedURLException e) {
-                return null;
+    private static void runInline(Runnable task) {
+        boolean outermost = INLINE.get() == null;
+        if (outermost) {
+            INLINE.set(Boolean.TRUE);
+        }
+        try {
+            task.run();
+        } finally {
+            if (outermost) {
+                INLINE.remove();
+            }
+        }
+    }
+
+    void submit(final Runnable task) {
+        Executor target = executor != null ? executor : VirtualThreads.shared();
+        target.execute(new Runnable() {
+            public void run() {
+                runInline(task);
             }
+        });
+    }
 
-            FormBody.Builder formBodyBuilder = new FormBody.Builder();
-            if (parameters != null) {
-                for (String key : parameters.keySet()) {
-                    formBodyBuilder.addEncoded(key, parameters.get(key).toString());
+    public void fanOut(Collection<? extends Runnable> calls) throws InterruptedException {
+        final CountDownLatch latch = new CountDownLatch(calls.size());
+
+        for (final Runnable call : calls) {
+            Runnable counted = new Runnable() {
+                public void run() {
+                    try {
+                        call.run();
+                    } finally {
+                        latch.countDown();
+                    }
                 }
+            };
+            // A saturated or shut down executor must not leave the latch short; run the call here instead.
+            try {
+                submit(counted);
+            } catch (RejectedExecutionException e) {
+                runInline(counted);
             }
-            FormBody body = formBodyBuilder.build();
-            requestBuilder.method(method.name(), body);
         }
 
-        if (basicAuth.isSet()) {
-            String credential = Credentials.basic(basicAuth.username, basicAuth.password);
-            requestBuilder.header("Authorization", credential);
-        }
+        latch.await();
+    }
 
-        return requestBuilder.build();
+    public Paginator paginate(ListRequest request, Parameter options, int limit, int prefetch) {
+        return new Paginator(this, request, options, limit, prefetch);
+    }
+
+    public ParallelLister listParallel(ListRequest request, Parameter options, int limit, int concurrency) {
+        return new ParallelLister(this, request, options, limit, concurrency);
+    }
+
+    public BulkWriter bulkWriter(BulkOperation operation, int concurrency, BulkCallback callback) {
+        return new BulkWriter(this, operation, concurrency, callback);
     }
 
-    private void actionCommon(HttpMethod action, String url, Parameter params, Callback callback) {
+    private void actionCommon(HttpMethod action, Endpoint url, Parameter params, Callback callback) {
         Request request = makeRequest(action, url, params, false);
+        if (request != null && callback instanceof ItemCallback) {
+            // Lets the coalescing interceptor pass streamed calls through instead of buffering their bodies.
+            request = request.newBuilder().tag(ItemCallback.class, (ItemCallback) callback).build();
+        }
+        execute(request, new ResponseHandler(callback));
+    }
 
-        Response response;
-        try {
-            response = httpClient.newCall(request).execute();
-        } catch (IOException e) {
-            callback.onFailure(ERROR_JSON);
+    private void action(String name, HttpMethod action, Endpoint url, Resource obj, Parameter options, final Callback callback) {
+        if (obj != null) {
+            if (options == null) {
+                options = new Parameter();
+            }
+            JSONObject json = new JSONObject(obj);
+            options.put(name, json.toString());
+        }
+
+        final ObjectCache cache = objectCache;
+        if (cache == null || action == HttpMethod.POST) {
+            actionCommon(action, url, options, callback);
             return;
         }
 
-        if (response == null || !response.isSuccessful()) {
+        Request request = makeRequest(action, url, options, false);
+        if (request == null) {
             callback.onFailure(ERROR_JSON);
             return;
         }
+        final String path = ObjectCache.path(request);
+
+        if (action == HttpMethod.GET) {
+            final String variant = ObjectCache.variant(request);
+            String cached = cache.get(path, variant);
+            if (cached != null) {
+                deliverCached(url.route, cached, callback);
+                return;
+            }
 
-        String body;
-        try {
-            body = response.body().string();
-        } catch (IOException e) {
-            callback.onFailure(ERROR_JSON);
+            final long epoch = cache.epoch();
+            execute(request, new ResponseHandler(callback) {
+                void onJSON(Response response, JSONObject json) {
+                    cache.put(path, variant, json.toString(), epoch);
+                    callback.onSuccess(json);
+                }
+            });
             return;
         }
 
-        JSONObject json = new JSONObject(body);
-        if (json.has("error")) {
-            JSONObject error = json.getJSONObject("error");
-            if (error != null) {
-                callback.onFailure(error);
+        // An asset's thumbnail is cached below it and changes with it.
+        final boolean descendants = action == HttpMethod.DELETE || url.route == Routes.ASSET;
+        execute(request, new ResponseHandler(callback) {
+            void onJSON(Response response, JSONObject json) {
+                cache.invalidate(path, descendants);
+                callback.onSuccess(json);
             }
-            return;
+        });
+    }
+
+    // For POSTs that change a resource other than the one they are sent to: a successful call drops `resource`
+    // (and with `descendants`, everything below it) from the object cache.
+    private ActionCallback invalidating(Endpoint resource, final boolean descendants, final ActionCallback callback) {
+        final ObjectCache cache = objectCache;
+        if (cache == null || resource.url == null) {
+            return callback;
         }
+        final String path = resource.url.encodedPath();
+        return new ActionCallback() {
+            public void onSuccess(JSONObject response) {
+                cache.invalidate(path, descendants);
+                callback.onSuccess(response);
+            }
+
+            public void onFailure(JSONObject error) {
+                callback.onFailure(error);
+            }
+        };
+    }
+
+    // Hands an object cache hit to the callback on the thread a network response would have been handled on,
+    // and reports it to the metrics listener as a call without network phases.
+    private void deliverCached(final Route route, final String body, final Callback callback) {
+        final long start = System.nanoTime();
+        dispatch(new Runnable() {
+            public void run() {
+                JSONObject json = new JSONObject(body);
+                reportLocal(route, 200, false, start);
+                callback.onSuccess(json);
+            }
+        }, callback);
+    }
 
-        callback.onSuccess(json);
+    // Reports a GET answered without a call through OkHttp: an object cache hit or a coalesced async follower.
+    private void reportLocal(Route route, int code, boolean failed, long start) {
+        if (metricsListener != null) {
+            metricsListener.onCallStart(route);
+            metricsListener.onCallEnd(new CallMetrics(route, "GET", code, failed, -1, -1, -1, -1,
+                    System.nanoTime() - start, 0, 0, 0));
+        }
     }
 
-    private void action(String name, HttpMethod action, String url, Resource obj, Parameter options, Callback callback) {
-        if (obj != null) {
-            if (options == null) {
-                options = new Parameter();
+    // Runs `task` on OkHttp's dispatcher threads when async, on the executor when set, otherwise on the calling thread.
+    private void dispatch(final Runnable task, Callback callback) {
+        try {
+            if (async) {
+                httpClient().dispatcher().executorService().execute(task);
+                return;
             }
-            JSONObject json = new JSONObject(obj);
-            options.put(name, json.toString());
+            if (executor != null && INLINE.get() == null) {
+                executor.execute(new Runnable() {
+                    public void run() {
+                        runInline(task);
+                    }
+                });
+                return;
+            }
+        } catch (RejectedExecutionException e) {
+            callback.onFailure(ERROR_JSON);
+            return;
         }
-        actionCommon(action, url, options, callback);
+        task.run();
     }
 
-    private void get(String url, Parameter params, Callback callback) {
+    private void get(Endpoint url, Parameter params, Callback callback) {
         actionCommon(HttpMethod.GET, url, params, callback);
     }
 
-    private void post(String url, Parameter params, ActionCallback callback) {
+    private void post(Endpoint url, Parameter params, ActionCallback callback) {
         actionCommon(HttpMethod.POST, url, params, callback);
     }
 
-    private void put(String url, Parameter params, ActionCallback callback) {
+    private void put(Endpoint url, Parameter params, ActionCallback callback) {
         actionCommon(HttpMethod.PUT, url, params, callback);
     }
 
-    private void delete(String url, Parameter params, ActionCallback callback) {
+    private void delete(Endpoint url, Parameter params, ActionCallback callback) {
         actionCommon(HttpMethod.DELETE, url, params, callback);
     }
 
-    private void repeatAction(HttpMethod action, String url, Parameter options, final Callback callback) {
-        Request request = makeRequest(action, url, options, false);
-
-        Response response;
-        try {
-            response = httpClient.newCall(request).execute();
-        } catch (IOException e) {
-            callback.onFailure(ERROR_JSON);
-            return;
-        }
-
-        if (response == null || !response.isSuccessful()) {
-            callback.onFailure(ERROR_JSON);
-            return;
+    // Runs one phase of a publish job on the calling thread; a null `url` starts with the first phase.
+    PublishJob.Phase publishPhase(HttpUrl url, Parameter options) {
+        Endpoint endpoint = url != null ? new Endpoint(Routes.ENTRIES_PUBLISH, url) : endpoint(Routes.ENTRIES_PUBLISH);
+        Request request = makeRequest(HttpMethod.GET, endpoint, options, false);
+        if (request == null) {
+            throw new DataAPIException(ERROR_JSON);
         }
 
-        String body;
-        try {
-            body = response.body().string();
-        } catch (IOException e) {
-            callback.onFailure(ERROR_JSON);
-            return;
-        }
+        final PublishJob.Phase[] phase = new PublishJob.Phase[1];
+        final JSONObject[] error = new JSONObject[1];
+        executeBlocking(request, new ResponseHandler(null) {
+            void onJSON(Response response, JSONObject json) {
+                String nextURL = response.header("X-MT-Next-Phase-URL");
+                HttpUrl next = nextURL != null && !nextURL.equals("") ? HttpUrl.parse(urls().apiURL + "/" + nextURL) : null;
+                phase[0] = new PublishJob.Phase(json, next);
+            }
 
-        JSONObject json = new JSONObject(body);
-        if (json.has("error")) {
-            JSONObject error = json.getJSONObject("error");
-            if (error != null) {
-                callback.onFailure(error);
+            void onFailure(JSONObject json) {
+                error[0] = json;
             }
-            return;
+        });
+
+        if (phase[0] == null) {
+            throw new DataAPIException(error[0] != null ? error[0] : ERROR_JSON);
         }
+        return phase[0];
+    }
 
-        if (json.has("status") && json.getString("status").equals("Complete")) {
-            callback.onSuccess(json);
+    private void download(HttpMethod method, Endpoint url, Parameter options, DownloadTarget target, ActionCallback callback) {
+        Request request = makeRequest(method, url, options, false);
+        if (request == null) {
+            callback.onFailure(ERROR_JSON);
             return;
         }
-        if (json.has("restIds") && json.getString("restIds").equals("")) {
-            callback.onSuccess(json);
-            return;
+
+        Request.Builder requestBuilder = request.newBuilder()
+                .header("Cache-Control", "no-store");
+        long offset = method == HttpMethod.GET ? target.resumeOffset() : 0;
+        if (offset > 0) {
+            requestBuilder.header("Range", "bytes=" + offset + "-");
         }
+        execute(requestBuilder.build(), new DownloadHandler(callback, target, offset));
+    }
 
-        String nextURL = response.header("X-MT-Next-Phase-URL");
-        if (nextURL != null && !nextURL.equals("")) {
-            String next = APIURL() + "/" + nextURL;
-            repeatAction(action, next, options, callback);
-        } else {
+    private void upload(UploadSource source, String fileName, Endpoint url, Parameter parameters, ActionCallback callback) {
+        if (url.url == null) {
             callback.onFailure(ERROR_JSON);
+            return;
         }
-    }
 
-    private void upload(byte[] data, String fileName, String url, Parameter parameters, ActionCallback callback) {
         MultipartBody.Builder bodyBuilder = new MultipartBody.Builder()
                 .setType(MultipartBody.FORM)
-                .addFormDataPart("file", fileName,
-                        RequestBody.create(MediaType.parse("application/octet-stream"), data)
-                );
+                .addFormDataPart("file", fileName, source.requestBody());
 
         if (parameters != null) {
             for (String key : parameters.keySet()) {
@@ -247,45 +1492,20 @@ public class DataAPI {
         }
         RequestBody requestBody = bodyBuilder.build();
 
-        Request.Builder requestBuilder = new Request.Builder();
-        if (token != null && !token.equals("")) {
-            requestBuilder.header("X-MT-Authorization", "MTAuth accessToken=" + token);
+        Request.Builder requestBuilder = new Request.Builder().tag(url.route);
+        AuthState state = currentAuth();
+        if (state.hasToken()) {
+            requestBuilder.header("X-MT-Authorization", state.tokenHeader);
         }
-        Request request = requestBuilder.url(url)
+        String basicCredential = basicCredential();
+        if (basicCredential != null) {
+            requestBuilder.header("Authorization", basicCredential);
+        }
+        Request request = requestBuilder.url(url.url)
                 .post(requestBody)
                 .build();
 
-        Response response;
-        try {
-            response = httpClient.newCall(request).execute();
-        } catch (IOException e) {
-            callback.onFailure(ERROR_JSON);
-            return;
-        }
-
-        if (response == null || !response.isSuccessful()) {
-            callback.onFailure(ERROR_JSON);
-            return;
-        }
-
-        String body;
-        try {
-            body = response.body().string();
-        } catch (IOException e) {
-            callback.onFailure(ERROR_JSON);
-            return;
-        }
-
-        JSONObject json = new JSONObject(body);
-        if (json.has("error")) {
-            JSONObject error = json.getJSONObject("error");
-            if (error != null) {
-                callback.onFailure(error);
-            }
-            return;
-        }
-
-        callback.onSuccess(json);
+        execute(request, new ResponseHandler(callback));
     }
 
     //MARK: - APIs
@@ -293,27 +1513,23 @@ public class DataAPI {
     //MARK: - # V2
     //MARK: - System
     public void listEndpoints(Parameter options, Callback callback) {
-        String url = APIURL() + "/endpoints";
+        Endpoint url = endpoint(Routes.ENDPOINTS);
         get(url, options, callback);
     }
 
-    private void authenticationCommon(String url, String username, String password, boolean remember, final ActionCallback callback) {
+    private void authenticationCommon(Endpoint url, String username, String password, boolean remember, final ActionCallback callback) {
         resetAuth();
 
         Parameter params = new Parameter();
         params.put("username", username);
         params.put("password", password);
         params.put("remember", remember ? "1" : "0");
-        params.put("clientId", clientID);
+        params.put("clientId", clientID());
 
         post(url, params, new ActionCallback() {
             public void onSuccess(JSONObject response) {
-                if (response.has("accessToken")) {
-                    token = response.getString("accessToken");
-                }
-                if (response.has("sessionId")) {
-                    sessionID = response.getString("sessionId");
-                }
+                auth.set(new AuthState(response.optString("accessToken"), response.optString("sessionId"), expiresAt(response)));
+                mirror();
 
                 callback.onSuccess(response);
             }
@@ -325,27 +1541,27 @@ public class DataAPI {
     }
 
     public void authenticate(String username, String password, boolean remember, ActionCallback callback) {
-        String url = APIURL() + "/authentication";
+        Endpoint url = endpoint(Routes.AUTHENTICATION);
         authenticationCommon(url, username, password, remember, callback);
     }
 
     public void authenticateV2(String username, String password, boolean remember, ActionCallback callback) {
-        String url = APIURL_V2() + "/authentication";
+        Endpoint url = endpoint(urls().apiURLV2, Routes.AUTHENTICATION);
         authenticationCommon(url, username, password, remember, callback);
     }
 
     public void getToken(final ActionCallback callback) {
-        if (sessionID != null && sessionID.equals("")) {
+        if (!auth().hasSession()) {
             callback.onFailure(ERROR_JSON);
             return;
         }
 
-        String url = APIURL() + "/token";
+        Endpoint url = endpoint(Routes.TOKEN);
 
         post(url, null, new ActionCallback() {
             public void onSuccess(JSONObject response) {
                 if (response.has("accessToken")) {
-                    token = response.getString("accessToken");
+                    setToken(response.getString("accessToken"), expiresAt(response));
                 }
 
                 callback.onSuccess(response);
@@ -358,16 +1574,16 @@ public class DataAPI {
     }
 
     public void revokeAuthentication(final ActionCallback callback) {
-        if (sessionID != null && sessionID.equals("")) {
+        if (!auth().hasSession()) {
             callback.onFailure(ERROR_JSON);
             return;
         }
 
-        String url = APIURL() + "/authentication";
+        Endpoint url = endpoint(Routes.AUTHENTICATION);
 
         delete(url, null, new ActionCallback() {
             public void onSuccess(JSONObject response) {
-                sessionID = "";
+                setSessionID("");
 
                 callback.onSuccess(response);
             }
@@ -379,10 +1595,10 @@ public class DataAPI {
     }
 
     public void revokeToken(final ActionCallback callback) {
-        String url = APIURL() + "/token";
+        Endpoint url = endpoint(Routes.TOKEN);
         delete(url, null, new ActionCallback() {
             public void onSuccess(JSONObject response) {
-                token = "";
+                setToken("", 0);
 
                 callback.onSuccess(response);
             }
@@ -395,7 +1611,7 @@ public class DataAPI {
 
     //MARK: - Search
     public void search(String query, Parameter options, Callback callback) {
-        String url = APIURL() + "/search";
+        Endpoint url = endpoint(Routes.SEARCH);
 
         if (options == null) {
             options = new Parameter();
@@ -407,21 +1623,21 @@ public class DataAPI {
 
     //MARK: - Site
     public void listSites(Parameter options, Callback callback) {
-        String url = APIURL() + "/sites";
+        Endpoint url = endpoint(Routes.SITES);
         get(url, options, callback);
     }
 
     public void listSitesByParent(String siteID, Parameter options, Callback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/children";
+        Endpoint url = endpoint(Routes.SITE_CHILDREN, siteID);
         get(url, options, callback);
     }
 
     private void siteAction(HttpMethod action, String siteID, Resource site, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites";
-        if (action != HttpMethod.POST) {
-            if (siteID != null && !siteID.equals("")) {
-                url += "/" + siteID;
-            }
+        Endpoint url;
+        if (action != HttpMethod.POST && siteID != null && !siteID.equals("")) {
+            url = endpoint(Routes.SITE, siteID);
+        } else {
+            url = endpoint(Routes.SITES);
         }
         action("website", action, url, site, options, callback);
     }
@@ -451,20 +1667,27 @@ public class DataAPI {
     }
 
     public void backupSite(String siteID, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/backup";
+        Endpoint url = endpoint(Routes.SITE_BACKUP, siteID);
         get(url, options, callback);
     }
 
+    public void backupSite(String siteID, Parameter options, DownloadTarget target, ActionCallback callback) {
+        Endpoint url = endpoint(Routes.SITE_BACKUP, siteID);
+        download(HttpMethod.GET, url, options, target, callback);
+    }
+
     //MARK: - Blog
     public void listBlogsForUser(String userID, Parameter options, Callback callback) {
-        String url = APIURL() + "/users/" + userID + "/sites";
+        Endpoint url = endpoint(Routes.USER_SITES, userID);
         get(url, options, callback);
     }
 
     private void blogAction(HttpMethod action, String blogID, Resource blog, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites";
+        Endpoint url;
         if (blogID != null && !blogID.equals("")) {
-            url += "/" + blogID;
+            url = endpoint(Routes.SITE, blogID);
+        } else {
+            url = endpoint(Routes.SITES);
         }
         action("blog", action, url, blog, options, callback);
     }
@@ -491,16 +1714,16 @@ public class DataAPI {
 
     //MARK: - Entry
     public void listEntries(String siteID, Parameter options, Callback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/entries";
+        Endpoint url = endpoint(Routes.ENTRIES, siteID);
         get(url, options, callback);
     }
 
     private void entryAction(HttpMethod action, String siteID, String entryID, Resource entry, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/entries";
-        if (action != HttpMethod.POST) {
-            if (entryID != null && !entryID.equals("")) {
-                url += "/" + entryID;
-            }
+        Endpoint url;
+        if (action != HttpMethod.POST && entryID != null && !entryID.equals("")) {
+            url = endpoint(Routes.ENTRY, siteID, entryID);
+        } else {
+            url = endpoint(Routes.ENTRIES, siteID);
         }
         action("entry", action, url, entry, options, callback);
     }
@@ -522,7 +1745,7 @@ public class DataAPI {
     }
 
     private void listEntriesForObject(String objectName, String siteID, String objectID, Parameter options, Callback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/" + objectName + "/" + objectID + "/entries";
+        Endpoint url = endpoint(Routes.ENTRIES_FOR_OBJECT, siteID, objectName, objectID);
         get(url, options, callback);
     }
 
@@ -539,65 +1762,63 @@ public class DataAPI {
     }
 
     public void exportEntries(String siteID, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/entries/export";
+        Endpoint url = endpoint(Routes.ENTRIES_EXPORT, siteID);
 
-        Request request = makeRequest(HttpMethod.GET, url, options, false);
+        get(url, options, callback);
+    }
 
-        Response response;
-        try {
-            response = httpClient.newCall(request).execute();
-        } catch (IOException e) {
-            callback.onFailure(ERROR_JSON);
-            return;
-        }
+    public void exportEntries(String siteID, Parameter options, DownloadTarget target, ActionCallback callback) {
+        Endpoint url = endpoint(Routes.ENTRIES_EXPORT, siteID);
+        download(HttpMethod.GET, url, options, target, callback);
+    }
 
-        if (response == null || !response.isSuccessful()) {
-            callback.onFailure(ERROR_JSON);
-            return;
-        }
+    public PublishJob.Builder publishJob(String[] entryIDs) {
+        return new PublishJob.Builder(this, entryIDs);
+    }
 
-        String body;
-        try {
-            body = response.body().string();
-        } catch (IOException e) {
-            callback.onFailure(ERROR_JSON);
-            return;
+    // Runs a PublishJob with default chunking and reports the final response of the only chunk,
+    // or a summary holding every chunk's response when the IDs did not fit in one URL.
+    public void publishEntries(String[] entryIDs, Parameter options, final ActionCallback callback) {
+        if (entryIDs == null || entryIDs.length == 0) {
+            throw new IllegalArgumentException("entryIDs must not be empty");
         }
-
-        JSONObject json = new JSONObject(body);
-        if (json.has("error")) {
-            JSONObject error = json.getJSONObject("error");
-            if (error != null) {
-                callback.onFailure(error);
+        PublishJob job = publishJob(entryIDs).options(options).build();
+        PublishCallback jobCallback = new PublishCallback() {
+            public void onComplete(JSONArray responses) {
+                if (responses.length() == 1) {
+                    callback.onSuccess(responses.getJSONObject(0));
+                    return;
+                }
+                JSONObject summary = new JSONObject();
+                summary.put("status", "Complete");
+                summary.put("restIds", "");
+                summary.put("responses", responses);
+                callback.onSuccess(summary);
             }
-            return;
-        }
-
-        callback.onSuccess(json);
-    }
 
-    public void publishEntries(String[] entryIDs, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/publish/entries";
+            public void onCancelled() {
+                callback.onFailure(ERROR_JSON);
+            }
 
-        StringBuffer buffer = new StringBuffer();
-        for (int i = 0 ; i < entryIDs.length; i++) {
-            if (i > 0) {
-                buffer.append(",");
+            public void onFailure(JSONObject error) {
+                callback.onFailure(error);
             }
-            buffer.append(entryIDs[i]);
-        }
-        String ids = buffer.toString();
+        };
 
-        if (options == null) {
-            options = new Parameter();
+        if (async || (executor != null && INLINE.get() == null)) {
+            job.start(jobCallback);
+            return;
         }
-        options.put("ids", ids);
-
-        repeatAction(HttpMethod.GET, url, options, callback);
+        // Blocking calls run on the caller's thread, and so does their callback.
+        job.runInline(jobCallback);
     }
 
     public void importEntriesWithFile(String siteID, byte[] importData, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/entries/import";
+        importEntriesWithFile(siteID, UploadSource.fromBytes(importData), options, callback);
+    }
+
+    public void importEntriesWithFile(String siteID, UploadSource importData, Parameter options, ActionCallback callback) {
+        Endpoint url = endpoint(Routes.ENTRIES_IMPORT, siteID);
         upload(importData, "import.dat", url, options, callback);
     }
 
@@ -606,32 +1827,32 @@ public class DataAPI {
             importEntriesWithFile(siteID, importData, options, callback);
             return;
         }
-        String url = APIURL() + "/sites/" + siteID + "/entries/import";
+        Endpoint url = endpoint(Routes.ENTRIES_IMPORT, siteID);
         post(url, options, callback);
     }
 
     public void previewEntryById(String siteID, String entryID, Resource entry, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/entries/" + entryID + "/preview";
+        Endpoint url = endpoint(Routes.ENTRY_PREVIEW, siteID, entryID);
         action("entry", HttpMethod.POST, url, entry, options, callback);
     }
 
     public void previewEntry(String siteID, Resource entry, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/entries/preview";
+        Endpoint url = endpoint(Routes.ENTRIES_PREVIEW, siteID);
         action("entry", HttpMethod.POST, url, entry, options, callback);
     }
 
     //MARK: - Page
     public void listPages(String siteID, Parameter options, Callback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/pages";
+        Endpoint url = endpoint(Routes.PAGES, siteID);
         get(url, options, callback);
     }
 
     private void pageAction(HttpMethod action, String siteID, String pageID, Resource page, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/pages";
-        if (action != HttpMethod.POST) {
-            if (pageID != null && !pageID.equals("")) {
-                url += "/" + pageID;
-            }
+        Endpoint url;
+        if (action != HttpMethod.POST && pageID != null && !pageID.equals("")) {
+            url = endpoint(Routes.PAGE, siteID, pageID);
+        } else {
+            url = endpoint(Routes.PAGES, siteID);
         }
         action("page", action, url, page, options, callback);
     }
@@ -653,7 +1874,7 @@ public class DataAPI {
     }
 
     private void listPagesForObject(String objectName, String siteID, String objectID, Parameter options, Callback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/" + objectName + "/" + objectID + "/pages";
+        Endpoint url = endpoint(Routes.PAGES_FOR_OBJECT, siteID, objectName, objectID);
         get(url, options, callback);
     }
 
@@ -670,27 +1891,27 @@ public class DataAPI {
     }
 
     public void previewPageById(String siteID, String pageID, Resource page, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/pages/" + pageID + "/preview";
+        Endpoint url = endpoint(Routes.PAGE_PREVIEW, siteID, pageID);
         action("page", HttpMethod.POST, url, page, options, callback);
     }
 
     public void previewPage(String siteID, Resource page, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/pages/preview";
+        Endpoint url = endpoint(Routes.PAGES_PREVIEW, siteID);
         action("page", HttpMethod.POST, url, page, options, callback);
     }
 
     //MARK: - Category
     public void listCategories(String siteID, Parameter options, Callback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/categories";
+        Endpoint url = endpoint(Routes.CATEGORIES, siteID);
         get(url, options, callback);
     }
 
     private void categoryAction(HttpMethod action, String siteID, String categoryID, Resource category, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/categories";
-        if (action != HttpMethod.POST) {
-            if (categoryID != null && !categoryID.equals("")) {
-                url += "/" + categoryID;
-            }
+        Endpoint url;
+        if (action != HttpMethod.POST && categoryID != null && !categoryID.equals("")) {
+            url = endpoint(Routes.CATEGORY, siteID, categoryID);
+        } else {
+            url = endpoint(Routes.CATEGORIES, siteID);
         }
         action("category", action, url, category, options, callback);
     }
@@ -712,12 +1933,12 @@ public class DataAPI {
     }
 
     public void listCategoriesForEntry(String siteID, String entryID, Parameter options, Callback callback) {
-        String url = APIURL() + "/sites" + siteID + "/entries/" + entryID + "/categories";
+        Endpoint url = endpoint(Routes.CATEGORIES_FOR_ENTRY, siteID, entryID);
         get(url, options, callback);
     }
 
     private void listCategoriesForRelation(String relation, String siteID, String categoryID, Parameter options, Callback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/categories/" + categoryID + "/" + relation;
+        Endpoint url = endpoint(Routes.CATEGORIES_FOR_RELATION, siteID, categoryID, relation);
         get(url, options, callback);
     }
 
@@ -734,7 +1955,7 @@ public class DataAPI {
     }
 
     public void permutateCategories(String siteID, Parameter[] categories, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/categories/permutate";
+        Endpoint url = endpoint(Routes.CATEGORIES_PERMUTATE, siteID);
 
         if (categories != null && categories.length > 0) {
             if (options == null) {
@@ -749,14 +1970,16 @@ public class DataAPI {
 
     //MARK: - Folder
     public void listFolders(String siteID, Parameter options, Callback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/folders";
+        Endpoint url = endpoint(Routes.FOLDERS, siteID);
         get(url, options, callback);
     }
 
     private void folderAction(HttpMethod action, String siteID, String folderID, Resource folder, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/folders";
+        Endpoint url;
         if (folderID != null && !folderID.equals("")) {
-            url += "/" + folderID;
+            url = endpoint(Routes.FOLDER, siteID, folderID);
+        } else {
+            url = endpoint(Routes.FOLDERS, siteID);
         }
         action("folder", action, url, folder, options, callback);
     }
@@ -778,7 +2001,7 @@ public class DataAPI {
     }
 
     private void listFoldersForRelation(String relation, String siteID, String folderID, Parameter options, Callback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/folders/" + folderID + "/" + relation;
+        Endpoint url = endpoint(Routes.FOLDERS_FOR_RELATION, siteID, folderID, relation);
         get(url, options, callback);
     }
 
@@ -795,7 +2018,7 @@ public class DataAPI {
     }
 
     public void permutateFolders(String siteID, Parameter[] folders, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/folders/permutate";
+        Endpoint url = endpoint(Routes.FOLDERS_PERMUTATE, siteID);
 
         if (folders != null && folders.length > 0) {
             if (options == null) {
@@ -810,7 +2033,7 @@ public class DataAPI {
 
     //MARK: - Tag
     public void listTagsForSite(String siteID, Parameter options, Callback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/tags";
+        Endpoint url = endpoint(Routes.TAGS, siteID);
         get(url, options, callback);
     }
 
@@ -819,7 +2042,7 @@ public class DataAPI {
             callback.onFailure(ERROR_JSON);
             return;
         }
-        String url = APIURL() + "/sites/" + siteID + "/tags/" + tagID;
+        Endpoint url = endpoint(Routes.TAG, siteID, tagID);
         action("tag", action, url, tag, options, callback);
     }
 
@@ -837,18 +2060,18 @@ public class DataAPI {
 
     //MARK: - User
     public void listUsers(Parameter options, Callback callback) {
-        String url = APIURL() + "/users";
+        Endpoint url = endpoint(Routes.USERS);
         get(url, options, callback);
     }
 
     private void userAction(HttpMethod action, String userID, Resource user, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/users";
-        if (action != HttpMethod.POST) {
-            if (userID != null && !userID.equals("")) {
-                url += "/" + userID;
-            }
+        Endpoint url;
+        if (action != HttpMethod.POST && userID != null && !userID.equals("")) {
+            url = endpoint(Routes.USER, userID);
+        } else {
+            url = endpoint(Routes.USERS);
         }
-        action("user", action, userID, user, options, callback);
+        action("user", action, url, user, options, callback);
     }
 
     public void createUser(Resource user, Parameter options, ActionCallback callback) {
@@ -868,17 +2091,17 @@ public class DataAPI {
     }
 
     public void unlockUser(String userID, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/users/" + userID + "/unlock";
+        Endpoint url = endpoint(Routes.USER_UNLOCK, userID);
         post(url, options, callback);
     }
 
     public void recoverPasswordForUser(String userID, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/users/" + userID + "/recover_password";
+        Endpoint url = endpoint(Routes.USER_RECOVER_PASSWORD, userID);
         post(url, options, callback);
     }
 
     public void recoverPassword(String name, String email, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/recover_password";
+        Endpoint url = endpoint(Routes.RECOVER_PASSWORD);
 
         if (options == null) {
             options = new Parameter();
@@ -891,17 +2114,25 @@ public class DataAPI {
 
     //MARK: - Asset
     public void listAssets(String siteID, Parameter options, Callback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/assets";
+        Endpoint url = endpoint(Routes.ASSETS, siteID);
         get(url, options, callback);
     }
 
     public void uploadAsset(byte[] assetData, String fileName, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/assets/upload";
+        uploadAsset(UploadSource.fromBytes(assetData), fileName, options, callback);
+    }
+
+    public void uploadAsset(UploadSource assetData, String fileName, Parameter options, ActionCallback callback) {
+        Endpoint url = endpoint(Routes.ASSETS_UPLOAD);
         upload(assetData, fileName, url, options, callback);
     }
 
     public void uploadAssetForSite(String siteID, byte[] assetData, String fileName, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/assets/upload";
+        uploadAssetForSite(siteID, UploadSource.fromBytes(assetData), fileName, options, callback);
+    }
+
+    public void uploadAssetForSite(String siteID, UploadSource assetData, String fileName, Parameter options, ActionCallback callback) {
+        Endpoint url = endpoint(Routes.SITE_ASSETS_UPLOAD, siteID);
         upload(assetData, fileName, url, options, callback);
     }
 
@@ -910,7 +2141,7 @@ public class DataAPI {
             callback.onFailure(ERROR_JSON);
             return;
         }
-        String url = APIURL() + "/sites/" + siteID + "/assets/" + assetID;
+        Endpoint url = endpoint(Routes.ASSET, siteID, assetID);
         action("asset", action, url, asset, options, callback);
     }
 
@@ -927,7 +2158,7 @@ public class DataAPI {
     }
 
     private void listAssetsForObject(String objectName, String siteID, String objectID, Parameter options, Callback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/" + objectName + "/" + objectID + "/assets";
+        Endpoint url = endpoint(Routes.ASSETS_FOR_OBJECT, siteID, objectName, objectID);
         get(url, options, callback);
     }
 
@@ -944,13 +2175,13 @@ public class DataAPI {
     }
 
     public void getThumbnail(String siteID, String assetID, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/assets/" + assetID + "thumbnail";
-        get(url, options, callback);
+        Endpoint url = endpoint(Routes.ASSET_THUMBNAIL, siteID, assetID);
+        action("thumbnail", HttpMethod.GET, url, null, options, callback);
     }
 
     //MARK: - Comment
     public void listComments(String siteID, Parameter options, Callback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/comments";
+        Endpoint url = endpoint(Routes.COMMENTS, siteID);
         get(url, options, callback);
     }
 
@@ -959,7 +2190,7 @@ public class DataAPI {
             callback.onFailure(ERROR_JSON);
             return;
         }
-        String url = APIURL() + "/sites/" + siteID + "/comments/" + commentID;
+        Endpoint url = endpoint(Routes.COMMENT, siteID, commentID);
         action("comment", action, url, comment, options, callback);
     }
 
@@ -976,7 +2207,7 @@ public class DataAPI {
     }
 
     private void listCommentsForObject(String objectName, String siteID, String objectID, Parameter options, Callback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/" + objectName + "/" + objectID + "/comments";
+        Endpoint url = endpoint(Routes.COMMENTS_FOR_OBJECT, siteID, objectName, objectID);
         get(url, options, callback);
     }
 
@@ -989,7 +2220,7 @@ public class DataAPI {
     }
 
     private void createCommentForObject(String objectName, String siteID, String objectID, Resource comment, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/" + objectName + "/" + objectID + "/comments";
+        Endpoint url = endpoint(Routes.COMMENTS_FOR_OBJECT, siteID, objectName, objectID);
         action("comment", HttpMethod.POST, url, comment, options, callback);
     }
 
@@ -1002,7 +2233,7 @@ public class DataAPI {
     }
 
     private void createReplyCommentForObject(String objectName, String siteID, String objectID, String commentID, Resource reply, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/" + objectName + "/" + objectID + "/comments/" + commentID + "/replies";
+        Endpoint url = endpoint(Routes.COMMENT_REPLIES, siteID, objectName, objectID, commentID);
         action("comment", HttpMethod.POST, url, reply, options, callback);
     }
 
@@ -1016,7 +2247,7 @@ public class DataAPI {
 
     //MARK: - Trackback
     public void listTrackbacks(String siteID, Parameter options, Callback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/trackbacks";
+        Endpoint url = endpoint(Routes.TRACKBACKS, siteID);
         get(url, options, callback);
     }
 
@@ -1025,7 +2256,7 @@ public class DataAPI {
             callback.onFailure(ERROR_JSON);
             return;
         }
-        String url = APIURL() + "/sites/" + siteID + "/trackbacks/" + trackbackID;
+        Endpoint url = endpoint(Routes.TRACKBACK, siteID, trackbackID);
         action("trackback", action, url, trackback, options, callback);
     }
 
@@ -1042,7 +2273,7 @@ public class DataAPI {
     }
 
     private void listTrackbacksForObject(String objectName, String siteID, String objectID, Parameter options, Callback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/" + objectName + "/" + objectID + "/trackbacks";
+        Endpoint url = endpoint(Routes.TRACKBACKS_FOR_OBJECT, siteID, objectName, objectID);
         get(url, options, callback);
     }
 
@@ -1056,16 +2287,16 @@ public class DataAPI {
 
     //MARK: - Field
     public void listFields(String siteID, Parameter options, Callback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/fields";
+        Endpoint url = endpoint(Routes.FIELDS, siteID);
         get(url, options, callback);
     }
 
     private void fieldAction(HttpMethod action, String siteID, String fieldID, Resource field, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/fields";
-        if (action != HttpMethod.POST) {
-            if (fieldID != null && !fieldID.equals("")) {
-                url += "/" + fieldID;
-            }
+        Endpoint url;
+        if (action != HttpMethod.POST && fieldID != null && !fieldID.equals("")) {
+            url = endpoint(Routes.FIELD, siteID, fieldID);
+        } else {
+            url = endpoint(Routes.FIELDS, siteID);
         }
         action("field", action, url, field, options, callback);
     }
@@ -1088,16 +2319,16 @@ public class DataAPI {
 
     //MARK: - Template
     public void listTemplates(String siteID, Parameter options, Callback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/templates";
+        Endpoint url = endpoint(Routes.TEMPLATES, siteID);
         get(url, options, callback);
     }
 
     private void templateAction(HttpMethod action, String siteID, String templateID, Resource template, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/templates";
-        if (action != HttpMethod.POST) {
-            if (templateID != null && !templateID.equals("")) {
-                url += "/" + templateID;
-            }
+        Endpoint url;
+        if (action != HttpMethod.POST && templateID != null && !templateID.equals("")) {
+            url = endpoint(Routes.TEMPLATE, siteID, templateID);
+        } else {
+            url = endpoint(Routes.TEMPLATES, siteID);
         }
         action("template", action, url, template, options, callback);
     }
@@ -1119,37 +2350,37 @@ public class DataAPI {
     }
 
     public void publishTemplate(String siteID, String templateID, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/templates/" + templateID + "/publish";
+        Endpoint url = endpoint(Routes.TEMPLATE_PUBLISH, siteID, templateID);
         post(url, options, callback);
     }
 
     public void refreshTemplate(String siteID, String templateID, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/templates/" + templateID + "/refresh";
+        Endpoint url = endpoint(Routes.TEMPLATE_REFRESH, siteID, templateID);
         post(url, options, callback);
     }
 
     public void refreshTemplateForSite(String siteID, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/refresh_templates";
+        Endpoint url = endpoint(Routes.TEMPLATES_REFRESH, siteID);
         post(url, options, callback);
     }
 
     public void cloneTemplate(String siteID, String templateID, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/templates/" + templateID + "/clone";
+        Endpoint url = endpoint(Routes.TEMPLATE_CLONE, siteID, templateID);
         post(url, options, callback);
     }
 
     //MARK: - Templatemap
     public void listTemplatemaps(String siteID, String templateID, Parameter options, Callback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/templates/" + templateID + "/templatemaps";
+        Endpoint url = endpoint(Routes.TEMPLATEMAPS, siteID, templateID);
         get(url, options, callback);
     }
 
     private void templatemapAction(HttpMethod action, String siteID, String templateID, String templateMapID, Resource templateMap, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/templates/" + templateID + "/templatemaps";
-        if (action != HttpMethod.POST) {
-            if (templateMapID != null && !templateMapID.equals("")) {
-                url += "/" + templateMapID;
-            }
+        Endpoint url;
+        if (action != HttpMethod.POST && templateMapID != null && !templateMapID.equals("")) {
+            url = endpoint(Routes.TEMPLATEMAP, siteID, templateID, templateMapID);
+        } else {
+            url = endpoint(Routes.TEMPLATEMAPS, siteID, templateID);
         }
         action("templatemap", action, url, templateMap, options, callback);
     }
@@ -1172,26 +2403,26 @@ public class DataAPI {
 
     //MARK: - Widget
     public void listWidgets(String siteID, Parameter options, Callback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/widgets";
+        Endpoint url = endpoint(Routes.WIDGETS, siteID);
         get(url, options, callback);
     }
 
     public void listWidgetsForWidgetset(String siteID, String widgetSetID, Parameter options, Callback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/widgetsets/" + widgetSetID + "/widgets";
+        Endpoint url = endpoint(Routes.WIDGETSET_WIDGETS, siteID, widgetSetID);
         get(url, options, callback);
     }
 
     public void getWidgetForWidgetset(String siteID, String widgetSetID, String widgetID, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/widgetsets/" + widgetSetID + "/widgets/" + widgetID;
+        Endpoint url = endpoint(Routes.WIDGETSET_WIDGET, siteID, widgetSetID, widgetID);
         action("widget", HttpMethod.GET, url, null, options, callback);
     }
 
     private void widgetAction(HttpMethod action, String siteID, String widgetID, Resource widget, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/widgets";
-        if (action != HttpMethod.POST) {
-            if (widgetID != null && !widgetID.equals("")) {
-                url += "/" + widgetID;
-            }
+        Endpoint url;
+        if (action != HttpMethod.POST && widgetID != null && !widgetID.equals("")) {
+            url = endpoint(Routes.WIDGET, siteID, widgetID);
+        } else {
+            url = endpoint(Routes.WIDGETS, siteID);
         }
         action("widget", action, url, widget, options, callback);
     }
@@ -1213,27 +2444,27 @@ public class DataAPI {
     }
 
     public void refreshWidget(String siteID, String widgetID, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/widgets/" + widgetID + "/refresh";
+        Endpoint url = endpoint(Routes.WIDGET_REFRESH, siteID, widgetID);
         post(url, options, callback);
     }
 
     public void cloneWidget(String siteID, String widgetID, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/widgets/" + widgetID + "/clone";
+        Endpoint url = endpoint(Routes.WIDGET_CLONE, siteID, widgetID);
         post(url, options, callback);
     }
 
     //MARK: - Widgetset
     public void listWidgetsets(String siteID, Parameter options, Callback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/widgetsets";
+        Endpoint url = endpoint(Routes.WIDGETSETS, siteID);
         get(url, options, callback);
     }
 
     private void widgetsetAction(HttpMethod action, String siteID, String widgetSetID, Resource widgetSet, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/widgetsets";
-        if (action != HttpMethod.POST) {
-            if (widgetSetID != null && !widgetSetID.equals("")) {
-                url += "/" + widgetSetID;
-            }
+        Endpoint url;
+        if (action != HttpMethod.POST && widgetSetID != null && !widgetSetID.equals("")) {
+            url = endpoint(Routes.WIDGETSET, siteID, widgetSetID);
+        } else {
+            url = endpoint(Routes.WIDGETSETS, siteID);
         }
         action("widgetset", action, url, widgetSet, options,callback);
     }
@@ -1256,42 +2487,47 @@ public class DataAPI {
 
     //MARK: - Theme
     public void listThemes(Parameter options, Callback callback) {
-        String url = APIURL() + "/themes";
+        Endpoint url = endpoint(Routes.THEMES);
         get(url, options, callback);
     }
 
     public void getTheme(String themeID, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/themes/" + themeID;
-        get(url, options, callback);
+        Endpoint url = endpoint(Routes.THEME, themeID);
+        action("theme", HttpMethod.GET, url, null, options, callback);
     }
 
     public void applyThemeToSite(String siteID, String themeID, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/themes/" + themeID + "/apply";
+        Endpoint url = endpoint(Routes.SITE_THEME_APPLY, siteID, themeID);
         post(url, options, callback);
     }
 
     public void uninstallTheme(String themeID, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/themes/" + themeID;
-        delete(url, options, callback);
+        Endpoint url = endpoint(Routes.THEME, themeID);
+        action("theme", HttpMethod.DELETE, url, null, options, callback);
     }
 
     public void exportSiteTheme(String siteID, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/export_theme";
+        Endpoint url = endpoint(Routes.SITE_THEME_EXPORT, siteID);
         post(url, options, callback);
     }
 
+    public void exportSiteTheme(String siteID, Parameter options, DownloadTarget target, ActionCallback callback) {
+        Endpoint url = endpoint(Routes.SITE_THEME_EXPORT, siteID);
+        download(HttpMethod.POST, url, options, target, callback);
+    }
+
     //MARK: - Role
     public void listRoles(Parameter options, Callback callback) {
-        String url = APIURL() + "/roles";
+        Endpoint url = endpoint(Routes.ROLES);
         get(url, options, callback);
     }
 
     private void roleAction(HttpMethod action, String roleID, Resource role, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/roles/";
-        if (action != HttpMethod.POST) {
-            if (roleID != null && !roleID.equals("")) {
-                url += "/" + roleID;
-            }
+        Endpoint url;
+        if (action != HttpMethod.POST && roleID != null && !roleID.equals("")) {
+            url = endpoint(Routes.ROLE, roleID);
+        } else {
+            url = endpoint(Routes.ROLES);
         }
         action("role", action, url, role, options, callback);
     }
@@ -1314,12 +2550,12 @@ public class DataAPI {
 
     //MARK: - Permission
     public void listPermissions(Parameter options, Callback callback) {
-        String url = APIURL() + "/permissions";
+        Endpoint url = endpoint(Routes.PERMISSIONS);
         get(url, options, callback);
     }
 
     private void listPermissionsForObject(String objectName, String objectID, Parameter options, Callback callback) {
-        String url = APIURL() + "/" + objectName + "/" + objectID + "/permissions";
+        Endpoint url = endpoint(Routes.PERMISSIONS_FOR_OBJECT, objectName, objectID);
         get(url, options, callback);
     }
 
@@ -1336,7 +2572,7 @@ public class DataAPI {
     }
 
     public void grantPermissionToSite(String siteID, String userID, String roleID, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/permissions/grant";
+        Endpoint url = endpoint(Routes.SITE_PERMISSIONS_GRANT, siteID);
 
         Parameter params = new Parameter();
         params.put("user_id", userID);
@@ -1346,7 +2582,7 @@ public class DataAPI {
     }
 
     public void grantPermissionToUser(String userID, String siteID, String roleID, ActionCallback callback) {
-        String url = APIURL() + "/users/" + userID + "/permissions/grant";
+        Endpoint url = endpoint(Routes.USER_PERMISSIONS_GRANT, userID);
 
         Parameter params = new Parameter();
         params.put("site_id", siteID);
@@ -1356,7 +2592,7 @@ public class DataAPI {
     }
 
     public void revokePermissionFromSite(String siteID, String userID, String roleID, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/permissions/revoke";
+        Endpoint url = endpoint(Routes.SITE_PERMISSIONS_REVOKE, siteID);
 
         Parameter params = new Parameter();
         params.put("user_id", userID);
@@ -1366,7 +2602,7 @@ public class DataAPI {
     }
 
     public void revokePermissionFromUser(String userID, String siteID, String roleID, ActionCallback callback) {
-        String url = APIURL() + "/users/" + userID + "/permissions/revoke";
+        Endpoint url = endpoint(Routes.USER_PERMISSIONS_REVOKE, userID);
 
         Parameter params = new Parameter();
         params.put("site_id", siteID);
@@ -1377,16 +2613,16 @@ public class DataAPI {
 
     //MARK: - Log
     public void listLogs(String siteID, Parameter options, Callback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/logs";
+        Endpoint url = endpoint(Routes.LOGS, siteID);
         get(url, options, callback);
     }
 
     private void logAction(HttpMethod action, String siteID, String logID, Resource log, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/logs";
-        if (action != HttpMethod.POST) {
-            if (logID != null && !logID.equals("")) {
-                url += "/" + logID;
-            }
+        Endpoint url;
+        if (action != HttpMethod.POST && logID != null && !logID.equals("")) {
+            url = endpoint(Routes.LOG, siteID, logID);
+        } else {
+            url = endpoint(Routes.LOGS, siteID);
         }
         action("log", action, url, log, options, callback);
     }
@@ -1408,27 +2644,32 @@ public class DataAPI {
     }
 
     public void resetLogs(String siteID, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/logs";
+        Endpoint url = endpoint(Routes.LOGS, siteID);
         delete(url, options, callback);
     }
 
     public void exportLogs(String siteID, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/logs/export";
+        Endpoint url = endpoint(Routes.LOGS_EXPORT, siteID);
         get(url, options, callback);
     }
 
+    public void exportLogs(String siteID, Parameter options, DownloadTarget target, ActionCallback callback) {
+        Endpoint url = endpoint(Routes.LOGS_EXPORT, siteID);
+        download(HttpMethod.GET, url, options, target, callback);
+    }
+
     //MARK: - FormattedText
     public void listFormattedTexts(String siteID, Parameter options, Callback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/formatted_texts";
+        Endpoint url = endpoint(Routes.FORMATTED_TEXTS, siteID);
         get(url, options, callback);
     }
 
     private void formattedTextAction(HttpMethod action, String siteID, String formattedTextID, Resource formattedText, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/formatted_texts";
-        if (action != HttpMethod.POST) {
-            if (formattedTextID != null && !formattedTextID.equals("")) {
-                url += "/" + formattedTextID;
-            }
+        Endpoint url;
+        if (action != HttpMethod.POST && formattedTextID != null && !formattedTextID.equals("")) {
+            url = endpoint(Routes.FORMATTED_TEXT, siteID, formattedTextID);
+        } else {
+            url = endpoint(Routes.FORMATTED_TEXTS, siteID);
         }
         action("formatted_text", action, url, formattedText, options, callback);
     }
@@ -1451,12 +2692,12 @@ public class DataAPI {
 
     //MARK: - Stats
     public void getStatsProvider(String siteID, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/stats/provider";
-        get(url, options, callback);
+        Endpoint url = endpoint(Routes.STATS_PROVIDER, siteID);
+        action("provider", HttpMethod.GET, url, null, options, callback);
     }
 
     private void listStatsForTarget(String siteID, String targetName, String objectName, String startDate, String endDate, Parameter options, Callback callback) {
-        String url = APIURL() + "/sites/" + siteID + "/stats/" + targetName + "/" + objectName;
+        Endpoint url = endpoint(Routes.STATS, siteID, targetName, objectName);
 
         Parameter params = new Parameter();
         params.put("startDate", startDate);
@@ -1491,21 +2732,24 @@ public class DataAPI {
 
     //MARK: - Plugin
     public void listPlugins(Parameter options, Callback callback) {
-        String url = APIURL() + "/plugins";
+        Endpoint url = endpoint(Routes.PLUGINS);
         get(url, options, callback);
     }
 
     public void getPlugin(String pluginID, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/plugins/" + pluginID;
-        get(url, options, callback);
+        Endpoint url = endpoint(Routes.PLUGIN, pluginID);
+        action("plugin", HttpMethod.GET, url, null, options, callback);
     }
 
     private void togglePlugin(String pluginID, boolean enable, Parameter options, ActionCallback callback) {
-        String url = APIURL() + "/plugins";
+        Endpoint url;
         if (pluginID != null && !pluginID.equals("*")) {
-            url += "/" + pluginID;
+            url = endpoint(enable ? Routes.PLUGIN_ENABLE : Routes.PLUGIN_DISABLE, pluginID);
+            callback = invalidating(endpoint(Routes.PLUGIN, pluginID), false, callback);
+        } else {
+            url = endpoint(enable ? Routes.PLUGINS_ENABLE : Routes.PLUGINS_DISABLE);
+            callback = invalidating(endpoint(Routes.PLUGINS), true, callback);
         }
-        url += enable ? "/enable" : "/disable";
         post(url, options, callback);
     }
 
@@ -1528,7 +2772,7 @@ public class DataAPI {
     //MARK: - # V3
     //MARK: - Version
     public void version(Parameter options, final ActionCallback callback) {
-        String url = APIBaseURL + "/version";
+        Endpoint url = endpoint(urls().baseURL, Routes.VERSION);
 
         get(url, options, new ActionCallback() {
             public void onSuccess(JSONObject response) {
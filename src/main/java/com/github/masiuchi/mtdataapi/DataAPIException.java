@@ -0,0 +1,12 @@
+package com.github.masiuchi.mtdataapi;
+
+import org.json.JSONObject;
+
+public class DataAPIException extends RuntimeException {
+    public final JSONObject error;
+
+    public DataAPIException(JSONObject error) {
+        super(error.optString("message", "The operation has not been completed."));
+        this.error = error;
+    }
+}
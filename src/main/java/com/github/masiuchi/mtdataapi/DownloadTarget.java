@@ -0,0 +1,130 @@
+package com.github.masiuchi.mtdataapi;
+
+import okhttp3.MediaType;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.Okio;
+import okio.Sink;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Path;
+
+// Where a streamed export or backup is written. The body is copied through Okio segments as it arrives,
+// so memory use stays constant whatever the size of the download.
+public final class DownloadTarget {
+    private static final long SEGMENT_SIZE = 8192;
+
+    private final OutputStream stream;
+    private final File file;
+    private final boolean resume;
+    private final ProgressListener listener;
+
+    private DownloadTarget(OutputStream stream, File file, boolean resume, ProgressListener listener) {
+        this.stream = stream;
+        this.file = file;
+        this.resume = resume;
+        this.listener = listener;
+    }
+
+    // The stream is flushed but left open.
+    public static DownloadTarget toStream(OutputStream out) {
+        return new DownloadTarget(out, null, false, null);
+    }
+
+    public static DownloadTarget toFile(File file) {
+        return new DownloadTarget(null, file, false, null);
+    }
+
+    public static DownloadTarget toPath(Path path) {
+        return toFile(path.toFile());
+    }
+
+    // Continues a partially written file with a Range request. If the server ignores the range
+    // and sends the whole body, the file is rewritten from the start.
+    public DownloadTarget resuming() {
+        if (file == null) {
+            throw new IllegalStateException("Only file targets can be resumed");
+        }
+        return new DownloadTarget(null, file, true, listener);
+    }
+
+    public DownloadTarget withProgress(ProgressListener listener) {
+        return new DownloadTarget(stream, file, resume, listener);
+    }
+
+    long resumeOffset() {
+        return resume && file.isFile() ? file.length() : 0;
+    }
+
+    // A 416 answers a resumed download only when it says the file already holds exactly `offset` bytes;
+    // any other 416 is an error and must leave the partial file alone.
+    static boolean alreadyComplete(Response response, long offset) {
+        return offset > 0 && response.code() == 416 && ("bytes */" + offset).equals(response.header("Content-Range"));
+    }
+
+    // Returns the summary passed to onSuccess.
+    JSONObject receive(Response response, long offset) throws IOException {
+        if (alreadyComplete(response, offset)) {
+            return summary(0, offset, offset, null);
+        }
+        if (!response.isSuccessful()) {
+            throw new IOException("Unexpected status " + response.code() + " for a download");
+        }
+
+        String contentRange = response.header("Content-Range");
+        if (response.code() != 206 || contentRange == null || !contentRange.startsWith("bytes " + offset + "-")) {
+            offset = 0;
+        }
+
+        ResponseBody body = response.body();
+        long contentLength = body.contentLength();
+        long total = contentLength >= 0 ? offset + contentLength : -1;
+
+        Sink sink;
+        if (stream != null) {
+            sink = Okio.sink(stream);
+        } else if (offset > 0) {
+            sink = Okio.appendingSink(file);
+        } else {
+            sink = Okio.sink(file);
+        }
+
+        BufferedSource source = body.source();
+        Buffer buffer = new Buffer();
+        long written = 0;
+        try {
+            long read;
+            while ((read = source.read(buffer, SEGMENT_SIZE)) != -1) {
+                sink.write(buffer, read);
+                written += read;
+                if (listener != null) {
+                    listener.onProgress(offset + written, total);
+                }
+            }
+            sink.flush();
+        } finally {
+            if (stream == null) {
+                sink.close();
+            }
+        }
+
+        MediaType contentType = body.contentType();
+        return summary(written, offset, total, contentType != null ? contentType.toString() : null);
+    }
+
+    private static JSONObject summary(long written, long offset, long total, String contentType) {
+        JSONObject json = new JSONObject();
+        json.put("bytesWritten", written);
+        json.put("resumedFrom", offset);
+        json.put("contentLength", total);
+        if (contentType != null) {
+            json.put("contentType", contentType);
+        }
+        return json;
+    }
+}
@@ -0,0 +1,71 @@
+package com.github.masiuchi.mtdataapi;
+
+import java.util.List;
+
+public class Entry extends Model {
+    public static final Type<Entry> TYPE = new Type<Entry>() {
+        Entry create(LazyJSON json) {
+            return new Entry(json);
+        }
+    };
+
+    Entry(LazyJSON json) {
+        super(json);
+    }
+
+    public String getTitle() {
+        return getString("title");
+    }
+
+    public String getBody() {
+        return getString("body");
+    }
+
+    public String getMore() {
+        return getString("more");
+    }
+
+    public String getExcerpt() {
+        return getString("excerpt");
+    }
+
+    public String getStatus() {
+        return getString("status");
+    }
+
+    public String getBasename() {
+        return getString("basename");
+    }
+
+    public String getPermalink() {
+        return getString("permalink");
+    }
+
+    public String getDate() {
+        return getString("date");
+    }
+
+    public String getCreatedDate() {
+        return getString("createdDate");
+    }
+
+    public String getModifiedDate() {
+        return getString("modifiedDate");
+    }
+
+    public String getSiteID() {
+        return getNestedID("blog");
+    }
+
+    public User getAuthor() {
+        return get("author", User.TYPE);
+    }
+
+    public List<Category> getCategories() {
+        return getList("categories", Category.TYPE);
+    }
+
+    public List<String> getTags() {
+        return getStrings("tags");
+    }
+}
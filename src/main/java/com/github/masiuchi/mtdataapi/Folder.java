@@ -0,0 +1,14 @@
+package com.github.masiuchi.mtdataapi;
+
+// Folders share the shape of categories.
+public class Folder extends Category {
+    public static final Type<Folder> TYPE = new Type<Folder>() {
+        Folder create(LazyJSON json) {
+            return new Folder(json);
+        }
+    };
+
+    Folder(LazyJSON json) {
+        super(json);
+    }
+}
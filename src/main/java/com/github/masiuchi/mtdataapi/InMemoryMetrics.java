@@ -0,0 +1,138 @@
+package com.github.masiuchi.mtdataapi;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Keeps latency histograms and counters per route, e.g. Routes.ENTRIES for listEntries and Routes.ASSETS_UPLOAD for uploadAsset.
+public class InMemoryMetrics implements MetricsListener {
+    // Requests that were not built by DataAPI are recorded under this route.
+    public static final Route OTHER = new Route("other", "/");
+
+    private final ConcurrentHashMap<Route, RouteMetrics> routes = new ConcurrentHashMap<Route, RouteMetrics>();
+
+    public static class RouteMetrics {
+        public final LatencyHistogram total = new LatencyHistogram();
+        public final LatencyHistogram dns = new LatencyHistogram();
+        public final LatencyHistogram connect = new LatencyHistogram();
+        public final LatencyHistogram tls = new LatencyHistogram();
+        public final LatencyHistogram ttfb = new LatencyHistogram();
+
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private final AtomicLong calls = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong retries = new AtomicLong();
+        private final AtomicLong requestBytes = new AtomicLong();
+        private final AtomicLong responseBytes = new AtomicLong();
+        private final ConcurrentHashMap<Integer, AtomicLong> statusCodes = new ConcurrentHashMap<Integer, AtomicLong>();
+        private final long createdAt = System.nanoTime();
+
+        void record(CallMetrics metrics) {
+            total.record(metrics.totalNanos, TimeUnit.NANOSECONDS);
+            recordPhase(dns, metrics.dnsNanos);
+            recordPhase(connect, metrics.connectNanos);
+            recordPhase(tls, metrics.tlsNanos);
+            recordPhase(ttfb, metrics.ttfbNanos);
+
+            calls.incrementAndGet();
+            if (metrics.failed) {
+                failures.incrementAndGet();
+            }
+            retries.addAndGet(metrics.retries);
+            requestBytes.addAndGet(metrics.requestBytes);
+            responseBytes.addAndGet(metrics.responseBytes);
+            if (metrics.code > 0) {
+                AtomicLong counter = statusCodes.get(metrics.code);
+                if (counter == null) {
+                    AtomicLong created = new AtomicLong();
+                    counter = statusCodes.putIfAbsent(metrics.code, created);
+                    if (counter == null) {
+                        counter = created;
+                    }
+                }
+                counter.incrementAndGet();
+            }
+        }
+
+        private static void recordPhase(LatencyHistogram histogram, long nanos) {
+            if (nanos >= 0) {
+                histogram.record(nanos, TimeUnit.NANOSECONDS);
+            }
+        }
+
+        public int inFlight() {
+            return inFlight.get();
+        }
+
+        public long callCount() {
+            return calls.get();
+        }
+
+        // Calls that ended with an I/O error, e.g. a connection failure or an open circuit breaker.
+        public long failureCount() {
+            return failures.get();
+        }
+
+        public long retryCount() {
+            return retries.get();
+        }
+
+        public long requestBytes() {
+            return requestBytes.get();
+        }
+
+        public long responseBytes() {
+            return responseBytes.get();
+        }
+
+        // Completed calls per second since the first call on this route.
+        public double throughput() {
+            long elapsed = System.nanoTime() - createdAt;
+            return elapsed > 0 ? calls.get() * 1e9 / elapsed : 0;
+        }
+
+        public Map<Integer, Long> statusCodes() {
+            Map<Integer, Long> counts = new HashMap<Integer, Long>();
+            for (Map.Entry<Integer, AtomicLong> entry : statusCodes.entrySet()) {
+                counts.put(entry.getKey(), entry.getValue().get());
+            }
+            return counts;
+        }
+    }
+
+    public void onCallStart(Route route) {
+        metrics(route).inFlight.incrementAndGet();
+    }
+
+    public void onCallEnd(CallMetrics metrics) {
+        RouteMetrics route = metrics(metrics.route);
+        route.inFlight.decrementAndGet();
+        route.record(metrics);
+    }
+
+    // Returns null if the route has not been called yet.
+    public RouteMetrics get(Route route) {
+        return routes.get(route != null ? route : OTHER);
+    }
+
+    public Map<Route, RouteMetrics> routes() {
+        return Collections.unmodifiableMap(new HashMap<Route, RouteMetrics>(routes));
+    }
+
+    private RouteMetrics metrics(Route route) {
+        Route key = route != null ? route : OTHER;
+        RouteMetrics metrics = routes.get(key);
+        if (metrics == null) {
+            RouteMetrics created = new RouteMetrics();
+            metrics = routes.putIfAbsent(key, created);
+            if (metrics == null) {
+                metrics = created;
+            }
+        }
+        return metrics;
+    }
+}
@@ -0,0 +1,32 @@
+package com.github.masiuchi.mtdataapi;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+// Receives list items one at a time while the response body is still being read.
+// totalResults is reported as soon as it is seen, which is before the items when the server sends it first.
+public abstract class ItemCallback implements Callback {
+    public final void onSuccess(JSONObject response) {
+        if (response.has("totalResults")) {
+            onTotalResults(response.optInt("totalResults"));
+        }
+        JSONArray items = response.optJSONArray("items");
+        if (items != null) {
+            for (int i = 0; i < items.length(); i++) {
+                JSONObject item = items.optJSONObject(i);
+                if (item != null) {
+                    onItem(item);
+                }
+            }
+        }
+        onComplete();
+    }
+
+    public void onTotalResults(int totalResults) {
+    }
+
+    public abstract void onItem(JSONObject item);
+
+    public void onComplete() {
+    }
+}
@@ -0,0 +1,120 @@
+package com.github.masiuchi.mtdataapi;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.Reader;
+
+class ItemStreamParser {
+    private ItemStreamParser() {
+    }
+
+    // Carries an exception thrown by the callback itself, so it is not mistaken for malformed JSON.
+    static class CallbackException extends RuntimeException {
+        CallbackException(RuntimeException cause) {
+            super(cause);
+        }
+
+        RuntimeException unwrap() {
+            return (RuntimeException) getCause();
+        }
+    }
+
+    // Walks the top-level object of a list response, handing each element of "items" to the callback as it is parsed.
+    // Returns the "error" object if the response carries one, otherwise null.
+    static JSONObject parse(Reader reader, ItemCallback callback) throws JSONException {
+        JSONTokener tokener = new JSONTokener(reader);
+
+        if (tokener.nextClean() != '{') {
+            throw tokener.syntaxError("A JSONObject text must begin with '{'");
+        }
+        if (tokener.nextClean() == '}') {
+            complete(callback);
+            return null;
+        }
+        tokener.back();
+
+        for (;;) {
+            String key = tokener.nextValue().toString();
+            if (tokener.nextClean() != ':') {
+                throw tokener.syntaxError("Expected a ':' after a key");
+            }
+
+            if (key.equals("items")) {
+                parseItems(tokener, callback);
+            } else {
+                Object value = tokener.nextValue();
+                if (key.equals("totalResults")) {
+                    int totalResults = toInt(tokener, value);
+                    try {
+                        callback.onTotalResults(totalResults);
+                    } catch (RuntimeException e) {
+                        throw new CallbackException(e);
+                    }
+                } else if (key.equals("error")) {
+                    return value instanceof JSONObject ? (JSONObject) value : DataAPI.ERROR_JSON;
+                }
+            }
+
+            char c = tokener.nextClean();
+            if (c == '}') {
+                break;
+            }
+            if (c != ',') {
+                throw tokener.syntaxError("Expected a ',' or '}'");
+            }
+        }
+
+        complete(callback);
+        return null;
+    }
+
+    private static void complete(ItemCallback callback) {
+        try {
+            callback.onComplete();
+        } catch (RuntimeException e) {
+            throw new CallbackException(e);
+        }
+    }
+
+    private static int toInt(JSONTokener tokener, Object value) throws JSONException {
+        if (value instanceof Number) {
+            return ((Number) value).intValue();
+        }
+        try {
+            return Integer.parseInt(value.toString());
+        } catch (NumberFormatException e) {
+            throw tokener.syntaxError("totalResults is not a number");
+        }
+    }
+
+    private static void parseItems(JSONTokener tokener, ItemCallback callback) throws JSONException {
+        if (tokener.nextClean() != '[') {
+            throw tokener.syntaxError("A JSONArray text must start with '['");
+        }
+        if (tokener.nextClean() == ']') {
+            return;
+        }
+        tokener.back();
+
+        for (;;) {
+            Object value = tokener.nextValue();
+            if (value instanceof JSONObject) {
+                try {
+                    callback.onItem((JSONObject) value);
+                } catch (RuntimeException e) {
+                    throw new CallbackException(e);
+                }
+            }
+
+            char c = tokener.nextClean();
+            if (c == ']') {
+                return;
+            }
+            if (c != ',') {
+                throw tokener.syntaxError("Expected a ',' or ']'");
+            }
+        }
+    }
+}
@@ -0,0 +1,302 @@
+package com.github.masiuchi.mtdataapi;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// A JSON object read straight from the response text. Creating one only records where it starts and ends;
+// the first field access indexes its top-level keys, and a value is decoded only when that field is read.
+// Nested objects stay lazy too. Can also wrap an already parsed JSONObject, e.g. one served from the ObjectCache.
+final class LazyJSON {
+    private final String text;
+    private final int start;
+    private final int end;
+    private final JSONObject parsed;
+
+    // Built on first access: four offsets per field, the key's characters (inside the quotes) and the value.
+    // Keys are compared in place, so only keys with escapes are ever decoded into strings.
+    // Volatile so a model handed to another thread sees a complete index; indexing twice is harmless.
+    private volatile int[] fields;
+    private volatile String[] escapedKeys;
+
+    private LazyJSON(String text, int start, int end) {
+        this.text = text;
+        this.start = start;
+        this.end = end;
+        this.parsed = null;
+    }
+
+    private LazyJSON(JSONObject parsed) {
+        this.text = null;
+        this.start = 0;
+        this.end = 0;
+        this.parsed = parsed;
+    }
+
+    static LazyJSON parse(String text) throws JSONException {
+        int start = skipWhitespace(text, 0);
+        if (start >= text.length() || text.charAt(start) != '{') {
+            throw new JSONException("A JSONObject text must begin with '{'");
+        }
+        return new LazyJSON(text, start, skipValue(text, start));
+    }
+
+    static LazyJSON of(JSONObject json) {
+        return new LazyJSON(json);
+    }
+
+    boolean has(String key) {
+        return parsed != null ? parsed.has(key) : find(key) >= 0;
+    }
+
+    // The value as org.json would return it (JSONObject, JSONArray, String, Number, Boolean or JSONObject.NULL), or null.
+    Object get(String key) throws JSONException {
+        if (parsed != null) {
+            return parsed.opt(key);
+        }
+        int i = find(key);
+        return i >= 0 ? new JSONTokener(text.substring(fields[i + 2], fields[i + 3])).nextValue() : null;
+    }
+
+    // Strings and numbers as text; null when absent, null or not a scalar.
+    String getString(String key) throws JSONException {
+        if (parsed != null) {
+            Object value = parsed.opt(key);
+            return value == null || value == JSONObject.NULL || value instanceof JSONObject || value instanceof JSONArray
+                    ? null : value.toString();
+        }
+        int i = find(key);
+        if (i < 0) {
+            return null;
+        }
+        int from = fields[i + 2];
+        int to = fields[i + 3];
+        char c = text.charAt(from);
+        if (c == '"') {
+            String raw = text.substring(from + 1, to - 1);
+            return raw.indexOf('\\') < 0 ? raw : (String) new JSONTokener(text.substring(from, to)).nextValue();
+        }
+        if (c == '{' || c == '[' || text.startsWith("null", from)) {
+            return null;
+        }
+        return text.substring(from, to);
+    }
+
+    long getLong(String key, long defaultValue) throws JSONException {
+        String value = getString(key);
+        if (value == null || value.equals("")) {
+            return defaultValue;
+        }
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            try {
+                return (long) Double.parseDouble(value);
+            } catch (NumberFormatException e2) {
+                return defaultValue;
+            }
+        }
+    }
+
+    boolean getBoolean(String key) throws JSONException {
+        String value = getString(key);
+        return value != null && (value.equals("true") || value.equals("1"));
+    }
+
+    LazyJSON getObject(String key) throws JSONException {
+        if (parsed != null) {
+            JSONObject value = parsed.optJSONObject(key);
+            return value != null ? new LazyJSON(value) : null;
+        }
+        int i = find(key);
+        if (i < 0 || text.charAt(fields[i + 2]) != '{') {
+            return null;
+        }
+        return new LazyJSON(text, fields[i + 2], fields[i + 3]);
+    }
+
+    // The objects of an array field; other elements are skipped. Empty when absent.
+    List<LazyJSON> getObjects(String key) throws JSONException {
+        if (parsed != null) {
+            JSONArray array = parsed.optJSONArray(key);
+            if (array == null) {
+                return Collections.emptyList();
+            }
+            List<LazyJSON> objects = new ArrayList<LazyJSON>(array.length());
+            for (int i = 0; i < array.length(); i++) {
+                JSONObject item = array.optJSONObject(i);
+                if (item != null) {
+                    objects.add(new LazyJSON(item));
+                }
+            }
+            return objects;
+        }
+        int i = find(key);
+        if (i < 0 || text.charAt(fields[i + 2]) != '[') {
+            return Collections.emptyList();
+        }
+        List<LazyJSON> objects = new ArrayList<LazyJSON>();
+        int pos = skipWhitespace(text, fields[i + 2] + 1);
+        while (text.charAt(pos) != ']') {
+            int valueEnd = skipValue(text, pos);
+            if (text.charAt(pos) == '{') {
+                objects.add(new LazyJSON(text, pos, valueEnd));
+            }
+            pos = skipWhitespace(text, valueEnd);
+            if (text.charAt(pos) == ',') {
+                pos = skipWhitespace(text, pos + 1);
+            }
+        }
+        return objects;
+    }
+
+    JSONObject toJSONObject() throws JSONException {
+        return parsed != null ? parsed : new JSONObject(text.substring(start, end));
+    }
+
+    public String toString() {
+        return parsed != null ? parsed.toString() : text.substring(start, end);
+    }
+
+    // Returns the offset of the field in `fields`, or -1.
+    private int find(String key) throws JSONException {
+        int[] fields = this.fields;
+        if (fields == null) {
+            fields = index();
+        }
+        String[] escaped = escapedKeys;
+        int length = key.length();
+        for (int i = 0; i < fields.length / 4; i++) {
+            int keyStart = fields[4 * i];
+            int keyEnd = fields[4 * i + 1];
+            if (escaped != null && i < escaped.length && escaped[i] != null) {
+                if (escaped[i].equals(key)) {
+                    return 4 * i;
+                }
+            } else if (keyEnd - keyStart == length && text.regionMatches(keyStart, key, 0, length)) {
+                return 4 * i;
+            }
+        }
+        return -1;
+    }
+
+    private int[] index() throws JSONException {
+        int[] found = new int[32];
+        String[] escaped = null;
+        int count = 0;
+
+        int pos = skipWhitespace(text, start + 1);
+        while (text.charAt(pos) != '}') {
+            if (text.charAt(pos) != '"') {
+                throw new JSONException("Expected a key at " + pos);
+            }
+            int keyEnd = skipValue(text, pos);
+            if (text.lastIndexOf('\\', keyEnd - 2) > pos) {
+                if (escaped == null || escaped.length <= count) {
+                    String[] grown = new String[Math.max(16, 2 * count + 1)];
+                    if (escaped != null) {
+                        System.arraycopy(escaped, 0, grown, 0, escaped.length);
+                    }
+                    escaped = grown;
+                }
+                escaped[count] = (String) new JSONTokener(text.substring(pos, keyEnd)).nextValue();
+            }
+            int colon = skipWhitespace(text, keyEnd);
+            if (text.charAt(colon) != ':') {
+                throw new JSONException("Expected a ':' after a key at " + colon);
+            }
+            int valueStart = skipWhitespace(text, colon + 1);
+            int valueEnd = skipValue(text, valueStart);
+
+            if (found.length < 4 * (count + 1)) {
+                int[] grown = new int[2 * found.length];
+                System.arraycopy(found, 0, grown, 0, found.length);
+                found = grown;
+            }
+            found[4 * count] = pos + 1;
+            found[4 * count + 1] = keyEnd - 1;
+            found[4 * count + 2] = valueStart;
+            found[4 * count + 3] = valueEnd;
+            count++;
+
+            pos = skipWhitespace(text, valueEnd);
+            if (text.charAt(pos) == ',') {
+                pos = skipWhitespace(text, pos + 1);
+            } else if (text.charAt(pos) != '}') {
+                throw new JSONException("Expected a ',' or '}' at " + pos);
+            }
+        }
+        int[] fields = new int[4 * count];
+        System.arraycopy(found, 0, fields, 0, fields.length);
+        this.escapedKeys = escaped;
+        this.fields = fields;
+        return fields;
+    }
+
+    private static int skipWhitespace(String text, int pos) {
+        while (pos < text.length() && text.charAt(pos) <= ' ') {
+            pos++;
+        }
+        return pos;
+    }
+
+    // Returns the index just past the value starting at `pos`, without decoding it.
+    static int skipValue(String text, int pos) throws JSONException {
+        int length = text.length();
+        if (pos >= length) {
+            throw new JSONException("Unexpected end of JSON");
+        }
+        char c = text.charAt(pos);
+        if (c == '"') {
+            return skipString(text, pos);
+        }
+        if (c == '{' || c == '[') {
+            int depth = 0;
+            while (pos < length) {
+                c = text.charAt(pos);
+                if (c == '"') {
+                    pos = skipString(text, pos);
+                    continue;
+                }
+                if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    if (--depth == 0) {
+                        return pos + 1;
+                    }
+                }
+                pos++;
+            }
+            throw new JSONException("Unterminated object or array");
+        }
+        int from = pos;
+        while (pos < length && ",}] \t\r\n".indexOf(text.charAt(pos)) < 0) {
+            pos++;
+        }
+        if (pos == from) {
+            throw new JSONException("Expected a value at " + pos);
+        }
+        return pos;
+    }
+
+    private static int skipString(String text, int pos) throws JSONException {
+        int length = text.length();
+        pos++;
+        while (pos < length) {
+            char c = text.charAt(pos);
+            if (c == '\\') {
+                pos += 2;
+            } else if (c == '"') {
+                return pos + 1;
+            } else {
+                pos++;
+            }
+        }
+        throw new JSONException("Unterminated string");
+    }
+}
@@ -0,0 +1,5 @@
+package com.github.masiuchi.mtdataapi;
+
+public interface ListRequest {
+    public void list(Parameter options, Callback callback);
+}
@@ -0,0 +1,216 @@
+package com.github.masiuchi.mtdataapi;
+
+import okhttp3.Call;
+import okhttp3.EventListener;
+import okhttp3.Handshake;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.Proxy;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Feeds a MetricsListener and a Tracer. OkHttp's event listener times the network phases of each call; the outermost
+// interceptor marks the start and wraps the response body, so the end is reported once the body has been read,
+// including for calls that never reach the network (coalesced, cached or rejected).
+class MetricsCollector implements Interceptor, EventListener.Factory {
+    private static final long MAX_CAPTURED_BYTES = 64 * 1024;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    // Either may be null.
+    private final MetricsListener listener;
+    private final Tracer tracer;
+    private final ConcurrentHashMap<Call, Timings> pending = new ConcurrentHashMap<Call, Timings>();
+
+    MetricsCollector(MetricsListener listener, Tracer tracer) {
+        this.listener = listener;
+        this.tracer = tracer;
+    }
+
+    public EventListener create(Call call) {
+        Timings timings = new Timings();
+        pending.put(call, timings);
+        return timings;
+    }
+
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        Timings timings = pending.remove(chain.call());
+        if (timings == null) {
+            timings = new Timings();
+        }
+        Object tag = request.tag();
+        timings.route = tag instanceof Route ? (Route) tag : null;
+        timings.method = request.method();
+        timings.start = System.nanoTime();
+        if (listener != null) {
+            listener.onCallStart(timings.route);
+        }
+        if (tracer != null) {
+            Trace trace = Trace.of(timings.route, request);
+            trace.capture(tracer.onStart(trace));
+            timings.trace = trace;
+        }
+
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException | RuntimeException e) {
+            timings.end(0, true, 0, null);
+            throw e;
+        }
+        return response.newBuilder()
+                .body(new CountingBody(response.body(), timings, response.code()))
+                .build();
+    }
+
+    // Event callbacks of one call arrive on one thread at a time, but not always the thread that reads the body.
+    private class Timings extends EventListener {
+        private volatile Route route;
+        private volatile String method;
+        private volatile long start;
+        private volatile Trace trace;
+
+        private volatile long dnsStart;
+        private volatile long dns = -1;
+        private volatile long connectStart;
+        private volatile long connect = -1;
+        private volatile long tlsStart;
+        private volatile long tls = -1;
+        private volatile long requestStart;
+        private volatile long ttfb = -1;
+        private volatile long requestBytes;
+        private volatile int attempts;
+        private final AtomicBoolean ended = new AtomicBoolean();
+
+        public void dnsStart(Call call, String domainName) {
+            dnsStart = System.nanoTime();
+        }
+
+        public void dnsEnd(Call call, String domainName, List<InetAddress> addresses) {
+            dns = Math.max(0, dns) + System.nanoTime() - dnsStart;
+        }
+
+        public void connectStart(Call call, InetSocketAddress address, Proxy proxy) {
+            connectStart = System.nanoTime();
+        }
+
+        public void connectEnd(Call call, InetSocketAddress address, Proxy proxy, Protocol protocol) {
+            connect = Math.max(0, connect) + System.nanoTime() - connectStart;
+        }
+
+        public void connectFailed(Call call, InetSocketAddress address, Proxy proxy, Protocol protocol, IOException e) {
+            connect = Math.max(0, connect) + System.nanoTime() - connectStart;
+        }
+
+        public void secureConnectStart(Call call) {
+            tlsStart = System.nanoTime();
+        }
+
+        public void secureConnectEnd(Call call, Handshake handshake) {
+            tls = Math.max(0, tls) + System.nanoTime() - tlsStart;
+        }
+
+        public void requestHeadersStart(Call call) {
+            requestStart = System.nanoTime();
+            attempts++;
+        }
+
+        public void requestBodyEnd(Call call, long byteCount) {
+            requestBytes += byteCount;
+        }
+
+        public void responseHeadersEnd(Call call, Response response) {
+            ttfb = System.nanoTime() - requestStart;
+        }
+
+        public void callFailed(Call call, IOException e) {
+            pending.remove(call);
+        }
+
+        boolean capturing() {
+            return trace != null && trace.capture();
+        }
+
+        void end(int code, boolean failed, long responseBytes, Buffer captured) {
+            if (!ended.compareAndSet(false, true)) {
+                return;
+            }
+            CallMetrics metrics = new CallMetrics(route, method, code, failed, dns, connect, tls, ttfb,
+                    System.nanoTime() - start, requestBytes, responseBytes, Math.max(0, attempts - 1));
+            if (listener != null) {
+                listener.onCallEnd(metrics);
+            }
+            if (trace != null) {
+                if (captured != null) {
+                    trace.responseBody(captured.readString(UTF_8));
+                }
+                tracer.onEnd(trace, metrics);
+            }
+        }
+    }
+
+    // Counts the bytes handed to DataAPI and reports the call when the body is exhausted or closed.
+    private static class CountingBody extends ResponseBody {
+        private final ResponseBody body;
+        private final BufferedSource source;
+
+        CountingBody(ResponseBody body, final Timings timings, final int code) {
+            this.body = body;
+            final Buffer captured = timings.capturing() ? new Buffer() : null;
+            this.source = Okio.buffer(new ForwardingSource(body.source()) {
+                private long bytes = 0;
+
+                public long read(Buffer sink, long byteCount) throws IOException {
+                    long read;
+                    try {
+                        read = super.read(sink, byteCount);
+                    } catch (IOException e) {
+                        timings.end(code, true, bytes, captured);
+                        throw e;
+                    }
+                    if (read == -1) {
+                        timings.end(code, false, bytes, captured);
+                        return read;
+                    }
+                    if (captured != null && captured.size() < MAX_CAPTURED_BYTES) {
+                        long length = Math.min(read, MAX_CAPTURED_BYTES - captured.size());
+                        sink.copyTo(captured, sink.size() - read, length);
+                    }
+                    bytes += read;
+                    return read;
+                }
+
+                public void close() throws IOException {
+                    timings.end(code, false, bytes, captured);
+                    super.close();
+                }
+            });
+        }
+
+        public MediaType contentType() {
+            return body.contentType();
+        }
+
+        public long contentLength() {
+            return body.contentLength();
+        }
+
+        public BufferedSource source() {
+            return source;
+        }
+    }
+}
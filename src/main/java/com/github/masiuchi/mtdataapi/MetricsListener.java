@@ -0,0 +1,10 @@
+package com.github.masiuchi.mtdataapi;
+
+// Receives one start and one end event per HTTP call made by a DataAPI; token refreshes and replays are calls of their own.
+// Both run on the calling or dispatcher thread, so implementations must be thread-safe and quick.
+public interface MetricsListener {
+    public void onCallStart(Route route);
+
+    // Fired once the response body has been consumed or closed, or when the call failed.
+    public void onCallEnd(CallMetrics metrics);
+}
@@ -0,0 +1,90 @@
+package com.github.masiuchi.mtdataapi;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Typed, read-only view of a resource in a response. Fields are decoded from the response text only when read,
+// so reading `id` and `modifiedDate` of a list item does not build its author, categories or custom fields.
+// Getters return null for absent fields; anything without a typed getter is available through getString() and get().
+public abstract class Model {
+    final LazyJSON json;
+
+    Model(LazyJSON json) {
+        this.json = json;
+    }
+
+    // Creates models of one kind, e.g. Entry.TYPE; passed to ModelCallback and ModelListCallback.
+    public abstract static class Type<T extends Model> {
+        abstract T create(LazyJSON json);
+
+        List<T> list(List<LazyJSON> objects) {
+            List<T> models = new ArrayList<T>(objects.size());
+            for (LazyJSON object : objects) {
+                models.add(create(object));
+            }
+            return models;
+        }
+    }
+
+    public String getID() {
+        return json.getString("id");
+    }
+
+    public boolean has(String field) {
+        return json.has(field);
+    }
+
+    // Strings and numbers as text.
+    public String getString(String field) {
+        return json.getString(field);
+    }
+
+    public long getLong(String field, long defaultValue) {
+        return json.getLong(field, defaultValue);
+    }
+
+    // The value as org.json returns it: JSONObject, JSONArray, String, Number, Boolean or JSONObject.NULL.
+    public Object get(String field) {
+        return json.get(field);
+    }
+
+    public <T extends Model> T get(String field, Type<T> type) {
+        LazyJSON object = json.getObject(field);
+        return object != null ? type.create(object) : null;
+    }
+
+    public <T extends Model> List<T> getList(String field, Type<T> type) {
+        return type.list(json.getObjects(field));
+    }
+
+    // The ID inside a nested object such as "blog": {"id": 1}.
+    String getNestedID(String field) {
+        LazyJSON object = json.getObject(field);
+        return object != null ? object.getString("id") : null;
+    }
+
+    List<String> getStrings(String field) {
+        Object value = json.get(field);
+        if (!(value instanceof JSONArray)) {
+            return Collections.emptyList();
+        }
+        JSONArray array = (JSONArray) value;
+        List<String> strings = new ArrayList<String>(array.length());
+        for (int i = 0; i < array.length(); i++) {
+            strings.add(array.optString(i));
+        }
+        return strings;
+    }
+
+    public JSONObject toJSONObject() {
+        return json.toJSONObject();
+    }
+
+    public String toString() {
+        return json.toString();
+    }
+}
@@ -0,0 +1,18 @@
+package com.github.masiuchi.mtdataapi;
+
+import org.json.JSONObject;
+
+// Receives a single resource as a typed view, e.g. new ModelCallback<Entry>(Entry.TYPE) for getEntry.
+public abstract class ModelCallback<T extends Model> extends ActionCallback {
+    private final Model.Type<T> type;
+
+    public ModelCallback(Model.Type<T> type) {
+        this.type = type;
+    }
+
+    public final void onSuccess(JSONObject response) {
+        onSuccess(type.create(LazyJSON.of(response)));
+    }
+
+    public abstract void onSuccess(T item);
+}
@@ -0,0 +1,27 @@
+package com.github.masiuchi.mtdataapi;
+
+import org.json.JSONObject;
+
+import java.util.List;
+
+// Receives list items as typed views decoded straight from the response text, e.g.
+// new ModelListCallback<Entry>(Entry.TYPE) for listEntries. An item costs little more than its place in the text
+// until its fields are read.
+public abstract class ModelListCallback<T extends Model> implements Callback {
+    private final Model.Type<T> type;
+
+    public ModelListCallback(Model.Type<T> type) {
+        this.type = type;
+    }
+
+    // Used when the response was already parsed, e.g. by a wrapping callback.
+    public final void onSuccess(JSONObject response) {
+        onSuccess(LazyJSON.of(response));
+    }
+
+    void onSuccess(LazyJSON response) {
+        onSuccess(type.list(response.getObjects("items")), (int) response.getLong("totalResults", 0));
+    }
+
+    public abstract void onSuccess(List<T> items, int totalResults);
+}
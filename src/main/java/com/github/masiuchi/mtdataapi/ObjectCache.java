@@ -0,0 +1,210 @@
+package com.github.masiuchi.mtdataapi;
+
+import okhttp3.Request;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Bounded, TTL-based cache of single-resource GET responses, keyed by resource path.
+// Each path keeps one body per query string and credentials, so `fields` projections and users never mix.
+// maxEntries bounds the number of bodies across all paths; the least recently used path gives up its oldest body first.
+public class ObjectCache {
+    private final int maxEntries;
+    private final long ttlNanos;
+
+    private final LinkedHashMap<String, LinkedHashMap<String, Cached>> entries;
+    private int size = 0;
+
+    // Invalidations are stamped with a clock and remembered per path ("/path" alone, "/path/" for its descendants),
+    // so a write only drops in-flight puts for the paths it touched. Forgotten stamps raise `floor` instead.
+    private final LinkedHashMap<String, Long> invalidated;
+    private long clock = 0;
+    private long floor = 0;
+
+    private long hitCount = 0;
+    private long missCount = 0;
+    private long evictionCount = 0;
+    private long invalidationCount = 0;
+
+    private static class Cached {
+        final String body;
+        final long expiresAt;
+
+        Cached(String body, long expiresAt) {
+            this.body = body;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    public ObjectCache(int maxEntries, long ttl, TimeUnit unit) {
+        if (maxEntries <= 0) {
+            throw new IllegalArgumentException("maxEntries must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.ttlNanos = unit.toNanos(ttl);
+        this.entries = new LinkedHashMap<String, LinkedHashMap<String, Cached>>(16, 0.75f, true);
+        this.invalidated = new LinkedHashMap<String, Long>(16, 0.75f, false) {
+            protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+                if (size() > ObjectCache.this.maxEntries) {
+                    floor = Math.max(floor, eldest.getValue());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    static String path(Request request) {
+        return request.url().encodedPath();
+    }
+
+    static String variant(Request request) {
+        String query = request.url().encodedQuery();
+        String auth = request.header("X-MT-Authorization");
+        String basic = request.header("Authorization");
+        return (query != null ? query : "") + "\n" + (auth != null ? auth : "") + "\n" + (basic != null ? basic : "");
+    }
+
+    synchronized String get(String path, String variant) {
+        Map<String, Cached> variants = entries.get(path);
+        Cached entry = variants != null ? variants.get(variant) : null;
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        if (System.nanoTime() - entry.expiresAt >= 0) {
+            variants.remove(variant);
+            size--;
+            if (variants.isEmpty()) {
+                entries.remove(path);
+            }
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return entry.body;
+    }
+
+    synchronized long epoch() {
+        return clock;
+    }
+
+    // Drops the value if its path was invalidated after `startEpoch`, so a GET racing a write cannot store stale data.
+    synchronized void put(String path, String variant, String body, long startEpoch) {
+        if (invalidatedSince(path, startEpoch)) {
+            return;
+        }
+        LinkedHashMap<String, Cached> variants = entries.get(path);
+        if (variants == null) {
+            variants = new LinkedHashMap<String, Cached>(4, 0.75f, true);
+            entries.put(path, variants);
+        }
+        if (variants.put(variant, new Cached(body, System.nanoTime() + ttlNanos)) == null) {
+            size++;
+        }
+        trim();
+    }
+
+    private boolean invalidatedSince(String path, long startEpoch) {
+        if (startEpoch < floor || stampedAfter(path, startEpoch)) {
+            return true;
+        }
+        for (int i = path.lastIndexOf('/'); i >= 0; i = path.lastIndexOf('/', i - 1)) {
+            if (stampedAfter(path.substring(0, i + 1), startEpoch)) {
+                return true;
+            }
+            if (i == 0) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    private boolean stampedAfter(String key, long startEpoch) {
+        Long stamp = invalidated.get(key);
+        return stamp != null && stamp > startEpoch;
+    }
+
+    private void trim() {
+        while (size > maxEntries) {
+            Iterator<LinkedHashMap<String, Cached>> paths = entries.values().iterator();
+            LinkedHashMap<String, Cached> eldest = paths.next();
+            Iterator<String> variants = eldest.keySet().iterator();
+            variants.next();
+            variants.remove();
+            if (eldest.isEmpty()) {
+                paths.remove();
+            }
+            size--;
+            evictionCount++;
+        }
+    }
+
+    public synchronized void invalidate(String path, boolean descendants) {
+        clock++;
+        stamp(path);
+        if (remove(path)) {
+            invalidationCount++;
+        }
+        if (!descendants) {
+            return;
+        }
+        String prefix = path.endsWith("/") ? path : path + "/";
+        stamp(prefix);
+        Iterator<Map.Entry<String, LinkedHashMap<String, Cached>>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, LinkedHashMap<String, Cached>> entry = it.next();
+            if (entry.getKey().startsWith(prefix)) {
+                size -= entry.getValue().size();
+                it.remove();
+                invalidationCount++;
+            }
+        }
+    }
+
+    private void stamp(String key) {
+        // Re-inserted so the map's eldest entry is always the oldest stamp.
+        invalidated.remove(key);
+        invalidated.put(key, clock);
+    }
+
+    private boolean remove(String path) {
+        Map<String, Cached> variants = entries.remove(path);
+        if (variants == null) {
+            return false;
+        }
+        size -= variants.size();
+        return true;
+    }
+
+    public synchronized void clear() {
+        clock++;
+        floor = clock;
+        invalidated.clear();
+        entries.clear();
+        size = 0;
+    }
+
+    // The number of cached bodies, counting every variant of every path.
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized long hitCount() {
+        return hitCount;
+    }
+
+    public synchronized long missCount() {
+        return missCount;
+    }
+
+    public synchronized long evictionCount() {
+        return evictionCount;
+    }
+
+    public synchronized long invalidationCount() {
+        return invalidationCount;
+    }
+}
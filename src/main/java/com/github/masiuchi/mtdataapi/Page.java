@@ -0,0 +1,18 @@
+package com.github.masiuchi.mtdataapi;
+
+// Pages have the fields of entries, but are filed in a folder instead of categories.
+public class Page extends Entry {
+    public static final Type<Page> TYPE = new Type<Page>() {
+        Page create(LazyJSON json) {
+            return new Page(json);
+        }
+    };
+
+    Page(LazyJSON json) {
+        super(json);
+    }
+
+    public Folder getFolder() {
+        return get("folder", Folder.TYPE);
+    }
+}
@@ -0,0 +1,13 @@
+package com.github.masiuchi.mtdataapi;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+public abstract class PageCallback {
+    public abstract void onPage(int offset, JSONArray items, int totalResults);
+
+    public void onComplete(int totalResults) {
+    }
+
+    public abstract void onFailure(JSONObject error);
+}
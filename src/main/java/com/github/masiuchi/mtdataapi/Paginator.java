@@ -0,0 +1,183 @@
+package com.github.masiuchi.mtdataapi;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.NoSuchElementException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+
+// Iterates over every item of a list endpoint, keeping up to `prefetch` pages in flight ahead of the consumer.
+public class Paginator implements Iterable<JSONObject> {
+    private final DataAPI api;
+    private final ListRequest request;
+    private final Parameter options;
+    private final int limit;
+    private final int prefetch;
+
+    public Paginator(DataAPI api, ListRequest request, Parameter options, int limit, int prefetch) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        this.api = api;
+        this.request = request;
+        this.options = options;
+        this.limit = limit;
+        this.prefetch = Math.max(prefetch, 0);
+    }
+
+    public Iterator<JSONObject> iterator() {
+        return new PageIterator();
+    }
+
+    static class Page implements Callback {
+        final int offset;
+        private final BlockingQueue<Page> completions;
+        private final CountDownLatch done = new CountDownLatch(1);
+        private JSONArray items;
+        private int totalResults;
+        private JSONObject error;
+
+        Page(int offset) {
+            this(offset, null);
+        }
+
+        Page(int offset, BlockingQueue<Page> completions) {
+            this.offset = offset;
+            this.completions = completions;
+        }
+
+        public void onSuccess(JSONObject response) {
+            items = response.optJSONArray("items");
+            if (items == null) {
+                items = new JSONArray();
+            }
+            totalResults = response.optInt("totalResults", 0);
+            complete();
+        }
+
+        public void onFailure(JSONObject error) {
+            this.error = error;
+            complete();
+        }
+
+        private void complete() {
+            done.countDown();
+            if (completions != null) {
+                completions.add(this);
+            }
+        }
+
+        JSONArray items() {
+            await();
+            return items;
+        }
+
+        int totalResults() {
+            await();
+            return totalResults;
+        }
+
+        private void await() {
+            try {
+                done.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DataAPIException(DataAPI.ERROR_JSON);
+            }
+            if (error != null) {
+                throw new DataAPIException(error);
+            }
+        }
+    }
+
+    static void fetch(DataAPI api, final ListRequest request, Parameter options, final Page page, int limit) {
+        final Parameter params = new Parameter();
+        if (options != null) {
+            params.putAll(options);
+        }
+        params.put("offset", page.offset);
+        params.put("limit", limit);
+
+        try {
+            api.submit(new Runnable() {
+                public void run() {
+                    request.list(params, page);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            page.onFailure(DataAPI.ERROR_JSON);
+        }
+    }
+
+    private class PageIterator implements Iterator<JSONObject> {
+        private final LinkedList<Page> pending = new LinkedList<Page>();
+        private int stride = limit;
+        private int nextOffset = 0;
+        private boolean first = true;
+        private boolean exhausted = false;
+        private JSONArray items = new JSONArray();
+        private int index = 0;
+
+        public boolean hasNext() {
+            while (index >= items.length()) {
+                if (exhausted) {
+                    return false;
+                }
+                nextPage();
+            }
+            return true;
+        }
+
+        public JSONObject next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return items.getJSONObject(index++);
+        }
+
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        private void nextPage() {
+            if (pending.isEmpty()) {
+                request();
+            }
+            Page page = pending.removeFirst();
+
+            items = page.items();
+            index = 0;
+            int totalResults = page.totalResults();
+
+            if (first) {
+                // The server may cap `limit`; step by what it actually returned.
+                first = false;
+                if (items.length() > 0 && items.length() < stride) {
+                    stride = items.length();
+                }
+                nextOffset = page.offset + items.length();
+            }
+
+            if (items.length() == 0 || page.offset + items.length() >= totalResults) {
+                exhausted = true;
+                pending.clear();
+                return;
+            }
+
+            while (pending.size() < prefetch && nextOffset < totalResults) {
+                request();
+            }
+        }
+
+        private void request() {
+            Page page = new Page(nextOffset);
+            nextOffset += stride;
+            pending.addLast(page);
+            fetch(api, request, options, page, stride);
+        }
+    }
+}
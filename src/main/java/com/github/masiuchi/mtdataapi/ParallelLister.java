@@ -0,0 +1,109 @@
+package com.github.masiuchi.mtdataapi;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.TreeMap;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+// Reads the first page of a list endpoint, then fetches every remaining page with up to `concurrency` requests in flight.
+public class ParallelLister {
+    private final DataAPI api;
+    private final ListRequest request;
+    private final Parameter options;
+    private final int limit;
+    private final int concurrency;
+
+    public ParallelLister(DataAPI api, ListRequest request, Parameter options, int limit, int concurrency) {
+        if (limit <= 0 || concurrency <= 0) {
+            throw new IllegalArgumentException("limit and concurrency must be positive");
+        }
+        this.api = api;
+        this.request = request;
+        this.options = options;
+        this.limit = limit;
+        this.concurrency = concurrency;
+    }
+
+    // Delivers pages on the calling thread, in offset order when `ordered`, otherwise as they arrive.
+    public void each(boolean ordered, PageCallback callback) {
+        try {
+            run(ordered, callback);
+        } catch (DataAPIException e) {
+            callback.onFailure(e.error);
+        }
+    }
+
+    // Returns every item in offset order, or throws DataAPIException with the error of the first page that failed.
+    public JSONArray collect() {
+        final JSONArray all = new JSONArray();
+        each(true, new PageCallback() {
+            public void onPage(int offset, JSONArray items, int totalResults) {
+                for (int i = 0; i < items.length(); i++) {
+                    all.put(items.get(i));
+                }
+            }
+
+            public void onFailure(JSONObject error) {
+                throw new DataAPIException(error);
+            }
+        });
+        return all;
+    }
+
+    private void run(boolean ordered, PageCallback callback) {
+        Paginator.Page first = new Paginator.Page(0);
+        Paginator.fetch(api, request, options, first, limit);
+
+        JSONArray firstItems = first.items();
+        int totalResults = first.totalResults();
+        callback.onPage(0, firstItems, totalResults);
+
+        if (firstItems.length() == 0 || firstItems.length() >= totalResults) {
+            callback.onComplete(totalResults);
+            return;
+        }
+
+        // The server may cap `limit`; step by what it actually returned.
+        int stride = Math.min(limit, firstItems.length());
+
+        BlockingQueue<Paginator.Page> completions = new LinkedBlockingQueue<Paginator.Page>();
+        TreeMap<Integer, Paginator.Page> ready = new TreeMap<Integer, Paginator.Page>();
+        int nextOffset = firstItems.length();
+        int deliverOffset = nextOffset;
+        int inFlight = 0;
+
+        while (nextOffset < totalResults || inFlight > 0) {
+            while (inFlight < concurrency && nextOffset < totalResults) {
+                Paginator.fetch(api, request, options, new Paginator.Page(nextOffset, completions), stride);
+                nextOffset += stride;
+                inFlight++;
+            }
+
+            Paginator.Page page;
+            try {
+                page = completions.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new DataAPIException(DataAPI.ERROR_JSON);
+            }
+            inFlight--;
+
+            JSONArray items = page.items();
+            if (!ordered) {
+                callback.onPage(page.offset, items, totalResults);
+                continue;
+            }
+
+            ready.put(page.offset, page);
+            while (!ready.isEmpty() && ready.firstKey() == deliverOffset) {
+                Paginator.Page next = ready.remove(deliverOffset);
+                callback.onPage(next.offset, next.items(), totalResults);
+                deliverOffset += stride;
+            }
+        }
+
+        callback.onComplete(totalResults);
+    }
+}
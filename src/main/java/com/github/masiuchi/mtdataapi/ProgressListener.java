@@ -0,0 +1,6 @@
+package com.github.masiuchi.mtdataapi;
+
+public interface ProgressListener {
+    // `contentLength` is -1 when the total size is not known in advance.
+    public void onProgress(long bytesWritten, long contentLength);
+}
@@ -0,0 +1,139 @@
+package com.github.masiuchi.mtdataapi;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// The `fields` parameter as a checked value: options.put("fields", projection) sends only these fields,
+// and DataAPI.Builder.projection() sends them on every list and get of the family that does not set its own.
+// Field names are validated against the family's resource when known; use unchecked() for plugin-added fields.
+public final class Projection {
+    private static final Map<String, Set<String>> SCHEMAS = new HashMap<String, Set<String>>();
+    static {
+        String[] entry = {"id", "class", "title", "body", "more", "excerpt", "keywords", "status", "date",
+                "createdDate", "modifiedDate", "unpublishedDate", "basename", "permalink", "author", "blog",
+                "assets", "tags", "customFields", "format", "allowComments", "allowTrackbacks", "comments",
+                "commentCount", "trackbacks", "trackbackCount", "pingsSentUrl", "updatable"};
+        schema("entries", entry, "categories");
+        schema("pages", entry, "folder");
+
+        String[] category = {"id", "class", "label", "basename", "description", "parent", "path", "archiveLink",
+                "blog", "createdBy", "createdDate", "modifiedBy", "modifiedDate", "customFields",
+                "allowTrackbacks", "pingUrls", "updatable"};
+        schema("categories", category);
+        schema("folders", category);
+
+        schema("assets", new String[]{"id", "class", "label", "filename", "fileExtension", "url", "mimeType",
+                "description", "parent", "blog", "tags", "meta", "customFields", "createdBy", "createdDate",
+                "modifiedBy", "modifiedDate", "updatable"});
+        schema("comments", new String[]{"id", "body", "status", "date", "author", "entry", "blog", "parent",
+                "replies", "link", "updatable"});
+    }
+
+    // Getters whose names do not follow from their field, such as Entry.getSiteID() reading "blog".
+    private static final Map<String, String> GETTER_FIELDS = new HashMap<String, String>();
+    static {
+        GETTER_FIELDS.put("ID", "id");
+        GETTER_FIELDS.put("SiteID", "blog");
+        GETTER_FIELDS.put("EntryID", "entry");
+        GETTER_FIELDS.put("ParentID", "parent");
+        GETTER_FIELDS.put("URL", "url");
+        GETTER_FIELDS.put("UserpicURL", "userpicUrl");
+    }
+
+    // null when unchecked.
+    public final String family;
+    public final List<String> fields;
+    private final String value;
+
+    private Projection(String family, Set<String> fields) {
+        if (fields.isEmpty()) {
+            throw new IllegalArgumentException("A projection needs at least one field");
+        }
+        this.family = family;
+        this.fields = Collections.unmodifiableList(new ArrayList<String>(fields));
+
+        StringBuilder builder = new StringBuilder();
+        for (String field : fields) {
+            if (builder.length() > 0) {
+                builder.append(',');
+            }
+            builder.append(field);
+        }
+        this.value = builder.toString();
+    }
+
+    private static void schema(String family, String[] fields, String... extra) {
+        Set<String> schema = new HashSet<String>(Arrays.asList(fields));
+        schema.addAll(Arrays.asList(extra));
+        SCHEMAS.put(family, schema);
+    }
+
+    // e.g. Projection.of("entries", "id", "modifiedDate"); `family` is a route family such as Routes.ENTRIES.family.
+    public static Projection of(String family, String... fields) {
+        Set<String> set = new LinkedHashSet<String>(Arrays.asList(fields));
+        Set<String> schema = SCHEMAS.get(family);
+        if (schema != null) {
+            for (String field : set) {
+                if (!schema.contains(field)) {
+                    throw new IllegalArgumentException("Unknown field \"" + field + "\" for " + family);
+                }
+            }
+        }
+        return new Projection(family, set);
+    }
+
+    // Derives the fields from the no-argument getters of `accessors`, typically an interface that declares the
+    // Entry (or Asset, ...) getters a job reads: getID() gives "id", getModifiedDate() "modifiedDate",
+    // getSiteID() "blog" and getAuthor() "author".
+    public static Projection of(String family, Class<?> accessors) {
+        Set<String> fields = new LinkedHashSet<String>();
+        for (Method method : accessors.getMethods()) {
+            if (method.getDeclaringClass() == Object.class || method.getParameterTypes().length > 0
+                    || Modifier.isStatic(method.getModifiers())) {
+                continue;
+            }
+            String field = field(method.getName());
+            if (field != null) {
+                fields.add(field);
+            }
+        }
+        return of(family, fields.toArray(new String[fields.size()]));
+    }
+
+    // Sends the fields as given, on any route.
+    public static Projection unchecked(String... fields) {
+        return new Projection(null, new LinkedHashSet<String>(Arrays.asList(fields)));
+    }
+
+    static String field(String getter) {
+        String name;
+        if (getter.startsWith("get") && getter.length() > 3) {
+            name = getter.substring(3);
+        } else if (getter.startsWith("is") && getter.length() > 2) {
+            name = getter.substring(2);
+        } else {
+            return null;
+        }
+        String mapped = GETTER_FIELDS.get(name);
+        return mapped != null ? mapped : Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    void check(Route route) {
+        if (family != null && route != null && !family.equals(route.family)) {
+            throw new IllegalArgumentException("Projection for " + family + " used on " + route);
+        }
+    }
+
+    public String toString() {
+        return value;
+    }
+}
@@ -0,0 +1,24 @@
+package com.github.masiuchi.mtdataapi;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+// Events of a PublishJob. They are delivered one at a time, from the job's worker threads (or the calling thread
+// for a blocking publishEntries), without holding the job's lock, so they may call publishedCount() or cancel().
+public abstract class PublishCallback {
+    // `published` counts the IDs that are no longer in any chunk's restIds.
+    public void onProgress(int published, int total) {
+    }
+
+    // Every phase response, as returned by the server.
+    public void onPhase(JSONObject response) {
+    }
+
+    // The final response of every chunk, in chunk order.
+    public abstract void onComplete(JSONArray responses);
+
+    public void onCancelled() {
+    }
+
+    public abstract void onFailure(JSONObject error);
+}
@@ -0,0 +1,316 @@
+package com.github.masiuchi.mtdataapi;
+
+import okhttp3.HttpUrl;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+// Republishes entries in chunks whose `ids` parameter stays short enough for a URL, running up to
+// `concurrency` chunks at once. Each chunk follows X-MT-Next-Phase-URL in a loop until its restIds are empty.
+public class PublishJob {
+    private final DataAPI api;
+    private final Parameter options;
+    private final int concurrency;
+    private final long pollIntervalMillis;
+    private final int total;
+
+    private final List<Chunk> chunks = new ArrayList<Chunk>();
+    private final ConcurrentLinkedQueue<Chunk> pending = new ConcurrentLinkedQueue<Chunk>();
+    private final CountDownLatch done = new CountDownLatch(1);
+    // Serializes progress events without holding the job's monitor, which publishedCount() and friends take.
+    private final Object delivery = new Object();
+
+    private PublishCallback callback;
+    private int workers;
+    private int published;
+    private JSONObject error;
+    private volatile boolean stopped = false;
+    private volatile boolean cancelled = false;
+
+    static class Phase {
+        final JSONObject response;
+        final HttpUrl nextURL;
+
+        Phase(JSONObject response, HttpUrl nextURL) {
+            this.response = response;
+            this.nextURL = nextURL;
+        }
+    }
+
+    private static class Chunk {
+        final int index;
+        final String ids;
+        final int size;
+        int remaining;
+        JSONObject response;
+
+        Chunk(int index, String ids, int size) {
+            this.index = index;
+            this.ids = ids;
+            this.size = size;
+            this.remaining = size;
+        }
+    }
+
+    private PublishJob(Builder builder) {
+        api = builder.api;
+        options = builder.options;
+        concurrency = builder.concurrency;
+        pollIntervalMillis = builder.pollIntervalMillis;
+        total = builder.entryIDs.length;
+
+        StringBuilder ids = new StringBuilder();
+        int size = 0;
+        for (String entryID : builder.entryIDs) {
+            if (size > 0 && ids.length() + 1 + entryID.length() > builder.maxIDsLength) {
+                chunks.add(new Chunk(chunks.size(), ids.toString(), size));
+                ids.setLength(0);
+                size = 0;
+            }
+            if (size > 0) {
+                ids.append(",");
+            }
+            ids.append(entryID);
+            size++;
+        }
+        if (size > 0) {
+            chunks.add(new Chunk(chunks.size(), ids.toString(), size));
+        }
+    }
+
+    public static class Builder {
+        private final DataAPI api;
+        private final String[] entryIDs;
+        private Parameter options = null;
+        private int concurrency = 4;
+        private long pollIntervalMillis = 0;
+        private int maxIDsLength = 1500;
+
+        public Builder(DataAPI api, String[] entryIDs) {
+            this.api = api;
+            this.entryIDs = entryIDs;
+        }
+
+        // Sent with the first phase of every chunk, alongside its `ids`.
+        public Builder options(Parameter options) {
+            this.options = options;
+            return this;
+        }
+
+        public Builder concurrency(int concurrency) {
+            if (concurrency <= 0) {
+                throw new IllegalArgumentException("concurrency must be positive");
+            }
+            this.concurrency = concurrency;
+            return this;
+        }
+
+        // Pause between the phases of a chunk, to spread the publishing load on the server.
+        public Builder pollInterval(long interval, TimeUnit unit) {
+            this.pollIntervalMillis = unit.toMillis(interval);
+            return this;
+        }
+
+        // Upper bound on the length of a chunk's comma-separated `ids`.
+        public Builder maxIDsLength(int maxIDsLength) {
+            if (maxIDsLength <= 0) {
+                throw new IllegalArgumentException("maxIDsLength must be positive");
+            }
+            this.maxIDsLength = maxIDsLength;
+            return this;
+        }
+
+        public PublishJob build() {
+            return new PublishJob(this);
+        }
+    }
+
+    public int chunkCount() {
+        return chunks.size();
+    }
+
+    public synchronized int publishedCount() {
+        return published;
+    }
+
+    public int totalCount() {
+        return total;
+    }
+
+    public void start(PublishCallback callback) {
+        int count = Math.min(concurrency, chunks.size());
+        begin(callback, count + 1);
+
+        // The extra worker count held here keeps the job from finishing before every worker has been submitted.
+        try {
+            for (int i = 0; i < count; i++) {
+                submitWorker();
+            }
+        } finally {
+            finishWorker();
+        }
+    }
+
+    private void submitWorker() {
+        try {
+            api.submit(new Runnable() {
+                public void run() {
+                    work();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            fail(DataAPI.ERROR_JSON);
+            finishWorker();
+        }
+    }
+
+    private synchronized void begin(PublishCallback callback, int workers) {
+        if (this.callback != null) {
+            throw new IllegalStateException("The job has already been started");
+        }
+        this.callback = callback;
+        pending.addAll(chunks);
+        this.workers = workers;
+    }
+
+    // Starts the job and waits for it to end.
+    public void run(PublishCallback callback) throws InterruptedException {
+        start(callback);
+        await();
+    }
+
+    // Publishes the chunks one after another on the calling thread, like DataAPI's blocking calls.
+    void runInline(PublishCallback callback) {
+        begin(callback, 1);
+        work();
+    }
+
+    public void await() throws InterruptedException {
+        done.await();
+    }
+
+    public boolean await(long timeout, TimeUnit unit) throws InterruptedException {
+        return done.await(timeout, unit);
+    }
+
+    // Stops starting phases; phases already sent run to completion on the server.
+    public void cancel() {
+        cancelled = true;
+        stopped = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    private void work() {
+        try {
+            Chunk chunk;
+            while (!stopped && (chunk = pending.poll()) != null) {
+                publish(chunk);
+            }
+        } catch (DataAPIException e) {
+            fail(e.error);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            cancel();
+        } finally {
+            finishWorker();
+        }
+    }
+
+    private void publish(Chunk chunk) throws InterruptedException {
+        Parameter params = new Parameter();
+        if (options != null) {
+            params.putAll(options);
+        }
+        params.put("ids", chunk.ids);
+
+        HttpUrl url = null;
+        while (!stopped) {
+            Phase phase = api.publishPhase(url, params);
+            JSONObject response = phase.response;
+            boolean complete = response.optString("status").equals("Complete")
+                    || (response.has("restIds") && response.optString("restIds").equals(""));
+            progress(chunk, response, complete);
+            if (complete) {
+                return;
+            }
+
+            if (phase.nextURL == null) {
+                throw new DataAPIException(DataAPI.ERROR_JSON);
+            }
+            // The next phase URL carries its own query (ids, startTime, ...), so it is followed as given.
+            url = phase.nextURL;
+            params = null;
+
+            if (pollIntervalMillis > 0) {
+                Thread.sleep(pollIntervalMillis);
+            }
+        }
+    }
+
+    private void progress(Chunk chunk, JSONObject response, boolean complete) {
+        synchronized (delivery) {
+            int publishedNow;
+            synchronized (this) {
+                int remaining = chunk.remaining;
+                if (complete) {
+                    remaining = 0;
+                    chunk.response = response;
+                } else if (response.has("restIds")) {
+                    remaining = Math.min(remaining, response.optString("restIds").split(",").length);
+                }
+                published += chunk.remaining - remaining;
+                chunk.remaining = remaining;
+                publishedNow = published;
+            }
+
+            callback.onPhase(response);
+            callback.onProgress(publishedNow, total);
+        }
+    }
+
+    private synchronized void fail(JSONObject error) {
+        if (this.error == null) {
+            this.error = error;
+        }
+        stopped = true;
+    }
+
+    // The last worker to finish reports the outcome, after every other worker has delivered its last event.
+    private void finishWorker() {
+        JSONObject failure;
+        JSONArray responses = null;
+        synchronized (this) {
+            if (--workers > 0) {
+                return;
+            }
+            failure = error;
+            if (failure == null && !cancelled) {
+                responses = new JSONArray();
+                for (Chunk chunk : chunks) {
+                    responses.put(chunk.response);
+                }
+            }
+        }
+
+        try {
+            if (failure != null) {
+                callback.onFailure(failure);
+            } else if (responses == null) {
+                callback.onCancelled();
+            } else {
+                callback.onComplete(responses);
+            }
+        } finally {
+            done.countDown();
+        }
+    }
+}
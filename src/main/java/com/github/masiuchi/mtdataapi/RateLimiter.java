@@ -0,0 +1,408 @@
+package com.github.masiuchi.mtdataapi;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Caps the request rate (token bucket) and the calls in flight (adaptive AIMD limit) per route family.
+// One instance throttles one MT server: share it between DataAPI instances that use the same APIBaseURL
+// and give instances that talk to other servers their own. Blocking callers over the limit wait on their own thread;
+// async DataAPI calls must not hold an OkHttp dispatcher thread that long, so they are deferred (see Throttled).
+public class RateLimiter implements Interceptor {
+    private final Limits defaults;
+    private final Map<String, Limits> familyLimits;
+    private final long maxWaitNanos;
+
+    private final ConcurrentHashMap<String, Family> families = new ConcurrentHashMap<String, Family>();
+    private final AtomicInteger queueDepth = new AtomicInteger();
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong deferredCount = new AtomicLong();
+
+    private RateLimiter(Builder builder) {
+        defaults = builder.defaults;
+        familyLimits = new HashMap<String, Limits>(builder.familyLimits);
+        maxWaitNanos = builder.maxWaitNanos;
+    }
+
+    private static class Limits {
+        double ratePerSecond = 0;
+        int burst = 1;
+        int initialConcurrency = 0;
+        int minConcurrency = 1;
+        int maxConcurrency = 0;
+        long latencyTargetNanos = TimeUnit.SECONDS.toNanos(2);
+        double backoffRatio = 0.7;
+
+        Limits copy() {
+            Limits copy = new Limits();
+            copy.ratePerSecond = ratePerSecond;
+            copy.burst = burst;
+            copy.initialConcurrency = initialConcurrency;
+            copy.minConcurrency = minConcurrency;
+            copy.maxConcurrency = maxConcurrency;
+            copy.latencyTargetNanos = latencyTargetNanos;
+            copy.backoffRatio = backoffRatio;
+            return copy;
+        }
+    }
+
+    public static class Builder {
+        private final Limits defaults = new Limits();
+        private final Map<String, Limits> familyLimits = new HashMap<String, Limits>();
+        private long maxWaitNanos = TimeUnit.SECONDS.toNanos(30);
+
+        // Applies to every family without its own setting. A rate of 0 means unlimited.
+        public Builder rate(double permitsPerSecond, int burst) {
+            setRate(defaults, permitsPerSecond, burst);
+            return this;
+        }
+
+        public Builder rate(String family, double permitsPerSecond, int burst) {
+            setRate(limits(family), permitsPerSecond, burst);
+            return this;
+        }
+
+        // Starts at `initial` calls in flight and adapts between `min` and `max`. A max of 0 means unlimited.
+        public Builder concurrency(int initial, int min, int max) {
+            setConcurrency(defaults, initial, min, max);
+            return this;
+        }
+
+        public Builder concurrency(String family, int initial, int min, int max) {
+            setConcurrency(limits(family), initial, min, max);
+            return this;
+        }
+
+        // Calls slower than `target` shrink the concurrency limit like failures do.
+        public Builder latencyTarget(long target, TimeUnit unit) {
+            defaults.latencyTargetNanos = unit.toNanos(target);
+            return this;
+        }
+
+        public Builder latencyTarget(String family, long target, TimeUnit unit) {
+            limits(family).latencyTargetNanos = unit.toNanos(target);
+            return this;
+        }
+
+        // A call that cannot get a token and a slot within this time fails with an IOException.
+        public Builder maxWait(long maxWait, TimeUnit unit) {
+            this.maxWaitNanos = unit.toNanos(maxWait);
+            return this;
+        }
+
+        public RateLimiter build() {
+            return new RateLimiter(this);
+        }
+
+        // A family's limits start from the defaults set so far.
+        private Limits limits(String family) {
+            Limits limits = familyLimits.get(family);
+            if (limits == null) {
+                limits = defaults.copy();
+                familyLimits.put(family, limits);
+            }
+            return limits;
+        }
+
+        private static void setRate(Limits limits, double permitsPerSecond, int burst) {
+            if (permitsPerSecond < 0 || burst <= 0) {
+                throw new IllegalArgumentException("rate must not be negative and burst must be positive");
+            }
+            limits.ratePerSecond = permitsPerSecond;
+            limits.burst = burst;
+        }
+
+        private static void setConcurrency(Limits limits, int initial, int min, int max) {
+            if (max > 0 && (min <= 0 || min > initial || initial > max)) {
+                throw new IllegalArgumentException("concurrency must satisfy 0 < min <= initial <= max");
+            }
+            limits.initialConcurrency = initial;
+            limits.minConcurrency = min;
+            limits.maxConcurrency = max;
+        }
+    }
+
+    private static class Family {
+        final TokenBucket bucket;
+        final ConcurrencyLimit concurrency;
+
+        Family(Limits limits) {
+            bucket = limits.ratePerSecond > 0 ? new TokenBucket(limits.ratePerSecond, limits.burst, System.nanoTime()) : null;
+            concurrency = limits.maxConcurrency > 0
+                    ? new ConcurrencyLimit(limits.initialConcurrency, limits.minConcurrency, limits.maxConcurrency,
+                    limits.latencyTargetNanos, limits.backoffRatio)
+                    : null;
+        }
+    }
+
+    // Tagged on a request by a CircuitBreaker above, which leaves the time the call waited here out of its latency.
+    static final class WaitTime {
+        private final AtomicLong nanos = new AtomicLong();
+
+        long nanos() {
+            return nanos.get();
+        }
+    }
+
+    // Thrown for an async call instead of waiting: DataAPI enqueues `next` again once its token is due or, when it
+    // needs a slot, once one has been released, and the call comes back here until its maxWait has run out.
+    static final class Throttled extends RetryInterceptor.Deferred {
+        private final ConcurrencyLimit concurrency;
+        private final long deadline;
+
+        Throttled(Request next, long delayMillis, ConcurrencyLimit concurrency, long deadline) {
+            super(next, delayMillis, concurrency != null ? "Waiting for a slot" : "Waiting " + delayMillis + " ms for a token");
+            this.concurrency = concurrency;
+            this.deadline = deadline;
+        }
+
+        void resume(Runnable task) {
+            if (concurrency == null) {
+                super.resume(task);
+                return;
+            }
+            concurrency.whenReleased(task, deadline);
+        }
+    }
+
+    // Carried by a deferred call: when its maxWait runs out, and whether it holds a token from an earlier pass.
+    static final class Queued {
+        final long deadline;
+        private final AtomicBoolean token;
+
+        Queued(long deadline, boolean token) {
+            this.deadline = deadline;
+            this.token = new AtomicBoolean(token);
+        }
+
+        // Coalesced followers enqueue the same deferred request again, but only one of them gets the token.
+        boolean claimToken() {
+            return token.compareAndSet(true, false);
+        }
+    }
+
+    public static class RejectedException extends IOException {
+        public final String family;
+
+        RejectedException(String family) {
+            super("Rate limit wait exceeded for " + family);
+            this.family = family;
+        }
+    }
+
+    // Current adaptive concurrency limit of a family, or -1 when it is not limited.
+    public int concurrencyLimit(String family) {
+        Family f = families.get(family);
+        return f != null && f.concurrency != null ? f.concurrency.limit() : -1;
+    }
+
+    public int inFlight(String family) {
+        Family f = families.get(family);
+        return f != null && f.concurrency != null ? f.concurrency.inFlight() : 0;
+    }
+
+    public double availableTokens(String family) {
+        Family f = families.get(family);
+        return f != null && f.bucket != null ? f.bucket.available(System.nanoTime()) : -1;
+    }
+
+    // Blocking calls currently waiting for a token or a slot, across all families.
+    public int queueDepth() {
+        return queueDepth.get();
+    }
+
+    public long rejectedCount() {
+        return rejectedCount.get();
+    }
+
+    // Times an async call was deferred instead of waiting.
+    public long deferredCount() {
+        return deferredCount.get();
+    }
+
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        String name = CircuitBreaker.family(request);
+        Family family = family(name);
+        if (request.tag(RetryInterceptor.Attempt.class) != null) {
+            admit(request, name, family);
+        } else {
+            await(request, name, family);
+        }
+
+        if (family.concurrency == null) {
+            return chain.proceed(request);
+        }
+
+        long start = System.nanoTime();
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException | RuntimeException e) {
+            long now = System.nanoTime();
+            family.concurrency.release(now - start, true, now);
+            throw e;
+        }
+
+        // The slot is held until the body has been read or closed, so large lists and downloads count while they stream.
+        // The latency sample stops at the headers, so slow consumers do not shrink the limit.
+        Slot slot = new Slot(family.concurrency, System.nanoTime() - start, response.code() == 429 || response.code() >= 500);
+        if (response.body() == null) {
+            slot.release();
+            return response;
+        }
+        return response.newBuilder()
+                .body(new SlotBody(response.body(), slot))
+                .build();
+    }
+
+    private void await(Request request, String name, Family family) throws IOException {
+        long waitStart = System.nanoTime();
+        queueDepth.incrementAndGet();
+        try {
+            long deadline = waitStart + maxWaitNanos;
+            if (family.bucket != null) {
+                long wait = family.bucket.reserve(System.nanoTime(), maxWaitNanos);
+                if (wait < 0) {
+                    throw reject(name);
+                }
+                TimeUnit.NANOSECONDS.sleep(wait);
+            }
+            if (family.concurrency != null && !family.concurrency.acquire(deadline - System.nanoTime())) {
+                throw reject(name);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        } finally {
+            queueDepth.decrementAndGet();
+            WaitTime waited = request.tag(WaitTime.class);
+            if (waited != null) {
+                waited.nanos.addAndGet(System.nanoTime() - waitStart);
+            }
+        }
+    }
+
+    // Async calls take a token and a slot only if they are available now, and are deferred otherwise.
+    private void admit(Request request, String name, Family family) throws IOException {
+        long now = System.nanoTime();
+        Queued queued = request.tag(Queued.class);
+        long deadline = queued != null ? queued.deadline : now + maxWaitNanos;
+        if (family.bucket != null && (queued == null || !queued.claimToken())) {
+            long wait = family.bucket.reserve(now, deadline - now);
+            if (wait < 0) {
+                throw reject(name);
+            }
+            if (wait > 0) {
+                throw defer(request, (wait + 999999) / 1000000, null, deadline);
+            }
+        }
+        if (family.concurrency != null && !family.concurrency.tryAcquire()) {
+            if (now >= deadline) {
+                throw reject(name);
+            }
+            throw defer(request, 0, family.concurrency, deadline);
+        }
+    }
+
+    private static class Slot {
+        private final ConcurrencyLimit concurrency;
+        private final long latencyNanos;
+        private final boolean dropped;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        Slot(ConcurrencyLimit concurrency, long latencyNanos, boolean dropped) {
+            this.concurrency = concurrency;
+            this.latencyNanos = latencyNanos;
+            this.dropped = dropped;
+        }
+
+        void release() {
+            if (released.compareAndSet(false, true)) {
+                concurrency.release(latencyNanos, dropped, System.nanoTime());
+            }
+        }
+    }
+
+    private static class SlotBody extends ResponseBody {
+        private final ResponseBody body;
+        private final BufferedSource source;
+
+        SlotBody(ResponseBody body, final Slot slot) {
+            this.body = body;
+            this.source = Okio.buffer(new ForwardingSource(body.source()) {
+                public long read(Buffer sink, long byteCount) throws IOException {
+                    long read;
+                    try {
+                        read = super.read(sink, byteCount);
+                    } catch (IOException e) {
+                        slot.release();
+                        throw e;
+                    }
+                    if (read == -1) {
+                        slot.release();
+                    }
+                    return read;
+                }
+
+                public void close() throws IOException {
+                    slot.release();
+                    super.close();
+                }
+            });
+        }
+
+        public MediaType contentType() {
+            return body.contentType();
+        }
+
+        public long contentLength() {
+            return body.contentLength();
+        }
+
+        public BufferedSource source() {
+            return source;
+        }
+    }
+
+    // The deferred call keeps the token it took on this pass.
+    private Throttled defer(Request request, long delayMillis, ConcurrencyLimit concurrency, long deadline) {
+        deferredCount.incrementAndGet();
+        Request next = request.newBuilder().tag(Queued.class, new Queued(deadline, true)).build();
+        return new Throttled(next, delayMillis, concurrency, deadline);
+    }
+
+    private RejectedException reject(String family) {
+        rejectedCount.incrementAndGet();
+        return new RejectedException(family);
+    }
+
+    private Family family(String name) {
+        Family family = families.get(name);
+        if (family == null) {
+            Limits limits = familyLimits.get(name);
+            Family created = new Family(limits != null ? limits : defaults);
+            family = families.putIfAbsent(name, created);
+            if (family == null) {
+                family = created;
+            }
+        }
+        return family;
+    }
+}
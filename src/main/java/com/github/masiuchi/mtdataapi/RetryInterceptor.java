@@ -0,0 +1,187 @@
+package com.github.masiuchi.mtdataapi;
+
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Replays idempotent calls that failed with a connection error or a retryable status, following a RetryPolicy.
+// Blocking calls sleep through the backoff on the calling thread. Calls tagged with an Attempt (async ones) must not
+// hold an OkHttp dispatcher thread that long: they make one attempt and throw Deferred, and DataAPI enqueues the
+// next attempt once the delay has passed.
+class RetryInterceptor implements Interceptor {
+    private static ScheduledExecutorService scheduler;
+
+    private final RetryPolicy policy;
+    private final AtomicLong retryCount = new AtomicLong();
+    private final AtomicLong retriedCallCount = new AtomicLong();
+    private final AtomicLong exhaustedCount = new AtomicLong();
+
+    RetryInterceptor(RetryPolicy policy) {
+        this.policy = policy;
+    }
+
+    // How many retries an async call has already used.
+    static final class Attempt {
+        final int retry;
+
+        Attempt(int retry) {
+            this.retry = retry;
+        }
+    }
+
+    // Thrown instead of sleeping; `next` is the request to enqueue after `delayMillis`.
+    static class Deferred extends IOException {
+        final Request next;
+        final long delayMillis;
+
+        Deferred(Request next, long delayMillis) {
+            this(next, delayMillis, "Retrying in " + delayMillis + " ms");
+        }
+
+        Deferred(Request next, long delayMillis, String message) {
+            super(message);
+            this.next = next;
+            this.delayMillis = delayMillis;
+        }
+
+        // Runs `task`, which enqueues `next`, once the call may go ahead.
+        void resume(Runnable task) {
+            schedule(task, delayMillis);
+        }
+    }
+
+    // Also marks the call as async for a RateLimiter, which defers it the same way instead of waiting.
+    static Request deferring(Request request) {
+        return request.tag(Attempt.class) != null ? request : request.newBuilder().tag(Attempt.class, new Attempt(0)).build();
+    }
+
+    // The single daemon thread only hands requests back to OkHttp's dispatcher, so it is never busy for long.
+    static synchronized void schedule(Runnable task, long delayMillis) {
+        if (scheduler == null) {
+            scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+                public Thread newThread(Runnable r) {
+                    Thread thread = new Thread(r, "mt-data-api-retry");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        scheduler.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    long retryCount() {
+        return retryCount.get();
+    }
+
+    long retriedCallCount() {
+        return retriedCallCount.get();
+    }
+
+    long exhaustedCount() {
+        return exhaustedCount.get();
+    }
+
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        if (policy.maxRetries == 0 || !policy.isRetryable(request)) {
+            return chain.proceed(request);
+        }
+        Attempt attempt = request.tag(Attempt.class);
+        if (attempt != null) {
+            return attemptOnce(chain, request, attempt.retry);
+        }
+
+        for (int retry = 0; ; retry++) {
+            Response response;
+            try {
+                response = chain.proceed(request);
+            } catch (IOException e) {
+                if (!isRetryable(e) || !canRetry(retry)) {
+                    throw e;
+                }
+                backoff(retry, policy.delayMillis(retry, null));
+                continue;
+            }
+
+            if (!policy.isRetryable(response) || !canRetry(retry)) {
+                return response;
+            }
+            long delay = policy.delayMillis(retry, response);
+            if (delay < 0) {
+                return response;
+            }
+            response.close();
+            backoff(retry, delay);
+        }
+    }
+
+    private Response attemptOnce(Chain chain, Request request, int retry) throws IOException {
+        Response response;
+        try {
+            response = chain.proceed(request);
+        } catch (IOException e) {
+            if (!isRetryable(e) || !canRetry(retry)) {
+                throw e;
+            }
+            throw defer(request, retry, policy.delayMillis(retry, null));
+        }
+
+        if (!policy.isRetryable(response) || !canRetry(retry)) {
+            return response;
+        }
+        long delay = policy.delayMillis(retry, response);
+        if (delay < 0) {
+            return response;
+        }
+        response.close();
+        throw defer(request, retry, delay);
+    }
+
+    private Deferred defer(Request request, int retry, long delayMillis) {
+        count(retry);
+        return new Deferred(request.newBuilder().tag(Attempt.class, new Attempt(retry + 1)).build(), delayMillis);
+    }
+
+    // Timeouts are worth retrying; an interrupted thread is not, and neither is the rate limiter turning a call
+    // away, which retrying would only make wait longer, or deferring it, which is not a failure.
+    private boolean isRetryable(IOException e) {
+        if (!policy.retryOnConnectionFailure || e instanceof RateLimiter.RejectedException || e instanceof Deferred) {
+            return false;
+        }
+        return !(e instanceof InterruptedIOException) || e instanceof SocketTimeoutException;
+    }
+
+    private boolean canRetry(int retry) {
+        if (retry < policy.maxRetries) {
+            return true;
+        }
+        exhaustedCount.incrementAndGet();
+        return false;
+    }
+
+    private void count(int retry) {
+        retryCount.incrementAndGet();
+        if (retry == 0) {
+            retriedCallCount.incrementAndGet();
+        }
+    }
+
+    private void backoff(int retry, long delayMillis) throws InterruptedIOException {
+        count(retry);
+        try {
+            Thread.sleep(delayMillis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.github.masiuchi.mtdataapi;
+
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+// Which calls are retried and how long to wait between attempts. GET, PUT and DELETE are retried;
+// POST only for the routes passed to retryPost(), since MT may have applied a POST whose response was lost.
+public final class RetryPolicy {
+    public final int maxRetries;
+    public final long baseDelayMillis;
+    public final long maxDelayMillis;
+    public final long maxRetryAfterMillis;
+    public final boolean retryOnConnectionFailure;
+    private final Set<Integer> statusCodes;
+    private final Set<Route> safePostRoutes;
+
+    private RetryPolicy(Builder builder) {
+        maxRetries = builder.maxRetries;
+        baseDelayMillis = builder.baseDelayMillis;
+        maxDelayMillis = builder.maxDelayMillis;
+        maxRetryAfterMillis = builder.maxRetryAfterMillis;
+        retryOnConnectionFailure = builder.retryOnConnectionFailure;
+        statusCodes = Collections.unmodifiableSet(new HashSet<Integer>(builder.statusCodes));
+        safePostRoutes = Collections.unmodifiableSet(new HashSet<Route>(builder.safePostRoutes));
+    }
+
+    public static class Builder {
+        private int maxRetries = 3;
+        private long baseDelayMillis = 200;
+        private long maxDelayMillis = TimeUnit.SECONDS.toMillis(10);
+        private long maxRetryAfterMillis = TimeUnit.SECONDS.toMillis(30);
+        private boolean retryOnConnectionFailure = true;
+        private Set<Integer> statusCodes = new HashSet<Integer>(Arrays.asList(429, 502, 503, 504));
+        private Set<Route> safePostRoutes = new HashSet<Route>();
+
+        // The per-call budget: attempts after the first one.
+        public Builder maxRetries(int maxRetries) {
+            if (maxRetries < 0) {
+                throw new IllegalArgumentException("maxRetries must not be negative");
+            }
+            this.maxRetries = maxRetries;
+            return this;
+        }
+
+        // Attempt n waits a random time up to min(maxDelay, baseDelay * 2^n) ("full jitter").
+        public Builder backoff(long baseDelay, long maxDelay, TimeUnit unit) {
+            this.baseDelayMillis = unit.toMillis(baseDelay);
+            this.maxDelayMillis = unit.toMillis(maxDelay);
+            return this;
+        }
+
+        // A Retry-After longer than this ends the retries and the response is returned as is.
+        public Builder maxRetryAfter(long maxRetryAfter, TimeUnit unit) {
+            this.maxRetryAfterMillis = unit.toMillis(maxRetryAfter);
+            return this;
+        }
+
+        public Builder retryOnConnectionFailure(boolean retryOnConnectionFailure) {
+            this.retryOnConnectionFailure = retryOnConnectionFailure;
+            return this;
+        }
+
+        public Builder statusCodes(Integer... statusCodes) {
+            this.statusCodes = new HashSet<Integer>(Arrays.asList(statusCodes));
+            return this;
+        }
+
+        // Marks POST routes that are safe to send more than once, e.g. Routes.TOKEN.
+        public Builder retryPost(Route... routes) {
+            this.safePostRoutes.addAll(Arrays.asList(routes));
+            return this;
+        }
+
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+    }
+
+    boolean isRetryable(Request request) {
+        String method = request.method();
+        if (method.equals("GET") || method.equals("HEAD") || method.equals("PUT") || method.equals("DELETE")) {
+            return true;
+        }
+        return method.equals("POST") && safePostRoutes.contains(request.tag());
+    }
+
+    boolean isRetryable(Response response) {
+        return statusCodes.contains(response.code());
+    }
+
+    // Returns the delay before retry number `retry` (starting at 0), or -1 when the server asks for more than maxRetryAfter.
+    long delayMillis(int retry, Response response) {
+        String retryAfter = response != null ? response.header("Retry-After") : null;
+        if (retryAfter != null) {
+            long millis = parseRetryAfter(retryAfter);
+            if (millis >= 0) {
+                return millis <= maxRetryAfterMillis ? millis : -1;
+            }
+        }
+
+        long ceiling = baseDelayMillis << Math.min(retry, 30);
+        if (ceiling <= 0 || ceiling > maxDelayMillis) {
+            ceiling = maxDelayMillis;
+        }
+        return ceiling > 0 ? ThreadLocalRandom.current().nextLong(ceiling + 1) : 0;
+    }
+
+    // Retry-After is either delta-seconds or an HTTP-date.
+    static long parseRetryAfter(String value) {
+        try {
+            return Math.max(0, TimeUnit.SECONDS.toMillis(Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            // Fall through to the date form.
+        }
+        SimpleDateFormat format = new SimpleDateFormat("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US);
+        format.setTimeZone(TimeZone.getTimeZone("GMT"));
+        try {
+            Date date = format.parse(value.trim());
+            return Math.max(0, date.getTime() - System.currentTimeMillis());
+        } catch (ParseException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.github.masiuchi.mtdataapi;
+
+import okhttp3.HttpUrl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// A path template such as "/sites/{site_id}/entries/{entry_id}", split into segments once
+// so that building a URL only appends the variable parts to an already parsed base.
+public final class Route {
+    // Groups routes that hit the same kind of resource, e.g. "entries" for lists, single entries and previews.
+    public final String family;
+    public final String template;
+
+    // True for lists and single resources of the family ("/sites/{site_id}/entries", ".../entries/{entry_id}"),
+    // false for actions on them such as ".../entries/export"; default projections apply only to the former.
+    final boolean returnsResources;
+
+    // Literal path segments (plain ASCII, added without re-encoding); null marks a placeholder.
+    private final String[] segments;
+    private final int placeholders;
+
+    Route(String family, String template) {
+        this.family = family;
+        this.template = template;
+
+        List<String> parsed = new ArrayList<String>();
+        int count = 0;
+        for (String segment : template.split("/")) {
+            if (segment.isEmpty()) {
+                continue;
+            }
+            if (segment.startsWith("{") && segment.endsWith("}")) {
+                parsed.add(null);
+                count++;
+            } else {
+                parsed.add(segment);
+            }
+        }
+        this.segments = parsed.toArray(new String[parsed.size()]);
+        this.placeholders = count;
+        this.returnsResources = segments.length > 0
+                && (segments[segments.length - 1] == null || segments[segments.length - 1].equals(family));
+    }
+
+    // Returns null when `base` is null, i.e. when the configured APIBaseURL is not a valid URL.
+    public HttpUrl url(HttpUrl base, String... args) {
+        if (args.length != placeholders) {
+            throw new IllegalArgumentException(template + " takes " + placeholders + " arguments");
+        }
+        if (base == null) {
+            return null;
+        }
+
+        HttpUrl.Builder builder = base.newBuilder();
+        int arg = 0;
+        for (String segment : segments) {
+            if (segment != null) {
+                builder.addEncodedPathSegment(segment);
+            } else {
+                builder.addPathSegment(String.valueOf(args[arg++]));
+            }
+        }
+        return builder.build();
+    }
+
+    public String toString() {
+        return template;
+    }
+}
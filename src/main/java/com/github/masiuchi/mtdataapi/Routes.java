@@ -0,0 +1,152 @@
+package com.github.masiuchi.mtdataapi;
+
+// Every path the SDK calls, relative to APIBaseURL + "/" + endpointVersion (except VERSION, which is relative to APIBaseURL).
+public final class Routes {
+    private Routes() {
+    }
+
+    //MARK: - System
+    public static final Route ENDPOINTS = new Route("endpoints", "/endpoints");
+    public static final Route AUTHENTICATION = new Route("authentication", "/authentication");
+    public static final Route TOKEN = new Route("authentication", "/token");
+    public static final Route VERSION = new Route("version", "/version");
+
+    //MARK: - Search
+    public static final Route SEARCH = new Route("search", "/search");
+
+    //MARK: - Site
+    public static final Route SITES = new Route("sites", "/sites");
+    public static final Route SITE = new Route("sites", "/sites/{site_id}");
+    public static final Route SITE_CHILDREN = new Route("sites", "/sites/{site_id}/children");
+    public static final Route USER_SITES = new Route("sites", "/users/{user_id}/sites");
+
+    //MARK: - Entry
+    public static final Route ENTRIES = new Route("entries", "/sites/{site_id}/entries");
+    public static final Route ENTRY = new Route("entries", "/sites/{site_id}/entries/{entry_id}");
+    public static final Route ENTRIES_FOR_OBJECT = new Route("entries", "/sites/{site_id}/{object}/{object_id}/entries");
+    public static final Route ENTRIES_IMPORT = new Route("entries", "/sites/{site_id}/entries/import");
+    public static final Route ENTRIES_EXPORT = new Route("entries", "/sites/{site_id}/entries/export");
+    public static final Route ENTRIES_PUBLISH = new Route("publish", "/publish/entries");
+    public static final Route ENTRIES_PREVIEW = new Route("entries", "/sites/{site_id}/entries/preview");
+    public static final Route ENTRY_PREVIEW = new Route("entries", "/sites/{site_id}/entries/{entry_id}/preview");
+
+    //MARK: - Page
+    public static final Route PAGES = new Route("pages", "/sites/{site_id}/pages");
+    public static final Route PAGE = new Route("pages", "/sites/{site_id}/pages/{page_id}");
+    public static final Route PAGES_FOR_OBJECT = new Route("pages", "/sites/{site_id}/{object}/{object_id}/pages");
+    public static final Route PAGES_PREVIEW = new Route("pages", "/sites/{site_id}/pages/preview");
+    public static final Route PAGE_PREVIEW = new Route("pages", "/sites/{site_id}/pages/{page_id}/preview");
+
+    //MARK: - Category
+    public static final Route CATEGORIES = new Route("categories", "/sites/{site_id}/categories");
+    public static final Route CATEGORY = new Route("categories", "/sites/{site_id}/categories/{category_id}");
+    public static final Route CATEGORIES_FOR_ENTRY = new Route("categories", "/sites/{site_id}/entries/{entry_id}/categories");
+    public static final Route CATEGORIES_FOR_RELATION = new Route("categories", "/sites/{site_id}/categories/{category_id}/{relation}");
+    public static final Route CATEGORIES_PERMUTATE = new Route("categories", "/sites/{site_id}/categories/permutate");
+
+    //MARK: - Folder
+    public static final Route FOLDERS = new Route("folders", "/sites/{site_id}/folders");
+    public static final Route FOLDER = new Route("folders", "/sites/{site_id}/folders/{folder_id}");
+    public static final Route FOLDERS_FOR_RELATION = new Route("folders", "/sites/{site_id}/folders/{folder_id}/{relation}");
+    public static final Route FOLDERS_PERMUTATE = new Route("folders", "/sites/{site_id}/folders/permutate");
+
+    //MARK: - Tag
+    public static final Route TAGS = new Route("tags", "/sites/{site_id}/tags");
+    public static final Route TAG = new Route("tags", "/sites/{site_id}/tags/{tag_id}");
+
+    //MARK: - User
+    public static final Route USERS = new Route("users", "/users");
+    public static final Route USER = new Route("users", "/users/{user_id}");
+    public static final Route USER_UNLOCK = new Route("users", "/users/{user_id}/unlock");
+    public static final Route USER_RECOVER_PASSWORD = new Route("users", "/users/{user_id}/recover_password");
+    public static final Route RECOVER_PASSWORD = new Route("users", "/recover_password");
+
+    //MARK: - Asset
+    public static final Route ASSETS = new Route("assets", "/sites/{site_id}/assets");
+    public static final Route ASSET = new Route("assets", "/sites/{site_id}/assets/{asset_id}");
+    public static final Route ASSETS_FOR_OBJECT = new Route("assets", "/sites/{site_id}/{object}/{object_id}/assets");
+    public static final Route ASSET_THUMBNAIL = new Route("assets", "/sites/{site_id}/assets/{asset_id}/thumbnail");
+    public static final Route ASSETS_UPLOAD = new Route("assets", "/assets/upload");
+    public static final Route SITE_ASSETS_UPLOAD = new Route("assets", "/sites/{site_id}/assets/upload");
+
+    //MARK: - Comment
+    public static final Route COMMENTS = new Route("comments", "/sites/{site_id}/comments");
+    public static final Route COMMENT = new Route("comments", "/sites/{site_id}/comments/{comment_id}");
+    public static final Route COMMENTS_FOR_OBJECT = new Route("comments", "/sites/{site_id}/{object}/{object_id}/comments");
+    public static final Route COMMENT_REPLIES = new Route("comments", "/sites/{site_id}/{object}/{object_id}/comments/{comment_id}/replies");
+
+    //MARK: - Trackback
+    public static final Route TRACKBACKS = new Route("trackbacks", "/sites/{site_id}/trackbacks");
+    public static final Route TRACKBACK = new Route("trackbacks", "/sites/{site_id}/trackbacks/{trackback_id}");
+    public static final Route TRACKBACKS_FOR_OBJECT = new Route("trackbacks", "/sites/{site_id}/{object}/{object_id}/trackbacks");
+
+    //MARK: - Field
+    public static final Route FIELDS = new Route("fields", "/sites/{site_id}/fields");
+    public static final Route FIELD = new Route("fields", "/sites/{site_id}/fields/{field_id}");
+
+    //MARK: - Template
+    public static final Route TEMPLATES = new Route("templates", "/sites/{site_id}/templates");
+    public static final Route TEMPLATE = new Route("templates", "/sites/{site_id}/templates/{template_id}");
+    public static final Route TEMPLATE_PUBLISH = new Route("templates", "/sites/{site_id}/templates/{template_id}/publish");
+    public static final Route TEMPLATE_REFRESH = new Route("templates", "/sites/{site_id}/templates/{template_id}/refresh");
+    public static final Route TEMPLATE_CLONE = new Route("templates", "/sites/{site_id}/templates/{template_id}/clone");
+    public static final Route TEMPLATES_REFRESH = new Route("templates", "/sites/{site_id}/refresh_templates");
+
+    //MARK: - Templatemap
+    public static final Route TEMPLATEMAPS = new Route("templatemaps", "/sites/{site_id}/templates/{template_id}/templatemaps");
+    public static final Route TEMPLATEMAP = new Route("templatemaps", "/sites/{site_id}/templates/{template_id}/templatemaps/{templatemap_id}");
+
+    //MARK: - Widget
+    public static final Route WIDGETS = new Route("widgets", "/sites/{site_id}/widgets");
+    public static final Route WIDGET = new Route("widgets", "/sites/{site_id}/widgets/{widget_id}");
+    public static final Route WIDGET_REFRESH = new Route("widgets", "/sites/{site_id}/widgets/{widget_id}/refresh");
+    public static final Route WIDGET_CLONE = new Route("widgets", "/sites/{site_id}/widgets/{widget_id}/clone");
+    public static final Route WIDGETSET_WIDGETS = new Route("widgets", "/sites/{site_id}/widgetsets/{widgetset_id}/widgets");
+    public static final Route WIDGETSET_WIDGET = new Route("widgets", "/sites/{site_id}/widgetsets/{widgetset_id}/widgets/{widget_id}");
+
+    //MARK: - Widgetset
+    public static final Route WIDGETSETS = new Route("widgetsets", "/sites/{site_id}/widgetsets");
+    public static final Route WIDGETSET = new Route("widgetsets", "/sites/{site_id}/widgetsets/{widgetset_id}");
+
+    //MARK: - Theme
+    public static final Route THEMES = new Route("themes", "/themes");
+    public static final Route THEME = new Route("themes", "/themes/{theme_id}");
+    public static final Route SITE_THEME_APPLY = new Route("themes", "/sites/{site_id}/themes/{theme_id}/apply");
+    public static final Route SITE_THEME_EXPORT = new Route("themes", "/sites/{site_id}/export_theme");
+
+    //MARK: - Role
+    public static final Route ROLES = new Route("roles", "/roles");
+    public static final Route ROLE = new Route("roles", "/roles/{role_id}");
+
+    //MARK: - Permission
+    public static final Route PERMISSIONS = new Route("permissions", "/permissions");
+    public static final Route PERMISSIONS_FOR_OBJECT = new Route("permissions", "/{object}/{object_id}/permissions");
+    public static final Route SITE_PERMISSIONS_GRANT = new Route("permissions", "/sites/{site_id}/permissions/grant");
+    public static final Route SITE_PERMISSIONS_REVOKE = new Route("permissions", "/sites/{site_id}/permissions/revoke");
+    public static final Route USER_PERMISSIONS_GRANT = new Route("permissions", "/users/{user_id}/permissions/grant");
+    public static final Route USER_PERMISSIONS_REVOKE = new Route("permissions", "/users/{user_id}/permissions/revoke");
+
+    //MARK: - Log
+    public static final Route LOGS = new Route("logs", "/sites/{site_id}/logs");
+    public static final Route LOG = new Route("logs", "/sites/{site_id}/logs/{log_id}");
+    public static final Route LOGS_EXPORT = new Route("logs", "/sites/{site_id}/logs/export");
+
+    //MARK: - FormattedText
+    public static final Route FORMATTED_TEXTS = new Route("formatted_texts", "/sites/{site_id}/formatted_texts");
+    public static final Route FORMATTED_TEXT = new Route("formatted_texts", "/sites/{site_id}/formatted_texts/{formatted_text_id}");
+
+    //MARK: - Stats
+    public static final Route STATS_PROVIDER = new Route("stats", "/sites/{site_id}/stats/provider");
+    public static final Route STATS = new Route("stats", "/sites/{site_id}/stats/{target}/{object}");
+
+    //MARK: - Backup
+    public static final Route SITE_BACKUP = new Route("backup", "/sites/{site_id}/backup");
+
+    //MARK: - Plugin
+    public static final Route PLUGINS = new Route("plugins", "/plugins");
+    public static final Route PLUGIN = new Route("plugins", "/plugins/{plugin_id}");
+    public static final Route PLUGINS_ENABLE = new Route("plugins", "/plugins/enable");
+    public static final Route PLUGINS_DISABLE = new Route("plugins", "/plugins/disable");
+    public static final Route PLUGIN_ENABLE = new Route("plugins", "/plugins/{plugin_id}/enable");
+    public static final Route PLUGIN_DISABLE = new Route("plugins", "/plugins/{plugin_id}/disable");
+}
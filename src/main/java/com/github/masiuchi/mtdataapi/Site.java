@@ -0,0 +1,25 @@
+package com.github.masiuchi.mtdataapi;
+
+public class Site extends Model {
+    public static final Type<Site> TYPE = new Type<Site>() {
+        Site create(LazyJSON json) {
+            return new Site(json);
+        }
+    };
+
+    Site(LazyJSON json) {
+        super(json);
+    }
+
+    public String getName() {
+        return getString("name");
+    }
+
+    public String getURL() {
+        return getString("url");
+    }
+
+    public String getDescription() {
+        return getString("description");
+    }
+}
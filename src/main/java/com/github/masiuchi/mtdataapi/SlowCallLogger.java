@@ -0,0 +1,155 @@
+package com.github.masiuchi.mtdataapi;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Logs calls slower than a threshold at WARNING and keeps the slowest of them for inspection.
+// A sampled fraction of calls also captures bodies, which are logged when such a call turns out to be slow.
+public class SlowCallLogger implements Tracer {
+    private final long thresholdNanos;
+    private final double bodySampleRate;
+    private final int maxBodyLength;
+    private final int keep;
+    private final Logger logger;
+
+    private final PriorityQueue<SlowCall> worst;
+
+    private SlowCallLogger(Builder builder) {
+        thresholdNanos = builder.thresholdNanos;
+        bodySampleRate = builder.bodySampleRate;
+        maxBodyLength = builder.maxBodyLength;
+        keep = builder.keep;
+        logger = builder.logger;
+        worst = new PriorityQueue<SlowCall>(Math.max(1, keep), FASTEST_FIRST);
+    }
+
+    public static class Builder {
+        private long thresholdNanos = TimeUnit.SECONDS.toNanos(1);
+        private double bodySampleRate = 0;
+        private int maxBodyLength = 2000;
+        private int keep = 20;
+        private Logger logger = Logger.getLogger(SlowCallLogger.class.getName());
+
+        public Builder threshold(long threshold, TimeUnit unit) {
+            this.thresholdNanos = unit.toNanos(threshold);
+            return this;
+        }
+
+        // Fraction of calls (0 to 1) whose bodies are captured, cut to `maxLength` characters when logged.
+        public Builder sampleBodies(double rate, int maxLength) {
+            if (rate < 0 || rate > 1 || maxLength < 0) {
+                throw new IllegalArgumentException("rate must be between 0 and 1");
+            }
+            this.bodySampleRate = rate;
+            this.maxBodyLength = maxLength;
+            return this;
+        }
+
+        // How many of the slowest calls worst() returns.
+        public Builder keep(int keep) {
+            this.keep = keep;
+            return this;
+        }
+
+        public Builder logger(Logger logger) {
+            this.logger = logger;
+            return this;
+        }
+
+        public SlowCallLogger build() {
+            return new SlowCallLogger(this);
+        }
+    }
+
+    public static final class SlowCall {
+        public final Trace trace;
+        public final CallMetrics metrics;
+
+        SlowCall(Trace trace, CallMetrics metrics) {
+            this.trace = trace;
+            this.metrics = metrics;
+        }
+    }
+
+    private static final Comparator<SlowCall> FASTEST_FIRST = new Comparator<SlowCall>() {
+        public int compare(SlowCall a, SlowCall b) {
+            return a.metrics.totalNanos < b.metrics.totalNanos ? -1 : a.metrics.totalNanos == b.metrics.totalNanos ? 0 : 1;
+        }
+    };
+
+    public boolean onStart(Trace trace) {
+        return bodySampleRate > 0 && ThreadLocalRandom.current().nextDouble() < bodySampleRate;
+    }
+
+    public void onEnd(Trace trace, CallMetrics metrics) {
+        if (metrics.totalNanos < thresholdNanos) {
+            return;
+        }
+        SlowCall call = new SlowCall(trace, metrics);
+        synchronized (worst) {
+            if (keep > 0) {
+                worst.add(call);
+                if (worst.size() > keep) {
+                    worst.poll();
+                }
+            }
+        }
+        if (logger.isLoggable(Level.WARNING)) {
+            logger.warning(format(call));
+        }
+    }
+
+    // Slowest first.
+    public List<SlowCall> worst() {
+        List<SlowCall> calls;
+        synchronized (worst) {
+            calls = new ArrayList<SlowCall>(worst);
+        }
+        Collections.sort(calls, Collections.reverseOrder(FASTEST_FIRST));
+        return calls;
+    }
+
+    String format(SlowCall call) {
+        Trace trace = call.trace;
+        CallMetrics metrics = call.metrics;
+        StringBuilder builder = new StringBuilder("Slow call: ")
+                .append(trace.method).append(' ')
+                .append(trace.route != null ? trace.route.template : trace.path)
+                .append(" (").append(trace.path).append(") ")
+                .append(millis(metrics.totalNanos))
+                .append(" [dns ").append(millis(metrics.dnsNanos))
+                .append(", connect ").append(millis(metrics.connectNanos))
+                .append(", tls ").append(millis(metrics.tlsNanos))
+                .append(", ttfb ").append(millis(metrics.ttfbNanos))
+                .append("] status ").append(metrics.failed ? "failed" : String.valueOf(metrics.code))
+                .append(", ").append(metrics.requestBytes).append(" bytes sent, ")
+                .append(metrics.responseBytes).append(" bytes received, ")
+                .append(metrics.retries).append(" retries, parameters ").append(trace.parameters);
+        if (trace.captured()) {
+            String request = trace.requestBody();
+            if (request != null) {
+                builder.append("\n  request: ").append(cut(request));
+            }
+            String response = trace.responseBody();
+            if (response != null) {
+                builder.append("\n  response: ").append(cut(response));
+            }
+        }
+        return builder.toString();
+    }
+
+    private String cut(String body) {
+        return body.length() <= maxBodyLength ? body : body.substring(0, maxBodyLength) + "...";
+    }
+
+    private static String millis(long nanos) {
+        return nanos < 0 ? "-" : TimeUnit.NANOSECONDS.toMillis(nanos) + " ms";
+    }
+}
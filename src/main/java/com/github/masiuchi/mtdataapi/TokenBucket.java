@@ -0,0 +1,35 @@
+package com.github.masiuchi.mtdataapi;
+
+// Tokens refill continuously at `ratePerSecond` up to `burst`. A caller reserves a token ahead of time
+// and sleeps until it is due, so waiting callers are served in arrival order without spinning.
+class TokenBucket {
+    final double ratePerSecond;
+    final int burst;
+
+    private double tokens;
+    private long refilledAt;
+
+    TokenBucket(double ratePerSecond, int burst, long now) {
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.tokens = burst;
+        this.refilledAt = now;
+    }
+
+    // Returns how long the caller must wait for its token, or -1 (taking nothing) if that exceeds `maxWaitNanos`.
+    synchronized long reserve(long now, long maxWaitNanos) {
+        tokens = Math.min(burst, tokens + (now - refilledAt) * ratePerSecond / 1e9);
+        refilledAt = now;
+
+        long wait = tokens >= 1 ? 0 : (long) Math.ceil((1 - tokens) * 1e9 / ratePerSecond);
+        if (wait > maxWaitNanos) {
+            return -1;
+        }
+        tokens -= 1;
+        return wait;
+    }
+
+    synchronized double available(long now) {
+        return Math.min(burst, tokens + (now - refilledAt) * ratePerSecond / 1e9);
+    }
+}
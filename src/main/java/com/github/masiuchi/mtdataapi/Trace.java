@@ -0,0 +1,107 @@
+package com.github.masiuchi.mtdataapi;
+
+import okhttp3.FormBody;
+import okhttp3.HttpUrl;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+// One traced call. Parameters come from the query string and form body, with credentials replaced by "[redacted]".
+public final class Trace {
+    static final String REDACTED = "[redacted]";
+    private static final String[] SECRETS = {"password", "token", "session", "secret"};
+    private static final int MAX_VALUE_LENGTH = 200;
+
+    // null for requests that were not built by DataAPI.
+    public final Route route;
+    public final String method;
+    public final String path;
+    // Values are cut to 200 characters; the full form body is in requestBody() when captured.
+    public final Map<String, String> parameters;
+
+    private final FormBody form;
+    private volatile boolean capture;
+    private volatile String responseBody;
+
+    private Trace(Route route, Request request) {
+        this.route = route;
+        this.method = request.method();
+        this.path = request.url().encodedPath();
+
+        Map<String, String> params = new LinkedHashMap<String, String>();
+        HttpUrl url = request.url();
+        for (int i = 0; i < url.querySize(); i++) {
+            params.put(url.queryParameterName(i), truncate(redact(url.queryParameterName(i), url.queryParameterValue(i))));
+        }
+        RequestBody body = request.body();
+        this.form = body instanceof FormBody ? (FormBody) body : null;
+        if (form != null) {
+            for (int i = 0; i < form.size(); i++) {
+                params.put(form.name(i), truncate(redact(form.name(i), form.value(i))));
+            }
+        }
+        this.parameters = Collections.unmodifiableMap(params);
+    }
+
+    static Trace of(Route route, Request request) {
+        return new Trace(route, request);
+    }
+
+    static boolean isSecret(String name) {
+        String lower = name.toLowerCase(Locale.ROOT);
+        for (String secret : SECRETS) {
+            if (lower.contains(secret)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String redact(String name, String value) {
+        return value == null ? "" : isSecret(name) ? REDACTED : value;
+    }
+
+    private static String truncate(String value) {
+        return value.length() <= MAX_VALUE_LENGTH ? value : value.substring(0, MAX_VALUE_LENGTH) + "...";
+    }
+
+    boolean capture() {
+        return capture;
+    }
+
+    void capture(boolean capture) {
+        this.capture = capture && (route == null || !route.family.equals("authentication"));
+    }
+
+    void responseBody(String responseBody) {
+        this.responseBody = responseBody;
+    }
+
+    public boolean captured() {
+        return capture;
+    }
+
+    // The redacted form fields in full, or null when not captured or not a form post (uploads are never captured).
+    public String requestBody() {
+        if (!capture || form == null) {
+            return null;
+        }
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < form.size(); i++) {
+            if (i > 0) {
+                builder.append('&');
+            }
+            builder.append(form.name(i)).append('=').append(redact(form.name(i), form.value(i)));
+        }
+        return builder.toString();
+    }
+
+    // The start of the response body as read by DataAPI, or null when not captured.
+    public String responseBody() {
+        return responseBody;
+    }
+}
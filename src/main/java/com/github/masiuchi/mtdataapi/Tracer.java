@@ -0,0 +1,10 @@
+package com.github.masiuchi.mtdataapi;
+
+// Sees every call a DataAPI makes, with its parameters; see SlowCallLogger. Runs on the calling or dispatcher thread.
+public interface Tracer {
+    // Return true to capture the bodies of this call (e.g. for a sample of calls); they are then available in onEnd.
+    // Bodies of authentication calls are never captured.
+    public boolean onStart(Trace trace);
+
+    public void onEnd(Trace trace, CallMetrics metrics);
+}
@@ -0,0 +1,123 @@
+package com.github.masiuchi.mtdataapi;
+
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.Buffer;
+import okio.BufferedSink;
+import okio.ForwardingSink;
+import okio.Okio;
+import okio.Source;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// The file part of an upload. Files and streams are copied to the connection in small segments
+// while the request is sent, so heap use does not grow with the size of the upload.
+public final class UploadSource {
+    private static final MediaType OCTET_STREAM = MediaType.parse("application/octet-stream");
+
+    private final RequestBody body;
+    private final ProgressListener listener;
+
+    private UploadSource(RequestBody body, ProgressListener listener) {
+        this.body = body;
+        this.listener = listener;
+    }
+
+    public static UploadSource fromBytes(byte[] data) {
+        return new UploadSource(RequestBody.create(OCTET_STREAM, data), null);
+    }
+
+    public static UploadSource fromFile(File file) {
+        return new UploadSource(RequestBody.create(OCTET_STREAM, file), null);
+    }
+
+    public static UploadSource fromPath(Path path) {
+        return fromFile(path.toFile());
+    }
+
+    // Pass -1 as `length` when it is unknown; the request is then sent with chunked transfer encoding.
+    // The stream can be sent only once, so a request that has to be replayed fails, and it is closed after sending.
+    public static UploadSource fromStream(InputStream in, long length) {
+        return new UploadSource(new StreamBody(in, length), null);
+    }
+
+    public UploadSource withProgress(ProgressListener listener) {
+        return new UploadSource(body, listener);
+    }
+
+    RequestBody requestBody() {
+        return listener != null ? new ProgressBody(body, listener) : body;
+    }
+
+    private static class StreamBody extends RequestBody {
+        private final InputStream in;
+        private final long length;
+        private final AtomicBoolean consumed = new AtomicBoolean();
+
+        StreamBody(InputStream in, long length) {
+            this.in = in;
+            this.length = length;
+        }
+
+        public MediaType contentType() {
+            return OCTET_STREAM;
+        }
+
+        public long contentLength() {
+            return length;
+        }
+
+        public void writeTo(BufferedSink sink) throws IOException {
+            if (!consumed.compareAndSet(false, true)) {
+                throw new IOException("The upload stream has already been sent");
+            }
+            Source source = Okio.source(in);
+            try {
+                if (length >= 0) {
+                    sink.write(source, length);
+                } else {
+                    sink.writeAll(source);
+                }
+            } finally {
+                source.close();
+            }
+        }
+    }
+
+    private static class ProgressBody extends RequestBody {
+        private final RequestBody delegate;
+        private final ProgressListener listener;
+
+        ProgressBody(RequestBody delegate, ProgressListener listener) {
+            this.delegate = delegate;
+            this.listener = listener;
+        }
+
+        public MediaType contentType() {
+            return delegate.contentType();
+        }
+
+        public long contentLength() throws IOException {
+            return delegate.contentLength();
+        }
+
+        public void writeTo(BufferedSink sink) throws IOException {
+            final long contentLength = contentLength();
+            BufferedSink counting = Okio.buffer(new ForwardingSink(sink) {
+                private long bytesWritten = 0;
+
+                public void write(Buffer source, long byteCount) throws IOException {
+                    super.write(source, byteCount);
+                    bytesWritten += byteCount;
+                    listener.onProgress(bytesWritten, contentLength);
+                }
+            });
+            delegate.writeTo(counting);
+            counting.flush();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.github.masiuchi.mtdataapi;
+
+public class User extends Model {
+    public static final Type<User> TYPE = new Type<User>() {
+        User create(LazyJSON json) {
+            return new User(json);
+        }
+    };
+
+    User(LazyJSON json) {
+        super(json);
+    }
+
+    public String getDisplayName() {
+        return getString("displayName");
+    }
+
+    public String getUserpicURL() {
+        return getString("userpicUrl");
+    }
+}
@@ -0,0 +1,102 @@
+package com.github.masiuchi.mtdataapi;
+
+import junit.framework.TestCase;
+import okhttp3.mockwebserver.MockWebServer;
+import org.json.JSONObject;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class AsyncTest extends TestCase {
+    private MTStandIn server;
+
+    protected void setUp() throws Exception {
+        server = new MTStandIn(10).start();
+    }
+
+    protected void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    private static class Outcome extends ActionCallback {
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile JSONObject response;
+        volatile JSONObject error;
+        volatile Thread thread;
+
+        public void onSuccess(JSONObject response) {
+            this.response = response;
+            finish();
+        }
+
+        public void onFailure(JSONObject error) {
+            this.error = error;
+            finish();
+        }
+
+        private void finish() {
+            thread = Thread.currentThread();
+            done.countDown();
+        }
+
+        void await() throws InterruptedException {
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+        }
+    }
+
+    public void testCallsReturnBeforeTheResponse() throws InterruptedException {
+        server.latency(200, 200, TimeUnit.MILLISECONDS);
+        DataAPI api = new DataAPI.Builder().APIBaseURL(server.baseURL()).async(true).build();
+
+        Outcome outcome = new Outcome();
+        long start = System.nanoTime();
+        api.getEntry("1", "3", null, outcome);
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(200));
+        assertEquals(1, outcome.done.getCount());
+
+        outcome.await();
+        assertEquals(3, outcome.response.getInt("id"));
+        assertNotSame(Thread.currentThread(), outcome.thread);
+    }
+
+    public void testErrorResponsesReachOnFailure() throws InterruptedException {
+        DataAPI api = new DataAPI.Builder().APIBaseURL(server.baseURL()).async(true).build();
+
+        Outcome outcome = new Outcome();
+        api.getEntry("1", "99", null, outcome);
+        outcome.await();
+        assertNull(outcome.response);
+        assertSame(DataAPI.ERROR_JSON, outcome.error);
+        assertNotSame(Thread.currentThread(), outcome.thread);
+    }
+
+    public void testConnectionFailuresReachOnFailure() throws Exception {
+        MockWebServer closed = new MockWebServer();
+        closed.start();
+        String baseURL = closed.url("/mt/mt-data-api.cgi").toString();
+        closed.shutdown();
+        DataAPI api = new DataAPI.Builder().APIBaseURL(baseURL).async(true).build();
+
+        Outcome outcome = new Outcome();
+        api.getEntry("1", "1", null, outcome);
+        outcome.await();
+        assertSame(DataAPI.ERROR_JSON, outcome.error);
+        assertNotSame(Thread.currentThread(), outcome.thread);
+    }
+
+    public void testBlockingCallsCompleteOnTheCallersThread() throws Exception {
+        DataAPI api = new DataAPI.Builder().APIBaseURL(server.baseURL()).build();
+
+        Outcome outcome = new Outcome();
+        api.getEntry("1", "4", null, outcome);
+        assertEquals(0, outcome.done.getCount());
+        assertEquals(4, outcome.response.getInt("id"));
+        assertSame(Thread.currentThread(), outcome.thread);
+
+        outcome = new Outcome();
+        api.getEntry("1", "99", null, outcome);
+        assertEquals(0, outcome.done.getCount());
+        assertSame(DataAPI.ERROR_JSON, outcome.error);
+        assertSame(Thread.currentThread(), outcome.thread);
+    }
+}
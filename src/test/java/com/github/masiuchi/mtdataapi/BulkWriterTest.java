@@ -0,0 +1,156 @@
+package com.github.masiuchi.mtdataapi;
+
+import junit.framework.TestCase;
+import org.json.JSONObject;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class BulkWriterTest extends TestCase {
+    public void testBoundsInFlightAndReportsEveryItem() throws InterruptedException {
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger maxInFlight = new AtomicInteger();
+
+        BulkOperation operation = new BulkOperation() {
+            public void apply(Resource resource, ActionCallback callback) {
+                int current = inFlight.incrementAndGet();
+                synchronized (maxInFlight) {
+                    maxInFlight.set(Math.max(maxInFlight.get(), current));
+                }
+                try {
+                    Thread.sleep(2);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                inFlight.decrementAndGet();
+
+                if (resource.get("title").equals("bad")) {
+                    callback.onFailure(DataAPI.ERROR_JSON);
+                } else {
+                    callback.onSuccess(new JSONObject());
+                }
+            }
+        };
+
+        final boolean[] seen = new boolean[100];
+        BulkWriter writer = new DataAPI().bulkWriter(operation, 4, new BulkCallback() {
+            public void onSuccess(int index, Resource resource, JSONObject response) {
+                seen[index] = true;
+            }
+
+            public void onFailure(int index, Resource resource, JSONObject error) {
+                seen[index] = true;
+            }
+        });
+
+        for (int i = 0; i < 100; i++) {
+            Resource resource = new Resource();
+            resource.put("title", i % 10 == 0 ? "bad" : "entry " + i);
+            writer.write(resource);
+            assertTrue(writer.inFlightCount() <= 4);
+        }
+        writer.awaitCompletion();
+
+        assertTrue(maxInFlight.get() <= 4);
+        assertEquals(90, writer.succeededCount());
+        assertEquals(10, writer.failedCount());
+        assertEquals(0, writer.inFlightCount());
+        for (boolean s : seen) {
+            assertTrue(s);
+        }
+    }
+
+    public void testCreatesEntriesAsynchronouslyAgainstTheServer() throws Exception {
+        MTStandIn server = new MTStandIn(10).start();
+        try {
+            server.latency(10, 30, TimeUnit.MILLISECONDS);
+            final DataAPI api = new DataAPI.Builder().APIBaseURL(server.baseURL()).async(true).build();
+            final AtomicInteger inFlight = new AtomicInteger();
+            final AtomicInteger maxInFlight = new AtomicInteger();
+
+            // The call returns at once; the slot is held until the server has answered.
+            BulkOperation operation = new BulkOperation() {
+                public void apply(Resource resource, final ActionCallback callback) {
+                    int current = inFlight.incrementAndGet();
+                    synchronized (maxInFlight) {
+                        maxInFlight.set(Math.max(maxInFlight.get(), current));
+                    }
+                    api.createEntry("1", resource, null, new ActionCallback() {
+                        public void onSuccess(JSONObject response) {
+                            inFlight.decrementAndGet();
+                            callback.onSuccess(response);
+                        }
+
+                        public void onFailure(JSONObject error) {
+                            inFlight.decrementAndGet();
+                            callback.onFailure(error);
+                        }
+                    });
+                }
+            };
+
+            final Set<Integer> ids = Collections.synchronizedSet(new HashSet<Integer>());
+            final boolean[] seen = new boolean[50];
+            BulkWriter writer = api.bulkWriter(operation, 3, new BulkCallback() {
+                public void onSuccess(int index, Resource resource, JSONObject response) {
+                    assertEquals(resource.get("title"), response.getString("title"));
+                    ids.add(response.getInt("id"));
+                    seen[index] = true;
+                }
+
+                public void onFailure(int index, Resource resource, JSONObject error) {
+                    seen[index] = true;
+                }
+            });
+
+            for (int i = 0; i < 50; i++) {
+                Resource resource = new Resource();
+                resource.put("title", "entry " + i);
+                writer.write(resource);
+                assertTrue(writer.inFlightCount() <= 3);
+            }
+            assertTrue(writer.awaitCompletion(10, TimeUnit.SECONDS));
+
+            assertTrue(maxInFlight.get() <= 3);
+            assertEquals(50, writer.succeededCount());
+            assertEquals(0, writer.failedCount());
+            assertEquals(50, server.createdEntries());
+            assertEquals(50, ids.size());
+            for (boolean s : seen) {
+                assertTrue(s);
+            }
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testAwaitCompletionTimesOutOnAnUnreportedResource() throws InterruptedException {
+        BulkOperation operation = new BulkOperation() {
+            public void apply(Resource resource, ActionCallback callback) {
+                if (!resource.get("title").equals("lost")) {
+                    callback.onSuccess(new JSONObject());
+                }
+            }
+        };
+        BulkWriter writer = new DataAPI().bulkWriter(operation, 2, new BulkCallback() {
+            public void onSuccess(int index, Resource resource, JSONObject response) {
+            }
+
+            public void onFailure(int index, Resource resource, JSONObject error) {
+            }
+        });
+
+        for (String title : new String[]{"first", "lost", "last"}) {
+            Resource resource = new Resource();
+            resource.put("title", title);
+            writer.write(resource);
+        }
+
+        assertFalse(writer.awaitCompletion(100, TimeUnit.MILLISECONDS));
+        assertEquals(1, writer.inFlightCount());
+        assertEquals(2, writer.succeededCount());
+    }
+}
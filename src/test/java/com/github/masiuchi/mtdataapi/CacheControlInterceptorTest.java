@@ -0,0 +1,118 @@
+package com.github.masiuchi.mtdataapi;
+
+import junit.framework.TestCase;
+import okhttp3.Cache;
+import okhttp3.FormBody;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+public class CacheControlInterceptorTest extends TestCase {
+    private MockWebServer server;
+    private File directory;
+    private Cache cache;
+    private OkHttpClient client;
+
+    protected void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        directory = File.createTempFile("http-cache", "");
+        directory.delete();
+        cache = new Cache(directory, 1024 * 1024);
+        client = new OkHttpClient.Builder()
+                .cache(cache)
+                .addNetworkInterceptor(new CacheControlInterceptor())
+                .build();
+    }
+
+    protected void tearDown() throws Exception {
+        server.shutdown();
+        cache.delete();
+    }
+
+    private Response get(String token) throws IOException {
+        Request.Builder builder = new Request.Builder().url(server.url("/v3/sites/1/entries/1"));
+        if (token != null) {
+            builder.header("X-MT-Authorization", "MTAuth accessToken=" + token);
+        }
+        Response response = client.newCall(builder.build()).execute();
+        response.body().string();
+        response.close();
+        return response;
+    }
+
+    public void testAddsAuthHeadersToVary() throws Exception {
+        server.enqueue(new MockResponse().setBody("{}").setHeader("Cache-Control", "max-age=60"));
+        assertEquals("X-MT-Authorization, Authorization", get("a").networkResponse().header("Vary"));
+
+        server.enqueue(new MockResponse().setBody("{}").setHeader("Cache-Control", "max-age=60")
+                .setHeader("Vary", "Accept-Encoding"));
+        assertEquals("Accept-Encoding, X-MT-Authorization, Authorization", get("b").networkResponse().header("Vary"));
+    }
+
+    public void testAuthenticatedResponseIsNotServedToAnotherUser() throws Exception {
+        server.enqueue(new MockResponse().setBody("{\"user\":\"a\"}").setHeader("Cache-Control", "private, max-age=60"));
+        server.enqueue(new MockResponse().setBody("{\"user\":\"b\"}").setHeader("Cache-Control", "private, max-age=60"));
+
+        assertNotNull(get("a").networkResponse());
+        assertNotNull(get("b").networkResponse());
+        assertNull(get("b").networkResponse());
+        assertEquals(2, server.getRequestCount());
+
+        // An anonymous request does not match either user's entry.
+        server.enqueue(new MockResponse().setBody("{}").setHeader("Cache-Control", "max-age=60"));
+        assertNotNull(get(null).networkResponse());
+        assertEquals(3, server.getRequestCount());
+    }
+
+    public void testAnonymousResponsesAreShared() throws Exception {
+        server.enqueue(new MockResponse().setBody("{}").setHeader("Cache-Control", "max-age=60"));
+        assertNotNull(get(null).networkResponse());
+        Response cached = get(null);
+        assertNull(cached.networkResponse());
+        assertNotNull(cached.cacheResponse());
+        assertEquals(1, server.getRequestCount());
+    }
+
+    public void testValidatorOnlyResponseIsRevalidated() throws Exception {
+        server.enqueue(new MockResponse().setBody("{\"id\":1}").setHeader("ETag", "\"v1\""));
+        server.enqueue(new MockResponse().setResponseCode(304).setHeader("ETag", "\"v1\""));
+
+        Response first = get("a");
+        assertEquals("no-cache", first.networkResponse().header("Cache-Control"));
+
+        Response second = get("a");
+        assertEquals(304, second.networkResponse().code());
+        assertNotNull(second.cacheResponse());
+        server.takeRequest(1, TimeUnit.SECONDS);
+        RecordedRequest revalidation = server.takeRequest(1, TimeUnit.SECONDS);
+        assertEquals("\"v1\"", revalidation.getHeader("If-None-Match"));
+    }
+
+    public void testExplicitCachingHeadersAreKept() throws Exception {
+        server.enqueue(new MockResponse().setBody("{}").setHeader("ETag", "\"v1\"").setHeader("Cache-Control", "max-age=60"));
+        assertEquals("max-age=60", get("a").networkResponse().header("Cache-Control"));
+        server.enqueue(new MockResponse().setBody("{}").setHeader("Last-Modified", "Mon, 01 Jan 2024 00:00:00 GMT")
+                .setHeader("Expires", "Mon, 01 Jan 2024 00:00:00 GMT"));
+        assertNull(get("b").networkResponse().header("Cache-Control"));
+    }
+
+    public void testLeavesNonGetResponsesAlone() throws Exception {
+        server.enqueue(new MockResponse().setBody("{}").setHeader("ETag", "\"v1\""));
+        Request request = new Request.Builder()
+                .url(server.url("/v3/sites/1/entries/1"))
+                .put(new FormBody.Builder().add("entry", "{}").build())
+                .build();
+        Response response = client.newCall(request).execute();
+        response.close();
+        assertNull(response.header("Vary"));
+        assertNull(response.header("Cache-Control"));
+    }
+}
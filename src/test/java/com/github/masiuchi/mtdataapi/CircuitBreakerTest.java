@@ -0,0 +1,105 @@
+package com.github.masiuchi.mtdataapi;
+
+import junit.framework.TestCase;
+import okhttp3.Request;
+import org.json.JSONObject;
+
+import java.util.concurrent.TimeUnit;
+
+public class CircuitBreakerTest extends TestCase {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private final CircuitBreaker breaker = new CircuitBreaker.Builder()
+            .window(4, 4)
+            .failureRateThreshold(0.5)
+            .openDuration(10, TimeUnit.SECONDS)
+            .halfOpenCalls(2)
+            .build();
+
+    public void testOpensAndRecovers() {
+        CircuitBreaker.Circuit circuit = breaker.circuit("entries");
+        long now = 0;
+        for (int i = 0; i < 4; i++) {
+            circuit.record(circuit.acquire(now), i % 2 == 0, 0, now);
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuit.state(now));
+        assertEquals(-1, circuit.acquire(now + SECOND));
+
+        now += 11 * SECOND;
+        long first = circuit.acquire(now);
+        long second = circuit.acquire(now);
+        assertTrue(first >= 0 && second >= 0);
+        assertEquals(-1, circuit.acquire(now));
+
+        circuit.record(first, false, 0, now);
+        circuit.record(second, false, 0, now);
+        assertEquals(CircuitBreaker.State.CLOSED, circuit.state(now));
+    }
+
+    public void testFailedProbeReopens() {
+        CircuitBreaker.Circuit circuit = breaker.circuit("publish");
+        for (int i = 0; i < 4; i++) {
+            circuit.record(circuit.acquire(0), true, 0, 0);
+        }
+        long now = 11 * SECOND;
+        circuit.record(circuit.acquire(now), true, 0, now);
+        assertEquals(CircuitBreaker.State.OPEN, circuit.state(now));
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.state("entries"));
+    }
+
+    public void testFamilies() {
+        assertEquals("assets", CircuitBreaker.family(new Request.Builder()
+                .url("https://example.com/mt-data-api.cgi/v3/sites/1/assets/2").tag(Routes.ASSET).build()));
+        assertEquals("entries", CircuitBreaker.family(new Request.Builder()
+                .url("https://example.com/mt-data-api.cgi/v3/sites/1/entries/2").build()));
+        assertEquals("publish", CircuitBreaker.family(new Request.Builder()
+                .url("https://example.com/mt-data-api.cgi/v4/publish/entries").build()));
+    }
+
+    public void testSaturatedRateLimiterLeavesTheBreakerClosed() throws Exception {
+        MTStandIn server = new MTStandIn(10).start();
+        try {
+            CircuitBreaker breaker = new CircuitBreaker.Builder()
+                    .window(4, 4)
+                    .failureRateThreshold(0.5)
+                    .slowCalls(40, TimeUnit.MILLISECONDS, 0.5)
+                    .build();
+            // Turns away everything after the first call.
+            RateLimiter saturated = new RateLimiter.Builder().rate(0.1, 1).maxWait(0, TimeUnit.MILLISECONDS).build();
+            DataAPI api = new DataAPI.Builder().APIBaseURL(server.baseURL())
+                    .circuitBreaker(breaker).rateLimiter(saturated).build();
+
+            final int[] outcomes = new int[2];
+            ActionCallback callback = new ActionCallback() {
+                public void onSuccess(JSONObject response) {
+                    outcomes[0]++;
+                }
+
+                public void onFailure(JSONObject error) {
+                    outcomes[1]++;
+                }
+            };
+            for (int i = 0; i < 10; i++) {
+                api.getEntry("1", "1", null, callback);
+            }
+            assertEquals(1, outcomes[0]);
+            assertEquals(9, outcomes[1]);
+            assertEquals(9, saturated.rejectedCount());
+            assertEquals(CircuitBreaker.State.CLOSED, breaker.state("entries"));
+
+            // Each call waits about 100 ms for a token, which is not the server being slow.
+            RateLimiter throttling = new RateLimiter.Builder().rate(10, 1).maxWait(1, TimeUnit.SECONDS).build();
+            api = new DataAPI.Builder().APIBaseURL(server.baseURL())
+                    .circuitBreaker(breaker).rateLimiter(throttling).build();
+            outcomes[0] = 0;
+            outcomes[1] = 0;
+            for (int i = 0; i < 6; i++) {
+                api.getEntry("1", "1", null, callback);
+            }
+            assertEquals(6, outcomes[0]);
+            assertEquals(CircuitBreaker.State.CLOSED, breaker.state("entries"));
+        } finally {
+            server.shutdown();
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.github.masiuchi.mtdataapi;
+
+import junit.framework.TestCase;
+import okhttp3.CacheControl;
+import okhttp3.FormBody;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class CoalescingInterceptorTest extends TestCase {
+    private MockWebServer server;
+    private CountDownLatch release;
+    private AtomicInteger served;
+    private CoalescingInterceptor coalescing;
+    private OkHttpClient client;
+
+    protected void setUp() throws Exception {
+        release = new CountDownLatch(1);
+        served = new AtomicInteger();
+        server = new MockWebServer();
+        // Holds every response until the test has started all of its calls.
+        server.setDispatcher(new Dispatcher() {
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                release.await(5, TimeUnit.SECONDS);
+                return new MockResponse().setBody("{\"n\":" + served.incrementAndGet() + "}");
+            }
+        });
+        server.start();
+        coalescing = new CoalescingInterceptor();
+        client = new OkHttpClient.Builder().addInterceptor(coalescing).build();
+    }
+
+    protected void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    private Request.Builder request(String token) {
+        return new Request.Builder()
+                .url(server.url("/v3/sites/1/entries/1"))
+                .header("X-MT-Authorization", "MTAuth accessToken=" + token);
+    }
+
+    // Runs the requests concurrently and returns their bodies.
+    private List<String> concurrently(List<Request> requests) throws InterruptedException {
+        final List<String> bodies = Collections.synchronizedList(new ArrayList<String>());
+        List<Thread> threads = new ArrayList<Thread>();
+        for (final Request request : requests) {
+            Thread thread = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        Response response = client.newCall(request).execute();
+                        bodies.add(response.body().string());
+                    } catch (Exception e) {
+                        bodies.add(e.toString());
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        Thread.sleep(200);
+        release.countDown();
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        return bodies;
+    }
+
+    public void testConcurrentIdenticalGetsShareOneRequest() throws InterruptedException {
+        List<Request> requests = new ArrayList<Request>();
+        for (int i = 0; i < 5; i++) {
+            requests.add(request("a").build());
+        }
+        List<String> bodies = concurrently(requests);
+
+        assertEquals(1, server.getRequestCount());
+        assertEquals(4, coalescing.coalescedCount());
+        assertEquals(Collections.nCopies(5, "{\"n\":1}"), bodies);
+    }
+
+    public void testDifferentCredentialsAreNotShared() throws InterruptedException {
+        List<Request> requests = new ArrayList<Request>();
+        requests.add(request("a").build());
+        requests.add(request("b").build());
+        requests.add(request("a").header("Authorization", "Basic dXNlcjpwYXNz").build());
+        concurrently(requests);
+
+        assertEquals(3, server.getRequestCount());
+        assertEquals(0, coalescing.coalescedCount());
+    }
+
+    public void testNonGetRequestsAreNotShared() throws InterruptedException {
+        List<Request> requests = new ArrayList<Request>();
+        for (int i = 0; i < 2; i++) {
+            requests.add(request("a").put(new FormBody.Builder().add("entry", "{}").build()).build());
+        }
+        concurrently(requests);
+
+        assertEquals(2, server.getRequestCount());
+        assertEquals(0, coalescing.coalescedCount());
+    }
+
+    public void testNoStoreRequestsAreNotShared() throws InterruptedException {
+        List<Request> requests = new ArrayList<Request>();
+        for (int i = 0; i < 2; i++) {
+            requests.add(request("a").cacheControl(new CacheControl.Builder().noStore().build()).build());
+        }
+        concurrently(requests);
+
+        assertEquals(2, server.getRequestCount());
+        assertEquals(0, coalescing.coalescedCount());
+    }
+
+    public void testItemStreamedRequestsAreNotShared() throws InterruptedException {
+        ItemCallback callback = new ItemCallback() {
+            public void onItem(JSONObject item) {
+            }
+
+            public void onFailure(JSONObject error) {
+            }
+        };
+        List<Request> requests = new ArrayList<Request>();
+        for (int i = 0; i < 2; i++) {
+            requests.add(request("a").tag(ItemCallback.class, callback).build());
+        }
+        concurrently(requests);
+
+        assertEquals(2, server.getRequestCount());
+        assertEquals(0, coalescing.coalescedCount());
+    }
+
+    public void testAsyncFollowersDoNotHoldDispatcherThreads() throws InterruptedException {
+        // Only entry 1 is held, so a call to entry 2 can finish while the entry 1 calls wait.
+        server.setDispatcher(new Dispatcher() {
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                if (request.getPath().endsWith("/entries/1")) {
+                    release.await(5, TimeUnit.SECONDS);
+                }
+                return new MockResponse().setBody("{\"n\":" + served.incrementAndGet() + "}");
+            }
+        });
+        DataAPI api = new DataAPI.Builder()
+                .APIBaseURL(server.url("/mt-data-api.cgi").toString())
+                .async(true)
+                .maxRequests(2, 2)
+                .coalescing(true)
+                .build();
+
+        final List<String> bodies = Collections.synchronizedList(new ArrayList<String>());
+        final List<Thread> threads = Collections.synchronizedList(new ArrayList<Thread>());
+        final CountDownLatch shared = new CountDownLatch(5);
+        for (int i = 0; i < 5; i++) {
+            api.getEntry("1", "1", null, new ActionCallback() {
+                public void onSuccess(JSONObject response) {
+                    bodies.add(response.toString());
+                    threads.add(Thread.currentThread());
+                    shared.countDown();
+                }
+
+                public void onFailure(JSONObject error) {
+                    shared.countDown();
+                }
+            });
+        }
+
+        // With each waiter on a dispatcher thread, both slots would be taken until entry 1 is released.
+        final CountDownLatch other = new CountDownLatch(1);
+        api.getEntry("1", "2", null, new ActionCallback() {
+            public void onSuccess(JSONObject response) {
+                other.countDown();
+            }
+
+            public void onFailure(JSONObject error) {
+            }
+        });
+        assertTrue(other.await(2, TimeUnit.SECONDS));
+        assertEquals(5, shared.getCount());
+
+        release.countDown();
+        assertTrue(shared.await(5, TimeUnit.SECONDS));
+        assertEquals(Collections.nCopies(5, "{\"n\":2}"), bodies);
+        assertEquals(4, api.coalescedRequestCount());
+        assertEquals(2, server.getRequestCount());
+        assertFalse(threads.contains(Thread.currentThread()));
+    }
+}
@@ -1,9 +1,62 @@
 package com.github.masiuchi.mtdataapi;
 
 import junit.framework.TestCase;
+import okhttp3.OkHttpClient;
 
+import java.util.concurrent.TimeUnit;
+
+@SuppressWarnings("deprecation")
 public class ConstructorTest extends TestCase {
     public void test() {
         new DataAPI();
     }
+
+    public void testDefaultBuildersShareTheClient() {
+        OkHttpClient first = new DataAPI.Builder().build().httpClient;
+        OkHttpClient second = new DataAPI.Builder().build().httpClient;
+        assertSame(first.connectionPool(), second.connectionPool());
+        assertSame(first.dispatcher(), second.dispatcher());
+        assertSame(first.connectionPool(), new DataAPI().httpClient.connectionPool());
+    }
+
+    public void testCustomSettingsDeriveAClient() {
+        OkHttpClient shared = new DataAPI.Builder().build().httpClient;
+        OkHttpClient custom = new DataAPI.Builder()
+                .connectionPool(2, 30, TimeUnit.SECONDS)
+                .maxRequests(8, 2)
+                .connectTimeout(1, TimeUnit.SECONDS)
+                .readTimeout(2, TimeUnit.SECONDS)
+                .writeTimeout(3, TimeUnit.SECONDS)
+                .callTimeout(4, TimeUnit.SECONDS)
+                .build().httpClient;
+
+        assertNotSame(shared.connectionPool(), custom.connectionPool());
+        assertNotSame(shared.dispatcher(), custom.dispatcher());
+        assertEquals(8, custom.dispatcher().getMaxRequests());
+        assertEquals(2, custom.dispatcher().getMaxRequestsPerHost());
+        assertEquals(1000, custom.connectTimeoutMillis());
+        assertEquals(2000, custom.readTimeoutMillis());
+        assertEquals(3000, custom.writeTimeoutMillis());
+        assertEquals(4000, custom.callTimeoutMillis());
+
+        // The shared client itself is left untouched.
+        assertEquals(64, shared.dispatcher().getMaxRequests());
+        assertEquals(10000, shared.connectTimeoutMillis());
+        assertEquals(0, shared.callTimeoutMillis());
+
+        // A timeout alone derives a client that still shares the pool and dispatcher.
+        OkHttpClient timeoutOnly = new DataAPI.Builder().readTimeout(5, TimeUnit.SECONDS).build().httpClient;
+        assertEquals(5000, timeoutOnly.readTimeoutMillis());
+        assertSame(shared.connectionPool(), timeoutOnly.connectionPool());
+        assertSame(shared.dispatcher(), timeoutOnly.dispatcher());
+    }
+
+    public void testDerivesFromAGivenClient() {
+        OkHttpClient base = new OkHttpClient.Builder().readTimeout(7, TimeUnit.SECONDS).build();
+        OkHttpClient client = new DataAPI.Builder().httpClient(base).maxRequests(4, 4).build().httpClient;
+        assertEquals(7000, client.readTimeoutMillis());
+        assertSame(base.connectionPool(), client.connectionPool());
+        assertNotSame(base.dispatcher(), client.dispatcher());
+        assertEquals(64, base.dispatcher().getMaxRequests());
+    }
 }
@@ -0,0 +1,105 @@
+package com.github.masiuchi.mtdataapi;
+
+import junit.framework.TestCase;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.BufferedSink;
+import okio.BufferedSource;
+import okio.Okio;
+import org.json.JSONObject;
+
+import java.io.File;
+import java.io.IOException;
+
+public class DownloadTargetTest extends TestCase {
+    private MockWebServer server;
+    private File file;
+    private DataAPI api;
+
+    protected void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        file = File.createTempFile("export", ".csv");
+        write(file, "hello");
+        api = new DataAPI.Builder().APIBaseURL(server.url("/mt-data-api.cgi").toString()).build();
+    }
+
+    protected void tearDown() throws Exception {
+        server.shutdown();
+        file.delete();
+    }
+
+    private static void write(File file, String content) throws IOException {
+        BufferedSink sink = Okio.buffer(Okio.sink(file));
+        sink.writeUtf8(content);
+        sink.close();
+    }
+
+    private static String read(File file) throws IOException {
+        BufferedSource source = Okio.buffer(Okio.source(file));
+        try {
+            return source.readUtf8();
+        } finally {
+            source.close();
+        }
+    }
+
+    // Returns the summary, or null after checking that the call failed.
+    private JSONObject export(boolean expectSuccess) {
+        final JSONObject[] result = new JSONObject[2];
+        api.exportEntries("1", null, DownloadTarget.toFile(file).resuming(), new ActionCallback() {
+            public void onSuccess(JSONObject response) {
+                result[0] = response;
+            }
+
+            public void onFailure(JSONObject error) {
+                result[1] = error;
+            }
+        });
+        assertEquals(expectSuccess, result[0] != null);
+        assertEquals(!expectSuccess, result[1] != null);
+        return result[0];
+    }
+
+    public void testResumesWithRange() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(206).setHeader("Content-Range", "bytes 5-10/11").setBody(" world"));
+        JSONObject summary = export(true);
+
+        RecordedRequest request = server.takeRequest();
+        assertEquals("bytes=5-", request.getHeader("Range"));
+        assertEquals(5, summary.getLong("resumedFrom"));
+        assertEquals("hello world", read(file));
+    }
+
+    public void testMatchingRangeNotSatisfiableMeansComplete() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(416).setHeader("Content-Range", "bytes */5").setBody("{}"));
+        JSONObject summary = export(true);
+
+        assertEquals(0, summary.getLong("bytesWritten"));
+        assertEquals(5, summary.getLong("contentLength"));
+        assertEquals("hello", read(file));
+    }
+
+    public void testMatchingRangeNotSatisfiableWithAnErrorBodyMeansComplete() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(416).setHeader("Content-Range", "bytes */5")
+                .setHeader("Content-Type", "application/json")
+                .setBody("{\"error\":{\"code\":416,\"message\":\"Range Not Satisfiable\"}}"));
+        JSONObject summary = export(true);
+
+        assertEquals(0, summary.getLong("bytesWritten"));
+        assertEquals(5, summary.getLong("contentLength"));
+        assertEquals("hello", read(file));
+    }
+
+    public void testMismatchedRangeNotSatisfiableFailsAndKeepsTheFile() throws Exception {
+        server.enqueue(new MockResponse().setResponseCode(416).setHeader("Content-Range", "bytes */3")
+                .setBody("{\"error\":{\"code\":416}}"));
+        export(false);
+        assertEquals("hello", read(file));
+
+        server.enqueue(new MockResponse().setResponseCode(416).setBody("Range Not Satisfiable"));
+        export(false);
+        assertEquals("hello", read(file));
+    }
+}
@@ -0,0 +1,150 @@
+package com.github.masiuchi.mtdataapi;
+
+import junit.framework.TestCase;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class EndToEndTest extends TestCase {
+    private MTStandIn server;
+
+    protected void setUp() throws Exception {
+        server = new MTStandIn(95).start();
+    }
+
+    protected void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    private DataAPI.Builder api() {
+        return new DataAPI.Builder().APIBaseURL(server.baseURL());
+    }
+
+    private static JSONObject await(final DataAPI api, Call call) {
+        final AtomicReference<JSONObject> result = new AtomicReference<JSONObject>();
+        call.run(new ActionCallback() {
+            public void onSuccess(JSONObject response) {
+                result.set(response);
+            }
+
+            public void onFailure(JSONObject error) {
+                fail(error.toString());
+            }
+        });
+        return result.get();
+    }
+
+    private interface Call {
+        void run(ActionCallback callback);
+    }
+
+    public void testPagesThroughEntriesAcrossTokenExpiry() {
+        server.requireAuth(true);
+        final DataAPI api = api().tokenRefresh(true).build();
+        await(api, new Call() {
+            public void run(ActionCallback callback) {
+                api.authenticate(MTStandIn.USERNAME, MTStandIn.PASSWORD, true, callback);
+            }
+        });
+
+        ListRequest entries = new ListRequest() {
+            public void list(Parameter options, Callback callback) {
+                api.listEntries("1", options, callback);
+            }
+        };
+        int expected = 1;
+        for (JSONObject entry : api.paginate(entries, null, 20, 1)) {
+            if (expected == 50) {
+                server.expireTokens();
+            }
+            assertEquals(expected++, entry.getInt("id"));
+        }
+        assertEquals(96, expected);
+        assertTrue(server.hits("POST token") >= 1);
+    }
+
+    public void testListsTypedEntries() {
+        final List<Entry> entries = new ArrayList<Entry>();
+        Parameter options = new Parameter();
+        options.put("limit", 5);
+        api().build().listEntries("1", options, new ModelListCallback<Entry>(Entry.TYPE) {
+            public void onSuccess(List<Entry> items, int totalResults) {
+                assertEquals(95, totalResults);
+                entries.addAll(items);
+            }
+
+            public void onFailure(JSONObject error) {
+                fail(error.toString());
+            }
+        });
+        assertEquals(5, entries.size());
+        assertEquals("Entry 3", entries.get(2).getTitle());
+        assertEquals("Publish", entries.get(2).getStatus());
+    }
+
+    public void testPublishesInPhases() {
+        server.publishBatch(4);
+        final DataAPI api = api().build();
+        final String[] ids = new String[10];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = String.valueOf(i + 1);
+        }
+        JSONObject result = await(api, new Call() {
+            public void run(ActionCallback callback) {
+                api.publishEntries(ids, null, callback);
+            }
+        });
+        assertEquals("Complete", result.getString("status"));
+        assertEquals(3, server.hits("GET publish/entries"));
+    }
+
+    public void testRetriesInjectedErrorsAndUploads() {
+        final DataAPI api = api()
+                .retryPolicy(new RetryPolicy.Builder().backoff(1, 1, TimeUnit.MILLISECONDS).build())
+                .build();
+        server.failNext(2, 503);
+        JSONObject entry = await(api, new Call() {
+            public void run(ActionCallback callback) {
+                api.getEntry("1", "7", null, callback);
+            }
+        });
+        assertEquals(7, entry.getInt("id"));
+        assertEquals(1, api.retriedCallCount());
+
+        JSONObject asset = await(api, new Call() {
+            public void run(ActionCallback callback) {
+                api.uploadAssetForSite("1", new byte[200000], "image.jpg", null, callback);
+            }
+        });
+        assertEquals(1, asset.getInt("id"));
+        assertTrue(server.uploadedBytes() > 200000);
+    }
+
+    public void testLoadWithCoalescingAndObjectCache() throws InterruptedException {
+        server.latency(5, 15, TimeUnit.MILLISECONDS);
+        InMemoryMetrics metrics = new InMemoryMetrics();
+        final DataAPI api = api()
+                .coalescing(true)
+                .objectCache(new ObjectCache(100, 1, TimeUnit.MINUTES))
+                .metricsListener(metrics)
+                .build();
+
+        LoadDriver.Result result = new LoadDriver(8).run(400, new LoadDriver.Operation() {
+            public void call(int index, ActionCallback callback) {
+                api.getEntry("1", String.valueOf(index % 10 + 1), null, callback);
+            }
+        });
+
+        assertEquals(0, result.failures);
+        assertEquals(400, result.latency.count());
+        // Ten distinct entries: the cache and coalescing absorb nearly every repeat.
+        assertTrue(server.hits("GET sites/entries") < 40);
+        // Cache hits are reported without reaching OkHttp; coalesced calls do, but share one request to the server.
+        long calls = metrics.get(Routes.ENTRY).callCount();
+        assertEquals(400, calls);
+        assertTrue(server.hits("GET sites/entries") <= calls - api.objectCache.hitCount());
+    }
+}
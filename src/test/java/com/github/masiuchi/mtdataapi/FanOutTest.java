@@ -0,0 +1,112 @@
+package com.github.masiuchi.mtdataapi;
+
+import junit.framework.TestCase;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class FanOutTest extends TestCase {
+    private static List<Runnable> tasks(int count, final AtomicInteger done, final List<String> threads) {
+        List<Runnable> tasks = new ArrayList<Runnable>();
+        for (int i = 0; i < count; i++) {
+            tasks.add(new Runnable() {
+                public void run() {
+                    try {
+                        Thread.sleep(10);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    threads.add(Thread.currentThread().getName());
+                    done.incrementAndGet();
+                }
+            });
+        }
+        return tasks;
+    }
+
+    public void testWaitsForAllTasks() throws InterruptedException {
+        AtomicInteger done = new AtomicInteger();
+        List<String> threads = Collections.synchronizedList(new ArrayList<String>());
+        new DataAPI().fanOut(tasks(20, done, threads));
+        assertEquals(20, done.get());
+        assertFalse(threads.contains(Thread.currentThread().getName()));
+    }
+
+    public void testUsesSuppliedExecutor() throws InterruptedException {
+        final AtomicInteger executed = new AtomicInteger();
+        final ExecutorService pool = VirtualThreads.newExecutor();
+        Executor executor = new Executor() {
+            public void execute(Runnable command) {
+                executed.incrementAndGet();
+                pool.execute(command);
+            }
+        };
+        try {
+            AtomicInteger done = new AtomicInteger();
+            List<String> threads = Collections.synchronizedList(new ArrayList<String>());
+            new DataAPI.Builder().executor(executor).build().fanOut(tasks(8, done, threads));
+            assertEquals(8, done.get());
+            assertEquals(8, executed.get());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    public void testRejectedTasksRunOnCaller() throws InterruptedException {
+        final ExecutorService pool = VirtualThreads.newExecutor();
+        final AtomicInteger accepted = new AtomicInteger();
+        Executor executor = new Executor() {
+            public void execute(Runnable command) {
+                if (accepted.incrementAndGet() > 3) {
+                    throw new RejectedExecutionException("full");
+                }
+                pool.execute(command);
+            }
+        };
+        final DataAPI api = new DataAPI.Builder().executor(executor).build();
+        final AtomicInteger done = new AtomicInteger();
+        final List<String> threads = Collections.synchronizedList(new ArrayList<String>());
+        final Thread caller = new Thread(new Runnable() {
+            public void run() {
+                try {
+                    api.fanOut(tasks(10, done, threads));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }, "fan-out-caller");
+        try {
+            caller.start();
+            caller.join(TimeUnit.SECONDS.toMillis(5));
+            assertFalse("fanOut hung after a rejected submission", caller.isAlive());
+            assertEquals(10, done.get());
+            assertEquals(7, Collections.frequency(threads, "fan-out-caller"));
+        } finally {
+            caller.interrupt();
+            pool.shutdown();
+        }
+    }
+
+    public void testFallbackExecutorUsesDaemonThreads() throws Exception {
+        ExecutorService executor = VirtualThreads.newExecutor();
+        try {
+            final boolean[] daemon = new boolean[1];
+            executor.submit(new Runnable() {
+                public void run() {
+                    daemon[0] = Thread.currentThread().isDaemon();
+                }
+            }).get(5, TimeUnit.SECONDS);
+            // Virtual threads are always daemon threads too.
+            assertTrue(daemon[0]);
+            assertSame(VirtualThreads.shared(), VirtualThreads.shared());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.github.masiuchi.mtdataapi;
+
+import junit.framework.TestCase;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+public class ItemStreamParserTest extends TestCase {
+    private static class Recorder extends ItemCallback {
+        final List<String> events = new ArrayList<String>();
+
+        public void onTotalResults(int totalResults) {
+            events.add("total:" + totalResults);
+        }
+
+        public void onItem(JSONObject item) {
+            events.add("item:" + item.getInt("id"));
+        }
+
+        public void onComplete() {
+            events.add("complete");
+        }
+
+        public void onFailure(JSONObject error) {
+            events.add("failure");
+        }
+    }
+
+    public void testDeliversItemsInDocumentOrder() {
+        Recorder recorder = new Recorder();
+        String body = "{\"totalResults\":\"2\",\"items\":[{\"id\":1,\"tags\":[\"a\",\"]\"]},{\"id\":2}],\"other\":{\"x\":[1]}}";
+
+        assertNull(ItemStreamParser.parse(new StringReader(body), recorder));
+        assertEquals("[total:2, item:1, item:2, complete]", recorder.events.toString());
+    }
+
+    public void testEmptyItems() {
+        Recorder recorder = new Recorder();
+        assertNull(ItemStreamParser.parse(new StringReader("{\"items\":[],\"totalResults\":0}"), recorder));
+        assertEquals("[total:0, complete]", recorder.events.toString());
+    }
+
+    public void testReturnsError() {
+        Recorder recorder = new Recorder();
+        JSONObject error = ItemStreamParser.parse(new StringReader("{\"error\":{\"code\":401,\"message\":\"Unauthorized\"}}"), recorder);
+        assertEquals(401, error.getInt("code"));
+    }
+
+    public void testCallbackExceptionsAreNotReportedAsBadJSON() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setBody("{\"totalResults\":1,\"items\":[{\"id\":1}]}"));
+        server.start();
+        try {
+            DataAPI api = new DataAPI.Builder().APIBaseURL(server.url("/mt-data-api.cgi").toString()).build();
+            final Recorder recorder = new Recorder() {
+                public void onItem(JSONObject item) {
+                    item.getString("title");
+                }
+            };
+            try {
+                api.listEntries("1", null, recorder);
+                fail();
+            } catch (JSONException e) {
+                assertTrue(e.getMessage().contains("title"));
+            }
+            assertFalse(recorder.events.contains("failure"));
+        } finally {
+            server.shutdown();
+        }
+    }
+}
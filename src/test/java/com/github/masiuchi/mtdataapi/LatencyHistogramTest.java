@@ -0,0 +1,38 @@
+package com.github.masiuchi.mtdataapi;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.TimeUnit;
+
+public class LatencyHistogramTest extends TestCase {
+    public void testBucketsCoverEveryValue() {
+        long[] values = {0, 1, 63, 64, 65, 1000, 123456, 1L << 35};
+        for (long value : values) {
+            int index = LatencyHistogram.index(value);
+            assertTrue(value <= LatencyHistogram.highestValue(index));
+            assertTrue(index == 0 || value > LatencyHistogram.highestValue(index - 1));
+            // Within the 1/32 precision of the buckets.
+            assertTrue(LatencyHistogram.highestValue(index) - value <= value / 32);
+        }
+    }
+
+    public void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i, TimeUnit.MILLISECONDS);
+        }
+        assertEquals(1000, histogram.count());
+        assertEquals(1000, histogram.max(TimeUnit.MILLISECONDS));
+        assertEquals(500.5, histogram.mean(TimeUnit.MILLISECONDS), 0.01);
+
+        long p50 = histogram.percentile(50, TimeUnit.MILLISECONDS);
+        long p99 = histogram.percentile(99, TimeUnit.MILLISECONDS);
+        assertTrue(p50 >= 500 && p50 <= 500 * 33 / 32);
+        assertTrue(p99 >= 990 && p99 <= 1000);
+        assertEquals(1000, histogram.percentile(100, TimeUnit.MILLISECONDS));
+
+        histogram.reset();
+        assertEquals(0, histogram.count());
+        assertEquals(0, histogram.percentile(99, TimeUnit.MILLISECONDS));
+    }
+}
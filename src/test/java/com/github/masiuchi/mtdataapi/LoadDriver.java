@@ -0,0 +1,97 @@
+package com.github.masiuchi.mtdataapi;
+
+import org.json.JSONObject;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Runs a DataAPI call `calls` times from `threads` threads and measures throughput and latency percentiles.
+// Each call is timed until its callback fires, so it works for blocking, executor and async instances alike.
+class LoadDriver {
+    interface Operation {
+        void call(int index, ActionCallback callback);
+    }
+
+    static final class Result {
+        final int calls;
+        final long failures;
+        final long elapsedNanos;
+        final LatencyHistogram latency;
+
+        Result(int calls, long failures, long elapsedNanos, LatencyHistogram latency) {
+            this.calls = calls;
+            this.failures = failures;
+            this.elapsedNanos = elapsedNanos;
+            this.latency = latency;
+        }
+
+        double throughput() {
+            return calls * 1e9 / elapsedNanos;
+        }
+
+        public String toString() {
+            return String.format("%d calls, %d failed, %.1f calls/s, p50 %d ms, p90 %d ms, p99 %d ms, max %d ms",
+                    calls, failures, throughput(),
+                    latency.percentile(50, TimeUnit.MILLISECONDS),
+                    latency.percentile(90, TimeUnit.MILLISECONDS),
+                    latency.percentile(99, TimeUnit.MILLISECONDS),
+                    latency.max(TimeUnit.MILLISECONDS));
+        }
+    }
+
+    private final int threads;
+
+    LoadDriver(int threads) {
+        this.threads = threads;
+    }
+
+    Result run(final int calls, final Operation operation) throws InterruptedException {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final AtomicInteger next = new AtomicInteger();
+        final AtomicLong failures = new AtomicLong();
+        final CountDownLatch done = new CountDownLatch(threads);
+
+        long start = System.nanoTime();
+        for (int t = 0; t < threads; t++) {
+            Thread thread = new Thread(new Runnable() {
+                public void run() {
+                    try {
+                        int index;
+                        while ((index = next.getAndIncrement()) < calls) {
+                            call(index, operation, latency, failures);
+                        }
+                    } finally {
+                        done.countDown();
+                    }
+                }
+            }, "load-driver-" + t);
+            thread.start();
+        }
+        done.await();
+        return new Result(calls, failures.get(), System.nanoTime() - start, latency);
+    }
+
+    private static void call(int index, Operation operation, LatencyHistogram latency, final AtomicLong failures) {
+        final CountDownLatch finished = new CountDownLatch(1);
+        long start = System.nanoTime();
+        operation.call(index, new ActionCallback() {
+            public void onSuccess(JSONObject response) {
+                finished.countDown();
+            }
+
+            public void onFailure(JSONObject error) {
+                failures.incrementAndGet();
+                finished.countDown();
+            }
+        });
+        try {
+            finished.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        latency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,329 @@
+package com.github.masiuchi.mtdataapi;
+
+import okhttp3.HttpUrl;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+// A local stand-in for the MT Data API on MockWebServer: authentication, token refresh, paged and created entries,
+// publishing in phases and asset uploads, with injectable latency and errors.
+class MTStandIn {
+    static final String USERNAME = "melody";
+    static final String PASSWORD = "password";
+
+    private final MockWebServer server = new MockWebServer();
+    private final int entryCount;
+    private final ConcurrentHashMap<String, Long> tokens = new ConcurrentHashMap<String, Long>();
+    private final ConcurrentHashMap<String, Boolean> sessions = new ConcurrentHashMap<String, Boolean>();
+    private final ConcurrentHashMap<String, AtomicInteger> hits = new ConcurrentHashMap<String, AtomicInteger>();
+    private final AtomicInteger assetIDs = new AtomicInteger();
+    private final AtomicInteger createdEntries = new AtomicInteger();
+    private final AtomicLong uploadedBytes = new AtomicLong();
+
+    private volatile boolean requireAuth = false;
+    private volatile long tokenTTLMillis = TimeUnit.HOURS.toMillis(1);
+    private volatile int publishBatch = 10;
+    private volatile long minLatencyMillis = 0;
+    private volatile long maxLatencyMillis = 0;
+    private volatile double errorRate = 0;
+    private volatile int errorCode = 503;
+    private final AtomicInteger failNext = new AtomicInteger();
+
+    MTStandIn(int entryCount) {
+        this.entryCount = entryCount;
+        server.setDispatcher(new Dispatcher() {
+            public MockResponse dispatch(RecordedRequest request) {
+                return MTStandIn.this.dispatch(request);
+            }
+        });
+    }
+
+    MTStandIn start() throws IOException {
+        server.start();
+        return this;
+    }
+
+    void shutdown() throws IOException {
+        server.shutdown();
+    }
+
+    String baseURL() {
+        return server.url("/mt/mt-data-api.cgi").toString();
+    }
+
+    // Entry routes answer 401 without a valid access token.
+    MTStandIn requireAuth(boolean requireAuth) {
+        this.requireAuth = requireAuth;
+        return this;
+    }
+
+    MTStandIn tokenTTL(long ttl, TimeUnit unit) {
+        this.tokenTTLMillis = unit.toMillis(ttl);
+        return this;
+    }
+
+    // Entries published per /publish/entries phase.
+    MTStandIn publishBatch(int publishBatch) {
+        this.publishBatch = publishBatch;
+        return this;
+    }
+
+    // Every response waits a uniformly random time in [min, max] before its headers are sent.
+    MTStandIn latency(long min, long max, TimeUnit unit) {
+        this.minLatencyMillis = unit.toMillis(min);
+        this.maxLatencyMillis = unit.toMillis(max);
+        return this;
+    }
+
+    // A random fraction of requests fails with `code`.
+    MTStandIn errors(double rate, int code) {
+        this.errorRate = rate;
+        this.errorCode = code;
+        return this;
+    }
+
+    // The next `count` requests fail with `code`, whatever the error rate.
+    MTStandIn failNext(int count, int code) {
+        this.errorCode = code;
+        failNext.set(count);
+        return this;
+    }
+
+    void expireTokens() {
+        tokens.clear();
+    }
+
+    int requestCount() {
+        return server.getRequestCount();
+    }
+
+    // Requests per route, keyed like "GET sites/entries".
+    int hits(String key) {
+        AtomicInteger count = hits.get(key);
+        return count != null ? count.get() : 0;
+    }
+
+    long uploadedBytes() {
+        return uploadedBytes.get();
+    }
+
+    int createdEntries() {
+        return createdEntries.get();
+    }
+
+    private MockResponse dispatch(RecordedRequest request) {
+        MockResponse response = route(request);
+        long latency = minLatencyMillis;
+        if (maxLatencyMillis > minLatencyMillis) {
+            latency += ThreadLocalRandom.current().nextLong(maxLatencyMillis - minLatencyMillis + 1);
+        }
+        if (latency > 0) {
+            response.setHeadersDelay(latency, TimeUnit.MILLISECONDS);
+        }
+        return response;
+    }
+
+    private MockResponse route(RecordedRequest request) {
+        HttpUrl url = request.getRequestUrl();
+        List<String> segments = url.pathSegments();
+        // mt, mt-data-api.cgi, v3, ...
+        List<String> path = segments.subList(Math.min(3, segments.size()), segments.size());
+        StringBuilder key = new StringBuilder(request.getMethod()).append(' ');
+        for (int i = 0; i < path.size(); i++) {
+            // Drop IDs, so "sites/1/entries/2" counts as "sites/entries".
+            if (!path.get(i).matches("\\d+")) {
+                key.append(key.charAt(key.length() - 1) == ' ' ? "" : "/").append(path.get(i));
+            }
+        }
+        hit(key.toString());
+
+        if (failNext.get() > 0 && failNext.getAndDecrement() > 0
+                || errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            return error(errorCode, "Injected error");
+        }
+
+        String route = key.toString();
+        if (route.equals("POST authentication")) {
+            return authenticate(request);
+        } else if (route.equals("POST token")) {
+            return token(request);
+        }
+
+        if (requireAuth && !authorized(request)) {
+            return error(401, "Unauthorized");
+        }
+        if (route.equals("GET sites/entries") && path.size() == 3) {
+            return entries(url);
+        } else if (route.equals("GET sites/entries") && path.size() == 4) {
+            int id = Integer.parseInt(path.get(3));
+            return id >= 1 && id <= entryCount ? json(entry(id)) : error(404, "Entry not found");
+        } else if (route.equals("POST sites/entries") && path.size() == 3) {
+            return createEntry(request);
+        } else if (route.equals("GET publish/entries")) {
+            return publish(url);
+        } else if (route.equals("POST assets/upload") || route.equals("POST sites/assets/upload")) {
+            return upload(request);
+        }
+        return error(404, "Unknown endpoint");
+    }
+
+    private void hit(String key) {
+        AtomicInteger count = hits.get(key);
+        if (count == null) {
+            AtomicInteger created = new AtomicInteger();
+            count = hits.putIfAbsent(key, created);
+            if (count == null) {
+                count = created;
+            }
+        }
+        count.incrementAndGet();
+    }
+
+    private MockResponse authenticate(RecordedRequest request) {
+        Map<String, String> form = form(request);
+        if (!USERNAME.equals(form.get("username")) || !PASSWORD.equals(form.get("password"))) {
+            return error(401, "Invalid login");
+        }
+        String sessionID = UUID.randomUUID().toString();
+        sessions.put(sessionID, Boolean.TRUE);
+        JSONObject json = newToken();
+        json.put("sessionId", sessionID);
+        return json(json);
+    }
+
+    private MockResponse token(RecordedRequest request) {
+        String header = request.getHeader("X-MT-Authorization");
+        String prefix = "MTAuth sessionId=";
+        if (header == null || !header.startsWith(prefix) || !sessions.containsKey(header.substring(prefix.length()))) {
+            return error(401, "Invalid session");
+        }
+        return json(newToken());
+    }
+
+    private JSONObject newToken() {
+        String token = UUID.randomUUID().toString();
+        tokens.put(token, System.currentTimeMillis() + tokenTTLMillis);
+        JSONObject json = new JSONObject();
+        json.put("accessToken", token);
+        json.put("expiresIn", tokenTTLMillis / 1000);
+        return json;
+    }
+
+    private boolean authorized(RecordedRequest request) {
+        String header = request.getHeader("X-MT-Authorization");
+        String prefix = "MTAuth accessToken=";
+        if (header == null || !header.startsWith(prefix)) {
+            return false;
+        }
+        Long expiresAt = tokens.get(header.substring(prefix.length()));
+        return expiresAt != null && System.currentTimeMillis() < expiresAt;
+    }
+
+    private MockResponse entries(HttpUrl url) {
+        int limit = intParameter(url, "limit", 10);
+        int offset = intParameter(url, "offset", 0);
+        JSONArray items = new JSONArray();
+        for (int id = offset + 1; id <= Math.min(offset + limit, entryCount); id++) {
+            items.put(entry(id));
+        }
+        JSONObject json = new JSONObject();
+        json.put("totalResults", entryCount);
+        json.put("items", items);
+        return json(json);
+    }
+
+    static JSONObject entry(int id) {
+        JSONObject entry = new JSONObject();
+        entry.put("id", id);
+        entry.put("title", "Entry " + id);
+        entry.put("status", "Publish");
+        entry.put("date", "2017-01-01T00:00:00+09:00");
+        entry.put("body", "<p>Body of entry " + id + "</p>");
+        return entry;
+    }
+
+    // Publishes `publishBatch` IDs and points to the rest through X-MT-Next-Phase-URL, like MT's rebuild phases.
+    private MockResponse publish(HttpUrl url) {
+        String ids = url.queryParameter("ids");
+        if (ids == null || ids.equals("")) {
+            return error(400, "A parameter \"ids\" is required.");
+        }
+        String[] all = ids.split(",");
+        StringBuilder rest = new StringBuilder();
+        for (int i = publishBatch; i < all.length; i++) {
+            rest.append(rest.length() > 0 ? "," : "").append(all[i]);
+        }
+
+        JSONObject json = new JSONObject();
+        json.put("status", rest.length() > 0 ? "Rebuilding" : "Complete");
+        json.put("restIds", rest.toString());
+        MockResponse response = json(json);
+        if (rest.length() > 0) {
+            response.setHeader("X-MT-Next-Phase-URL", "publish/entries?ids=" + rest);
+        }
+        return response;
+    }
+
+    // Echoes the posted entry with an ID after the existing ones.
+    private MockResponse createEntry(RecordedRequest request) {
+        String entry = form(request).get("entry");
+        if (entry == null) {
+            return error(400, "A resource \"entry\" is required.");
+        }
+        JSONObject json = new JSONObject(entry);
+        json.put("id", entryCount + createdEntries.incrementAndGet());
+        return json(json);
+    }
+
+    private MockResponse upload(RecordedRequest request) {
+        String contentType = request.getHeader("Content-Type");
+        if (contentType == null || !contentType.startsWith("multipart/form-data")) {
+            return error(400, "A file is required.");
+        }
+        uploadedBytes.addAndGet(request.getBodySize());
+        JSONObject json = new JSONObject();
+        json.put("id", assetIDs.incrementAndGet());
+        json.put("mimeType", "application/octet-stream");
+        return json(json);
+    }
+
+    private static Map<String, String> form(RecordedRequest request) {
+        Map<String, String> form = new ConcurrentHashMap<String, String>();
+        HttpUrl parsed = HttpUrl.parse("http://localhost/?" + request.getBody().readUtf8());
+        for (String name : parsed.queryParameterNames()) {
+            form.put(name, parsed.queryParameter(name));
+        }
+        return form;
+    }
+
+    private static int intParameter(HttpUrl url, String name, int defaultValue) {
+        String value = url.queryParameter(name);
+        return value != null ? Integer.parseInt(value) : defaultValue;
+    }
+
+    private static MockResponse json(JSONObject json) {
+        return new MockResponse()
+                .setHeader("Content-Type", "application/json; charset=utf-8")
+                .setBody(json.toString());
+    }
+
+    private static MockResponse error(int code, String message) {
+        JSONObject error = new JSONObject();
+        error.put("code", code);
+        error.put("message", message);
+        return json(new JSONObject().put("error", error)).setResponseCode(code);
+    }
+}
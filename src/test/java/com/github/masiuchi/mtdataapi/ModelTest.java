@@ -0,0 +1,67 @@
+package com.github.masiuchi.mtdataapi;
+
+import junit.framework.TestCase;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+
+import java.util.List;
+
+public class ModelTest extends TestCase {
+    private static final String PAGE = "{ \"totalResults\" : 2, \"items\" : [\n"
+            + "  {\"id\": 1, \"title\": \"Quote \\\"this\\\" \\u00e9\", \"blog\": {\"id\": 3},"
+            + "   \"author\": {\"displayName\": \"Melody\", \"id\": 2}, \"tags\": [\"a\", \"b]\"],"
+            + "   \"categories\": [{\"id\": 5, \"label\": \"News\"}, {\"id\": 6, \"label\": \"{}\"}],"
+            + "   \"more\": null, \"score\": 1.5, \"allowComments\": true, \"we\\\"ird\": \"key\"},\n"
+            + "  {\"id\": 2, \"title\": \"\", \"categories\": []}\n"
+            + "] }";
+
+    public void testDecodesFieldsOnDemand() {
+        LazyJSON page = LazyJSON.parse(PAGE);
+        assertEquals(2, page.getLong("totalResults", 0));
+
+        List<Entry> entries = Entry.TYPE.list(page.getObjects("items"));
+        assertEquals(2, entries.size());
+
+        Entry first = entries.get(0);
+        assertEquals("1", first.getID());
+        assertEquals("Quote \"this\" \u00e9", first.getTitle());
+        assertEquals("3", first.getSiteID());
+        assertEquals("Melody", first.getAuthor().getDisplayName());
+        assertEquals(2, first.getTags().size());
+        assertEquals("b]", first.getTags().get(1));
+        assertEquals("{}", first.getCategories().get(1).getLabel());
+        assertNull(first.getMore());
+        assertNull(first.getExcerpt());
+        assertEquals("1.5", first.getString("score"));
+        assertEquals(Boolean.TRUE, first.get("allowComments"));
+        assertEquals("key", first.getString("we\"ird"));
+
+        Entry second = entries.get(1);
+        assertEquals("", second.getTitle());
+        assertTrue(second.getCategories().isEmpty());
+        assertNull(second.getAuthor());
+    }
+
+    public void testMatchesParsedJSON() {
+        JSONObject parsed = new JSONObject(PAGE).getJSONArray("items").getJSONObject(0);
+        Entry lazy = Entry.TYPE.list(LazyJSON.parse(PAGE).getObjects("items")).get(0);
+        Entry eager = Entry.TYPE.create(LazyJSON.of(parsed));
+
+        assertEquals(eager.getTitle(), lazy.getTitle());
+        assertEquals(eager.getSiteID(), lazy.getSiteID());
+        assertEquals(eager.getTags(), lazy.getTags());
+        assertEquals(eager.getCategories().size(), lazy.getCategories().size());
+        assertTrue(parsed.similar(lazy.toJSONObject()));
+        assertTrue(lazy.get("categories") instanceof JSONArray);
+    }
+
+    public void testRejectsMalformedText() {
+        try {
+            LazyJSON.parse("{\"id\": 1, \"title\": \"unterminated}").getString("id");
+            fail();
+        } catch (JSONException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package com.github.masiuchi.mtdataapi;
+
+import junit.framework.TestCase;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.json.JSONObject;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+public class ObjectCacheTest extends TestCase {
+    public void testHitAndMiss() {
+        ObjectCache cache = new ObjectCache(10, 1, TimeUnit.MINUTES);
+        assertNull(cache.get("/v3/sites/1/entries/2", ""));
+        cache.put("/v3/sites/1/entries/2", "", "{\"id\":2}", cache.epoch());
+        assertEquals("{\"id\":2}", cache.get("/v3/sites/1/entries/2", ""));
+        assertNull(cache.get("/v3/sites/1/entries/2", "fields=id"));
+        assertEquals(1, cache.hitCount());
+        assertEquals(2, cache.missCount());
+    }
+
+    public void testExpires() {
+        ObjectCache cache = new ObjectCache(10, 0, TimeUnit.MILLISECONDS);
+        cache.put("/a", "", "{}", cache.epoch());
+        assertNull(cache.get("/a", ""));
+        assertEquals(0, cache.size());
+    }
+
+    public void testEvictsLeastRecentlyUsed() {
+        ObjectCache cache = new ObjectCache(2, 1, TimeUnit.MINUTES);
+        cache.put("/a", "", "a", cache.epoch());
+        cache.put("/b", "", "b", cache.epoch());
+        cache.get("/a", "");
+        cache.put("/c", "", "c", cache.epoch());
+        assertEquals("a", cache.get("/a", ""));
+        assertNull(cache.get("/b", ""));
+        assertEquals(1, cache.evictionCount());
+    }
+
+    public void testInvalidation() {
+        ObjectCache cache = new ObjectCache(10, 1, TimeUnit.MINUTES);
+        cache.put("/v3/sites/1", "", "site", cache.epoch());
+        cache.put("/v3/sites/1/entries/2", "", "entry", cache.epoch());
+        cache.put("/v3/sites/10", "", "other", cache.epoch());
+
+        cache.invalidate("/v3/sites/1", false);
+        assertNull(cache.get("/v3/sites/1", ""));
+        assertEquals("entry", cache.get("/v3/sites/1/entries/2", ""));
+
+        cache.invalidate("/v3/sites/1", true);
+        assertNull(cache.get("/v3/sites/1/entries/2", ""));
+        assertEquals("other", cache.get("/v3/sites/10", ""));
+    }
+
+    public void testIgnoresPutStartedBeforeInvalidation() {
+        ObjectCache cache = new ObjectCache(10, 1, TimeUnit.MINUTES);
+        long epoch = cache.epoch();
+        cache.invalidate("/v3/sites/1/entries/2", false);
+        cache.put("/v3/sites/1/entries/2", "", "stale", epoch);
+        assertNull(cache.get("/v3/sites/1/entries/2", ""));
+    }
+
+    public void testVariantsCountTowardTheBound() {
+        ObjectCache cache = new ObjectCache(3, 1, TimeUnit.MINUTES);
+        for (int i = 0; i < 5; i++) {
+            cache.put("/v3/sites/1/entries/2", "fields=f" + i, "{}", cache.epoch());
+        }
+        assertEquals(3, cache.size());
+        assertEquals(2, cache.evictionCount());
+        assertNull(cache.get("/v3/sites/1/entries/2", "fields=f0"));
+        assertNull(cache.get("/v3/sites/1/entries/2", "fields=f1"));
+        assertEquals("{}", cache.get("/v3/sites/1/entries/2", "fields=f4"));
+    }
+
+    public void testInvalidationOnlyDropsPutsForItsPaths() {
+        ObjectCache cache = new ObjectCache(10, 1, TimeUnit.MINUTES);
+        long epoch = cache.epoch();
+        cache.invalidate("/v3/sites/1/entries/3", false);
+        cache.put("/v3/sites/1/entries/2", "", "entry", epoch);
+        assertEquals("entry", cache.get("/v3/sites/1/entries/2", ""));
+
+        epoch = cache.epoch();
+        cache.invalidate("/v3/sites/1", true);
+        cache.put("/v3/sites/1/entries/2", "", "stale", epoch);
+        cache.put("/v3/sites/10", "", "other", epoch);
+        assertNull(cache.get("/v3/sites/1/entries/2", ""));
+        assertEquals("other", cache.get("/v3/sites/10", ""));
+    }
+
+    public void testClearDropsInFlightPuts() {
+        ObjectCache cache = new ObjectCache(10, 1, TimeUnit.MINUTES);
+        long epoch = cache.epoch();
+        cache.clear();
+        cache.put("/a", "", "stale", epoch);
+        assertNull(cache.get("/a", ""));
+        cache.put("/a", "", "fresh", cache.epoch());
+        assertEquals("fresh", cache.get("/a", ""));
+    }
+
+    public void testForgottenInvalidationsStayConservative() {
+        ObjectCache cache = new ObjectCache(2, 1, TimeUnit.MINUTES);
+        long epoch = cache.epoch();
+        cache.invalidate("/a", false);
+        cache.invalidate("/b", false);
+        cache.invalidate("/c", false);
+        cache.put("/a", "", "stale", epoch);
+        assertNull(cache.get("/a", ""));
+    }
+
+    public void testHitsAreDispatchedAndMeasured() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setBody("{\"id\":2}"));
+        server.start();
+        ExecutorService executor = Executors.newSingleThreadExecutor(new ThreadFactory() {
+            public Thread newThread(Runnable r) {
+                return new Thread(r, "cache-test-executor");
+            }
+        });
+        try {
+            InMemoryMetrics metrics = new InMemoryMetrics();
+            DataAPI api = new DataAPI.Builder()
+                    .APIBaseURL(server.url("/mt-data-api.cgi").toString())
+                    .objectCache(new ObjectCache(10, 1, TimeUnit.MINUTES))
+                    .executor(executor)
+                    .metricsListener(metrics)
+                    .build();
+
+            for (int i = 0; i < 2; i++) {
+                final CountDownLatch done = new CountDownLatch(1);
+                final String[] thread = new String[1];
+                api.getEntry("1", "2", null, new ActionCallback() {
+                    public void onSuccess(JSONObject response) {
+                        thread[0] = Thread.currentThread().getName();
+                        done.countDown();
+                    }
+
+                    public void onFailure(JSONObject error) {
+                        done.countDown();
+                    }
+                });
+                assertTrue(done.await(5, TimeUnit.SECONDS));
+                assertEquals("cache-test-executor", thread[0]);
+            }
+
+            assertEquals(1, server.getRequestCount());
+            assertEquals(1, api.objectCache.hitCount());
+            InMemoryMetrics.RouteMetrics entry = metrics.get(Routes.ENTRY);
+            assertEquals(2, entry.callCount());
+            assertEquals(0, entry.inFlight());
+        } finally {
+            executor.shutdown();
+            server.shutdown();
+        }
+    }
+
+    private static class Recorder extends ActionCallback {
+        int successes;
+
+        public void onSuccess(JSONObject response) {
+            successes++;
+        }
+
+        public void onFailure(JSONObject error) {
+            fail(error.toString());
+        }
+    }
+
+    public void testSingleResourceGetsOutsideTheActionsAreCached() throws Exception {
+        MockWebServer server = new MockWebServer();
+        for (int i = 0; i < 10; i++) {
+            server.enqueue(new MockResponse().setBody("{}"));
+        }
+        server.start();
+        try {
+            DataAPI api = new DataAPI.Builder()
+                    .APIBaseURL(server.url("/mt-data-api.cgi").toString())
+                    .objectCache(new ObjectCache(10, 1, TimeUnit.MINUTES))
+                    .build();
+            Recorder recorder = new Recorder();
+            for (int i = 0; i < 2; i++) {
+                api.getTheme("rainier", null, recorder);
+                api.getPlugin("Markdown", null, recorder);
+                api.getStatsProvider("1", null, recorder);
+                api.getThumbnail("1", "2", null, recorder);
+            }
+            assertEquals(8, recorder.successes);
+            assertEquals(4, server.getRequestCount());
+            assertEquals(4, api.objectCache.hitCount());
+
+            // Writes to them, or to what they are derived from, drop them again.
+            api.enablePlugin("Markdown", null, recorder);
+            api.uninstallTheme("rainier", null, recorder);
+            api.updateAsset("1", "2", null, null, recorder);
+            api.getPlugin("Markdown", null, recorder);
+            api.getTheme("rainier", null, recorder);
+            api.getThumbnail("1", "2", null, recorder);
+            api.getStatsProvider("1", null, recorder);
+            assertEquals(10, server.getRequestCount());
+            assertEquals(5, api.objectCache.hitCount());
+        } finally {
+            server.shutdown();
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.masiuchi.mtdataapi;
+
+import junit.framework.TestCase;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class PaginatorTest extends TestCase {
+    private static class FakeList implements ListRequest {
+        final int total;
+        final int maxLimit;
+        final List<Integer> offsets = Collections.synchronizedList(new ArrayList<Integer>());
+
+        FakeList(int total, int maxLimit) {
+            this.total = total;
+            this.maxLimit = maxLimit;
+        }
+
+        public void list(Parameter options, Callback callback) {
+            int offset = (Integer) options.get("offset");
+            int limit = Math.min((Integer) options.get("limit"), maxLimit);
+            offsets.add(offset);
+
+            JSONArray items = new JSONArray();
+            for (int i = offset; i < Math.min(offset + limit, total); i++) {
+                items.put(new JSONObject().put("id", i));
+            }
+            JSONObject response = new JSONObject();
+            response.put("totalResults", total);
+            response.put("items", items);
+            callback.onSuccess(response);
+        }
+    }
+
+    public void testIteratesAllItemsInOrder() {
+        FakeList list = new FakeList(23, 100);
+        int expected = 0;
+        for (JSONObject item : new DataAPI().paginate(list, null, 5, 2)) {
+            assertEquals(expected++, item.getInt("id"));
+        }
+        assertEquals(23, expected);
+
+        List<Integer> offsets = new ArrayList<Integer>(list.offsets);
+        Collections.sort(offsets);
+        assertEquals(5, offsets.size());
+        assertEquals(Integer.valueOf(20), offsets.get(4));
+    }
+
+    public void testFollowsServerCappedLimit() {
+        FakeList list = new FakeList(10, 3);
+        int count = 0;
+        for (JSONObject item : new DataAPI().paginate(list, null, 50, 1)) {
+            assertEquals(count++, item.getInt("id"));
+        }
+        assertEquals(10, count);
+    }
+
+    public void testFailurePropagates() {
+        ListRequest failing = new ListRequest() {
+            public void list(Parameter options, Callback callback) {
+                callback.onFailure(new JSONObject().put("code", 500).put("message", "boom"));
+            }
+        };
+        try {
+            new DataAPI().paginate(failing, null, 10, 1).iterator().hasNext();
+            fail();
+        } catch (DataAPIException e) {
+            assertEquals("boom", e.getMessage());
+        }
+    }
+}
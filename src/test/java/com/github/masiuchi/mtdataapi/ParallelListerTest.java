@@ -0,0 +1,111 @@
+package com.github.masiuchi.mtdataapi;
+
+import junit.framework.TestCase;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+public class ParallelListerTest extends TestCase {
+    // Answers from pool threads after a random delay, so pages complete out of order.
+    private static class ShuffledList implements ListRequest {
+        final int total;
+        final int maxLimit;
+        final int failAt;
+        final List<Integer> limits = Collections.synchronizedList(new ArrayList<Integer>());
+        private final Random random = new Random(42);
+
+        ShuffledList(int total, int maxLimit, int failAt) {
+            this.total = total;
+            this.maxLimit = maxLimit;
+            this.failAt = failAt;
+        }
+
+        public void list(Parameter options, Callback callback) {
+            int offset = (Integer) options.get("offset");
+            int limit = (Integer) options.get("limit");
+            limits.add(limit);
+            try {
+                Thread.sleep(random.nextInt(20));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (offset == failAt) {
+                callback.onFailure(new JSONObject().put("code", 500).put("message", "page " + offset));
+                return;
+            }
+
+            JSONArray items = new JSONArray();
+            for (int i = offset; i < Math.min(offset + Math.min(limit, maxLimit), total); i++) {
+                items.put(new JSONObject().put("id", i));
+            }
+            callback.onSuccess(new JSONObject().put("totalResults", total).put("items", items));
+        }
+    }
+
+    public void testDeliversPagesInOffsetOrder() {
+        ShuffledList list = new ShuffledList(95, 100, -1);
+        final List<Integer> offsets = new ArrayList<Integer>();
+        final int[] completed = new int[1];
+        new DataAPI().listParallel(list, null, 10, 4).each(true, new PageCallback() {
+            public void onPage(int offset, JSONArray items, int totalResults) {
+                offsets.add(offset);
+            }
+
+            public void onComplete(int totalResults) {
+                completed[0] = totalResults;
+            }
+
+            public void onFailure(JSONObject error) {
+                fail(error.toString());
+            }
+        });
+
+        assertEquals(10, offsets.size());
+        for (int i = 0; i < offsets.size(); i++) {
+            assertEquals(Integer.valueOf(i * 10), offsets.get(i));
+        }
+        assertEquals(95, completed[0]);
+    }
+
+    public void testFollowsServerCappedLimit() {
+        ShuffledList list = new ShuffledList(20, 3, -1);
+        JSONArray items = new DataAPI().listParallel(list, null, 50, 3).collect();
+
+        assertEquals(20, items.length());
+        for (int i = 0; i < items.length(); i++) {
+            assertEquals(i, items.getJSONObject(i).getInt("id"));
+        }
+        // The first page asks for 50; the rest step by the 3 items the server actually returned.
+        assertEquals(Integer.valueOf(50), list.limits.get(0));
+        assertEquals(6, Collections.frequency(list.limits, 3));
+    }
+
+    public void testCollectThrowsOnFailedPage() {
+        ShuffledList list = new ShuffledList(50, 100, 20);
+        try {
+            new DataAPI().listParallel(list, null, 10, 2).collect();
+            fail();
+        } catch (DataAPIException e) {
+            assertEquals("page 20", e.getMessage());
+        }
+    }
+
+    public void testEachReportsFailedPage() {
+        ShuffledList list = new ShuffledList(50, 100, 0);
+        final JSONObject[] failure = new JSONObject[1];
+        new DataAPI().listParallel(list, null, 10, 2).each(false, new PageCallback() {
+            public void onPage(int offset, JSONArray items, int totalResults) {
+                fail();
+            }
+
+            public void onFailure(JSONObject error) {
+                failure[0] = error;
+            }
+        });
+        assertEquals("page 0", failure[0].getString("message"));
+    }
+}
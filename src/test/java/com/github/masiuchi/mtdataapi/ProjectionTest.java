@@ -0,0 +1,63 @@
+package com.github.masiuchi.mtdataapi;
+
+import junit.framework.TestCase;
+import okhttp3.HttpUrl;
+
+import java.util.Arrays;
+
+public class ProjectionTest extends TestCase {
+    interface EntrySummary {
+        String getID();
+
+        String getModifiedDate();
+
+        String getSiteID();
+
+        User getAuthor();
+    }
+
+    public void testDerivesFieldsFromAccessors() {
+        Projection projection = Projection.of("entries", EntrySummary.class);
+        assertEquals(4, projection.fields.size());
+        assertTrue(projection.fields.containsAll(Arrays.asList("id", "modifiedDate", "blog", "author")));
+    }
+
+    public void testValidatesFieldNames() {
+        assertEquals("id,title", Projection.of("entries", "id", "title").toString());
+        try {
+            Projection.of("entries", "id", "titel");
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        // Families without a known schema are not checked.
+        assertEquals("name", Projection.of("sites", "name").toString());
+    }
+
+    public void testRendersFieldsParameter() {
+        DataAPI api = new DataAPI.Builder()
+                .APIBaseURL("http://example.com/mt-data-api.cgi")
+                .projection(Projection.of("entries", "id", "modifiedDate"))
+                .build();
+
+        HttpUrl list = api.makeRequest(HttpMethod.GET, api.endpoint(Routes.ENTRIES, "1"), null, false).url();
+        assertEquals("id,modifiedDate", list.queryParameter("fields"));
+
+        Parameter options = new Parameter();
+        options.put("fields", Projection.of("entries", "title"));
+        HttpUrl entry = api.makeRequest(HttpMethod.GET, api.endpoint(Routes.ENTRY, "1", "2"), options, false).url();
+        assertEquals("title", entry.queryParameter("fields"));
+
+        HttpUrl export = api.makeRequest(HttpMethod.GET, api.endpoint(Routes.ENTRIES_EXPORT, "1"), null, false).url();
+        assertNull(export.queryParameter("fields"));
+        HttpUrl assets = api.makeRequest(HttpMethod.GET, api.endpoint(Routes.ASSETS, "1"), null, false).url();
+        assertNull(assets.queryParameter("fields"));
+
+        try {
+            api.makeRequest(HttpMethod.GET, api.endpoint(Routes.ASSETS, "1"), options, false);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected: an entries projection on an assets route
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.github.masiuchi.mtdataapi;
+
+import junit.framework.TestCase;
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import java.util.concurrent.TimeUnit;
+
+public class PublishJobTest extends TestCase {
+    private MTStandIn server;
+
+    protected void setUp() throws Exception {
+        server = new MTStandIn(10).publishBatch(2).start();
+    }
+
+    protected void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    private DataAPI api() {
+        return new DataAPI.Builder().APIBaseURL(server.baseURL()).build();
+    }
+
+    private static String[] ids(int count) {
+        String[] ids = new String[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = String.valueOf(i + 1);
+        }
+        return ids;
+    }
+    public void testSplitsIDsIntoShortChunks() {
+        String[] ids = new String[1000];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = String.valueOf(100000 + i);
+        }
+        // 14 six-digit IDs and 13 commas fit in 100 characters.
+        PublishJob job = new DataAPI().publishJob(ids).maxIDsLength(100).build();
+        assertEquals(72, job.chunkCount());
+        assertEquals(1000, job.totalCount());
+    }
+
+    public void testEmptyJobCompletesImmediately() throws InterruptedException {
+        final JSONArray[] result = new JSONArray[1];
+        PublishJob job = new DataAPI().publishJob(new String[0]).build();
+        job.run(new PublishCallback() {
+            public void onComplete(JSONArray responses) {
+                result[0] = responses;
+            }
+
+            public void onFailure(JSONObject error) {
+            }
+        });
+        assertEquals(0, job.chunkCount());
+        assertEquals(0, result[0].length());
+    }
+
+    public void testPublishEntriesRejectsAnEmptyList() {
+        ActionCallback callback = new ActionCallback() {
+            public void onSuccess(JSONObject response) {
+                fail(response.toString());
+            }
+
+            public void onFailure(JSONObject error) {
+                fail(error.toString());
+            }
+        };
+        try {
+            api().publishEntries(new String[0], null, callback);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        try {
+            api().publishEntries(null, null, callback);
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertEquals(0, server.hits("GET publish/entries"));
+    }
+
+    public void testBlockingPublishRunsOnTheCallingThread() {
+        final String[] thread = new String[1];
+        api().publishEntries(ids(10), null, new ActionCallback() {
+            public void onSuccess(JSONObject response) {
+                thread[0] = Thread.currentThread().getName();
+            }
+
+            public void onFailure(JSONObject error) {
+                fail(error.toString());
+            }
+        });
+        assertEquals(Thread.currentThread().getName(), thread[0]);
+        assertEquals(5, server.hits("GET publish/entries"));
+    }
+
+    public void testCallbacksRunWithoutTheJobLock() throws InterruptedException {
+        final PublishJob job = api().publishJob(ids(10)).maxIDsLength(4).concurrency(2).build();
+        final int[] seen = {-1};
+        final boolean[] cancelled = new boolean[1];
+        job.run(new PublishCallback() {
+            public void onProgress(int published, int total) {
+                // Another thread reading the job while this callback runs must not block on it.
+                Thread reader = new Thread(new Runnable() {
+                    public void run() {
+                        seen[0] = job.publishedCount();
+                    }
+                });
+                reader.start();
+                try {
+                    reader.join(TimeUnit.SECONDS.toMillis(5));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                assertFalse(reader.isAlive());
+                job.cancel();
+            }
+
+            public void onComplete(JSONArray responses) {
+                fail();
+            }
+
+            public void onCancelled() {
+                cancelled[0] = true;
+            }
+
+            public void onFailure(JSONObject error) {
+                fail(error.toString());
+            }
+        });
+        assertTrue(seen[0] > 0);
+        assertTrue(cancelled[0]);
+    }
+}
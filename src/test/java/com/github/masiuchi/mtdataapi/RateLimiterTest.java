@@ -0,0 +1,204 @@
+package com.github.masiuchi.mtdataapi;
+
+import junit.framework.TestCase;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.json.JSONObject;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RateLimiterTest extends TestCase {
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    public void testTokenBucketReservesAhead() {
+        TokenBucket bucket = new TokenBucket(10, 2, 0);
+        assertEquals(0, bucket.reserve(0, SECOND));
+        assertEquals(0, bucket.reserve(0, SECOND));
+        assertEquals(SECOND / 10, bucket.reserve(0, SECOND));
+        assertEquals(2 * SECOND / 10, bucket.reserve(0, SECOND));
+        assertEquals(-1, bucket.reserve(0, SECOND / 10));
+
+        // Refills up to the burst only.
+        assertEquals(2.0, bucket.available(10 * SECOND), 1e-9);
+    }
+
+    public void testConcurrencyLimitAdapts() throws InterruptedException {
+        ConcurrencyLimit limit = new ConcurrencyLimit(4, 1, 8, SECOND, 0.5);
+        for (int i = 0; i < 4; i++) {
+            assertTrue(limit.acquire(0));
+        }
+        assertFalse(limit.acquire(0));
+
+        long now = System.nanoTime();
+        for (int i = 0; i < 4; i++) {
+            limit.release(SECOND / 10, false, now);
+        }
+        // Grows by about one per round of calls.
+        assertEquals(4, limit.limit());
+        assertTrue(limit.acquire(0));
+        limit.release(SECOND / 10, false, now);
+        assertEquals(5, limit.limit());
+
+        assertTrue(limit.acquire(0));
+        limit.release(2 * SECOND, false, now);
+        assertEquals(2, limit.limit());
+
+        // Only one decrease per latency target period.
+        assertTrue(limit.acquire(0));
+        limit.release(0, true, now);
+        assertEquals(2, limit.limit());
+        assertEquals(0, limit.inFlight());
+    }
+
+    public void testSlotIsHeldUntilTheBodyIsClosed() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setBody("first"));
+        server.enqueue(new MockResponse().setBody("second"));
+        server.enqueue(new MockResponse().setResponseCode(500));
+        server.start();
+        try {
+            RateLimiter limiter = new RateLimiter.Builder()
+                    .concurrency(1, 1, 1)
+                    .maxWait(0, TimeUnit.MILLISECONDS)
+                    .build();
+            OkHttpClient client = new OkHttpClient.Builder().addInterceptor(limiter).build();
+            Request request = new Request.Builder().url(server.url("/mt-data-api.cgi/v4/sites")).build();
+            String family = CircuitBreaker.family(request);
+
+            Response response = client.newCall(request).execute();
+            assertEquals(1, limiter.inFlight(family));
+            try {
+                client.newCall(request).execute();
+                fail();
+            } catch (RateLimiter.RejectedException e) {
+                assertEquals(family, e.family);
+            }
+            response.close();
+            assertEquals(0, limiter.inFlight(family));
+
+            // Reading to the end releases the slot too, once only.
+            response = client.newCall(request).execute();
+            assertEquals("second", response.body().string());
+            assertEquals(0, limiter.inFlight(family));
+            response.close();
+            assertEquals(0, limiter.inFlight(family));
+
+            response = client.newCall(request).execute();
+            assertEquals(500, response.code());
+            response.close();
+            assertEquals(0, limiter.inFlight(family));
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    private static class Outcomes extends ActionCallback {
+        final CountDownLatch done;
+        final AtomicInteger succeeded = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+
+        Outcomes(int count) {
+            done = new CountDownLatch(count);
+        }
+
+        public void onSuccess(JSONObject response) {
+            succeeded.incrementAndGet();
+            done.countDown();
+        }
+
+        public void onFailure(JSONObject error) {
+            failed.incrementAndGet();
+            done.countDown();
+        }
+    }
+
+    public void testAsyncCallsWaitForASlotWithoutHoldingDispatcherThreads() throws Exception {
+        MTStandIn server = new MTStandIn(10).start();
+        try {
+            server.latency(200, 200, TimeUnit.MILLISECONDS);
+            Dispatcher dispatcher = new Dispatcher();
+            dispatcher.setMaxRequestsPerHost(2);
+            RateLimiter limiter = new RateLimiter.Builder()
+                    .concurrency(1, 1, 1)
+                    .maxWait(5, TimeUnit.SECONDS)
+                    .build();
+            DataAPI api = new DataAPI.Builder().APIBaseURL(server.baseURL()).async(true)
+                    .httpClient(new OkHttpClient.Builder().dispatcher(dispatcher).build())
+                    .rateLimiter(limiter)
+                    .build();
+
+            Outcomes outcomes = new Outcomes(4);
+            for (int i = 1; i <= 4; i++) {
+                api.getEntry("1", String.valueOf(i), null, outcomes);
+            }
+            Thread.sleep(100);
+            // Only the call holding the slot occupies the dispatcher; the others are parked off-thread.
+            assertEquals(1, dispatcher.runningCallsCount());
+            assertEquals(0, limiter.queueDepth());
+
+            assertTrue(outcomes.done.await(5, TimeUnit.SECONDS));
+            assertEquals(4, outcomes.succeeded.get());
+            assertTrue(limiter.deferredCount() >= 3);
+            assertEquals(0, limiter.inFlight("entries"));
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testAsyncCallsAreRejectedOnceMaxWaitRunsOut() throws Exception {
+        MTStandIn server = new MTStandIn(10).start();
+        try {
+            server.latency(500, 500, TimeUnit.MILLISECONDS);
+            RateLimiter limiter = new RateLimiter.Builder()
+                    .concurrency(1, 1, 1)
+                    .maxWait(100, TimeUnit.MILLISECONDS)
+                    .build();
+            DataAPI api = new DataAPI.Builder().APIBaseURL(server.baseURL()).async(true).rateLimiter(limiter).build();
+
+            Outcomes first = new Outcomes(1);
+            api.getEntry("1", "1", null, first);
+            Thread.sleep(50);
+            Outcomes saturated = new Outcomes(2);
+            api.getEntry("1", "2", null, saturated);
+            api.getEntry("1", "3", null, saturated);
+
+            // Rejected at their deadline, long before the call holding the slot is answered.
+            assertTrue(saturated.done.await(400, TimeUnit.MILLISECONDS));
+            assertEquals(2, saturated.failed.get());
+            assertEquals(2, limiter.rejectedCount());
+            assertEquals(1, first.done.getCount());
+
+            assertTrue(first.done.await(5, TimeUnit.SECONDS));
+            assertEquals(1, first.succeeded.get());
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testAsyncCallsWaitForTheirTokenOffThread() throws Exception {
+        MTStandIn server = new MTStandIn(10).start();
+        try {
+            RateLimiter limiter = new RateLimiter.Builder().rate(20, 1).maxWait(5, TimeUnit.SECONDS).build();
+            DataAPI api = new DataAPI.Builder().APIBaseURL(server.baseURL()).async(true).rateLimiter(limiter).build();
+
+            Outcomes outcomes = new Outcomes(4);
+            long start = System.nanoTime();
+            for (int i = 1; i <= 4; i++) {
+                api.getEntry("1", String.valueOf(i), null, outcomes);
+            }
+            assertTrue(outcomes.done.await(5, TimeUnit.SECONDS));
+            assertEquals(4, outcomes.succeeded.get());
+            assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(140));
+            assertEquals(3, limiter.deferredCount());
+            assertEquals(0, limiter.queueDepth());
+        } finally {
+            server.shutdown();
+        }
+    }
+}
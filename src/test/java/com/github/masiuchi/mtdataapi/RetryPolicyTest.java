@@ -0,0 +1,127 @@
+package com.github.masiuchi.mtdataapi;
+
+import junit.framework.TestCase;
+import okhttp3.FormBody;
+import okhttp3.Request;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.json.JSONObject;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class RetryPolicyTest extends TestCase {
+    public void testOnlyIdempotentOrMarkedCallsAreRetryable() {
+        RetryPolicy policy = new RetryPolicy.Builder().retryPost(Routes.TOKEN).build();
+        Request.Builder builder = new Request.Builder().url("https://example.com/v3/token");
+        assertTrue(policy.isRetryable(builder.get().build()));
+        assertTrue(policy.isRetryable(builder.delete().build()));
+        assertFalse(policy.isRetryable(builder.post(new FormBody.Builder().build()).tag(Routes.AUTHENTICATION).build()));
+        assertTrue(policy.isRetryable(builder.post(new FormBody.Builder().build()).tag(Routes.TOKEN).build()));
+    }
+
+    public void testBackoffStaysUnderCeiling() {
+        RetryPolicy policy = new RetryPolicy.Builder().backoff(100, 1000, TimeUnit.MILLISECONDS).build();
+        for (int retry = 0; retry < 40; retry++) {
+            long delay = policy.delayMillis(retry, null);
+            assertTrue(delay >= 0);
+            assertTrue(delay <= Math.min(1000, 100L << Math.min(retry, 30)));
+        }
+    }
+
+    public void testParsesRetryAfter() {
+        assertEquals(120000, RetryPolicy.parseRetryAfter("120"));
+        assertEquals(0, RetryPolicy.parseRetryAfter("Wed, 21 Oct 2015 07:28:00 GMT"));
+        assertEquals(-1, RetryPolicy.parseRetryAfter("soon"));
+    }
+
+    private static class Outcome extends ActionCallback {
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile boolean succeeded;
+        volatile long finishedAt;
+
+        public void onSuccess(JSONObject response) {
+            succeeded = true;
+            finish();
+        }
+
+        public void onFailure(JSONObject error) {
+            finish();
+        }
+
+        private void finish() {
+            finishedAt = System.nanoTime();
+            done.countDown();
+        }
+    }
+
+    public void testRateLimiterRejectionsAreNotRetried() throws Exception {
+        MockWebServer server = new MockWebServer();
+        server.enqueue(new MockResponse().setBody("{}"));
+        server.start();
+        try {
+            DataAPI api = new DataAPI.Builder()
+                    .APIBaseURL(server.url("/mt-data-api.cgi").toString())
+                    .retryPolicy(new RetryPolicy.Builder().backoff(1, 1, TimeUnit.MILLISECONDS).build())
+                    .rateLimiter(new RateLimiter.Builder().rate(0.001, 1).maxWait(0, TimeUnit.MILLISECONDS).build())
+                    .build();
+            Outcome first = new Outcome();
+            api.getEntry("1", "1", null, first);
+            Outcome second = new Outcome();
+            api.getEntry("1", "2", null, second);
+
+            assertTrue(first.succeeded);
+            assertFalse(second.succeeded);
+            assertEquals(0, api.retryCount());
+            assertEquals(1, server.getRequestCount());
+        } finally {
+            server.shutdown();
+        }
+    }
+
+    public void testAsyncBackoffDoesNotHoldTheDispatcher() throws Exception {
+        final AtomicInteger slowAttempts = new AtomicInteger();
+        MockWebServer server = new MockWebServer();
+        server.setDispatcher(new Dispatcher() {
+            public MockResponse dispatch(RecordedRequest request) {
+                if (request.getPath().endsWith("/entries/1") && slowAttempts.incrementAndGet() == 1) {
+                    return new MockResponse().setResponseCode(503).setHeader("Retry-After", "1");
+                }
+                return new MockResponse().setBody("{}");
+            }
+        });
+        server.start();
+        try {
+            // One call at a time: a retry sleeping on the dispatcher would hold the only slot for a second.
+            DataAPI api = new DataAPI.Builder()
+                    .APIBaseURL(server.url("/mt-data-api.cgi").toString())
+                    .async(true)
+                    .maxRequests(1, 1)
+                    .retryPolicy(new RetryPolicy.Builder().build())
+                    .build();
+            Outcome retried = new Outcome();
+            api.getEntry("1", "1", null, retried);
+            while (slowAttempts.get() == 0) {
+                Thread.sleep(5);
+            }
+
+            long start = System.nanoTime();
+            Outcome other = new Outcome();
+            api.getEntry("1", "2", null, other);
+            assertTrue(other.done.await(5, TimeUnit.SECONDS));
+            assertTrue(other.succeeded);
+            assertTrue(other.finishedAt - start < TimeUnit.MILLISECONDS.toNanos(500));
+
+            assertTrue(retried.done.await(5, TimeUnit.SECONDS));
+            assertTrue(retried.succeeded);
+            assertTrue(retried.finishedAt > other.finishedAt);
+            assertEquals(2, slowAttempts.get());
+            assertEquals(1, api.retryCount());
+        } finally {
+            server.shutdown();
+        }
+    }
+}
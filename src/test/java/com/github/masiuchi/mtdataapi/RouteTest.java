@@ -0,0 +1,35 @@
+package com.github.masiuchi.mtdataapi;
+
+import junit.framework.TestCase;
+import okhttp3.HttpUrl;
+
+public class RouteTest extends TestCase {
+    private static final HttpUrl BASE = HttpUrl.parse("https://example.com/mt/mt-data-api.cgi/v3");
+
+    public void testAppendsSegments() {
+        assertEquals("https://example.com/mt/mt-data-api.cgi/v3/sites/1/entries/2",
+                Routes.ENTRY.url(BASE, "1", "2").toString());
+        assertEquals("https://example.com/mt/mt-data-api.cgi/v3/sites/1/entries/2/categories",
+                Routes.CATEGORIES_FOR_ENTRY.url(BASE, "1", "2").toString());
+        assertEquals("https://example.com/mt/mt-data-api.cgi/v3/roles",
+                Routes.ROLES.url(BASE).toString());
+    }
+
+    public void testEncodesArguments() {
+        assertEquals("/mt/mt-data-api.cgi/v3/sites/1/tags/a%20b%2Fc",
+                Routes.TAG.url(BASE, "1", "a b/c").encodedPath());
+    }
+
+    public void testRejectsWrongArity() {
+        try {
+            Routes.ENTRY.url(BASE, "1");
+            fail();
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+
+    public void testNullBase() {
+        assertNull(Routes.ENTRIES.url(null, "1"));
+    }
+}
@@ -0,0 +1,142 @@
+package com.github.masiuchi.mtdataapi;
+
+import junit.framework.TestCase;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.json.JSONObject;
+
+@SuppressWarnings("deprecation")
+public class SharedInstanceTest extends TestCase {
+    private MockWebServer server;
+    private DataAPI original;
+
+    protected void setUp() throws Exception {
+        server = new MockWebServer();
+        server.start();
+        original = DataAPI.sharedInstance;
+    }
+
+    protected void tearDown() throws Exception {
+        DataAPI.sharedInstance = original;
+        server.shutdown();
+    }
+
+    private String baseURL() {
+        return server.url("/mt-data-api.cgi").toString();
+    }
+
+    private static ActionCallback ignore() {
+        return new ActionCallback() {
+            public void onSuccess(JSONObject response) {
+            }
+
+            public void onFailure(JSONObject error) {
+                fail(error.toString());
+            }
+        };
+    }
+
+    public void testConfiguresThroughLegacyFields() throws Exception {
+        server.enqueue(new MockResponse().setBody("{\"id\":2}"));
+        server.enqueue(new MockResponse().setBody("{\"id\":2}"));
+
+        DataAPI api = new DataAPI();
+        DataAPI.sharedInstance = api;
+        DataAPI.sharedInstance.APIBaseURL = baseURL();
+        DataAPI.sharedInstance.token = "abc";
+        DataAPI.sharedInstance.basicAuth.set("user", "pass");
+        DataAPI.sharedInstance.getEntry("1", "2", null, ignore());
+
+        RecordedRequest request = server.takeRequest();
+        assertEquals("/mt-data-api.cgi/v3/sites/1/entries/2", request.getPath());
+        assertEquals("MTAuth accessToken=abc", request.getHeader("X-MT-Authorization"));
+        assertEquals("Basic dXNlcjpwYXNz", request.getHeader("Authorization"));
+        assertEquals("abc", api.getAuthState().token);
+
+        api.endpointVersion = "v4";
+        api.token = "";
+        api.getEntry("1", "2", null, ignore());
+        request = server.takeRequest();
+        assertEquals("/mt-data-api.cgi/v4/sites/1/entries/2", request.getPath());
+        assertNull(request.getHeader("X-MT-Authorization"));
+    }
+
+    public void testAuthenticationUpdatesLegacyFields() throws Exception {
+        server.enqueue(new MockResponse().setBody("{\"accessToken\":\"t1\",\"sessionId\":\"s1\",\"expiresIn\":3600}"));
+        server.enqueue(new MockResponse().setBody("{}"));
+
+        DataAPI api = new DataAPI();
+        api.APIBaseURL = baseURL();
+        api.clientID = "legacy";
+        api.authenticate("user", "pass", true, ignore());
+        assertTrue(server.takeRequest().getBody().readUtf8().contains("clientId=legacy"));
+        assertEquals("t1", api.token);
+        assertEquals("s1", api.sessionID);
+
+        api.resetAuth();
+        assertEquals("", api.token);
+        assertEquals("", api.sessionID);
+
+        api.sessionID = "s2";
+        assertEquals("s2", api.getAuthState().sessionID);
+        assertFalse(api.getAuthState().hasToken());
+    }
+
+    public void testUnchangedTokenKeepsItsExpiry() throws Exception {
+        server.enqueue(new MockResponse().setBody("{\"accessToken\":\"t1\",\"sessionId\":\"s1\",\"expiresIn\":3600}"));
+
+        DataAPI api = new DataAPI();
+        api.APIBaseURL = baseURL();
+        api.authenticate("user", "pass", true, ignore());
+        long expiresAt = api.getAuthState().expiresAt;
+        assertTrue(expiresAt > 0);
+
+        api.sessionID = "s2";
+        assertEquals("s2", api.getAuthState().sessionID);
+        assertEquals(expiresAt, api.getAuthState().expiresAt);
+
+        api.token = "t2";
+        assertEquals(0, api.getAuthState().expiresAt);
+    }
+
+    public void testBuiltInstancesIgnoreWritesToLegacyFields() throws Exception {
+        server.enqueue(new MockResponse().setBody("{\"id\":2}"));
+
+        InMemoryMetrics metrics = new InMemoryMetrics();
+        DataAPI api = new DataAPI.Builder()
+                .APIBaseURL(baseURL())
+                .clientID("built")
+                .basicAuth("user", "pass")
+                .authState(new AuthState("built", ""))
+                .metricsListener(metrics)
+                .build();
+        api.APIBaseURL = "http://127.0.0.1:1/elsewhere";
+        api.token = "assigned";
+        api.basicAuth.set("other", "secret");
+        api.httpClient = new OkHttpClient();
+        api.getEntry("1", "2", null, ignore());
+
+        RecordedRequest request = server.takeRequest();
+        assertEquals("/mt-data-api.cgi/v3/sites/1/entries/2", request.getPath());
+        assertEquals("MTAuth accessToken=built", request.getHeader("X-MT-Authorization"));
+        assertEquals("Basic dXNlcjpwYXNz", request.getHeader("Authorization"));
+        assertEquals("built", api.getAuthState().token);
+        // The builder's interceptors are still in place.
+        assertEquals(1, metrics.get(Routes.ENTRY).callCount());
+    }
+
+    public void testReplacedWithBuiltInstance() throws Exception {
+        server.enqueue(new MockResponse().setBody("{\"id\":2}"));
+
+        DataAPI.sharedInstance = new DataAPI.Builder()
+                .APIBaseURL(baseURL())
+                .authState(new AuthState("built", ""))
+                .build();
+        assertEquals("built", DataAPI.sharedInstance.token);
+        DataAPI.sharedInstance.getEntry("1", "2", null, ignore());
+
+        assertEquals("MTAuth accessToken=built", server.takeRequest().getHeader("X-MT-Authorization"));
+    }
+}
@@ -0,0 +1,51 @@
+package com.github.masiuchi.mtdataapi;
+
+import junit.framework.TestCase;
+import okhttp3.FormBody;
+import okhttp3.Request;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+public class SlowCallLoggerTest extends TestCase {
+    private static final long MILLI = TimeUnit.MILLISECONDS.toNanos(1);
+
+    public void testRedactsSecrets() {
+        Request request = new Request.Builder()
+                .url("http://example.com/mt/v3/authentication?remember=1")
+                .post(new FormBody.Builder().add("username", "me").add("password", "pw").build())
+                .build();
+        Trace trace = Trace.of(Routes.AUTHENTICATION, request);
+        trace.capture(true);
+
+        assertEquals("1", trace.parameters.get("remember"));
+        assertEquals("me", trace.parameters.get("username"));
+        assertEquals(Trace.REDACTED, trace.parameters.get("password"));
+        // Authentication bodies carry tokens, so they are never captured.
+        assertFalse(trace.captured());
+        assertNull(trace.requestBody());
+    }
+
+    public void testKeepsSlowestCalls() {
+        Logger logger = Logger.getLogger("SlowCallLoggerTest");
+        logger.setLevel(Level.OFF);
+        SlowCallLogger slow = new SlowCallLogger.Builder()
+                .threshold(100, TimeUnit.MILLISECONDS)
+                .keep(2)
+                .logger(logger)
+                .build();
+
+        long[] totals = {50, 300, 150, 200};
+        for (long total : totals) {
+            Trace trace = Trace.of(Routes.ENTRIES, new Request.Builder().url("http://example.com/mt/v3/sites/1/entries").build());
+            slow.onEnd(trace, new CallMetrics(Routes.ENTRIES, "GET", 200, false, -1, -1, -1, total * MILLI, total * MILLI, 0, 10, 0));
+        }
+
+        List<SlowCallLogger.SlowCall> worst = slow.worst();
+        assertEquals(2, worst.size());
+        assertEquals(300 * MILLI, worst.get(0).metrics.totalNanos);
+        assertEquals(200 * MILLI, worst.get(1).metrics.totalNanos);
+    }
+}
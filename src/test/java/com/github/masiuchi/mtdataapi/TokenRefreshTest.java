@@ -0,0 +1,167 @@
+package com.github.masiuchi.mtdataapi;
+
+import junit.framework.TestCase;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class TokenRefreshTest extends TestCase {
+    private MTStandIn server;
+
+    protected void setUp() throws Exception {
+        server = new MTStandIn(20).requireAuth(true).start();
+    }
+
+    protected void tearDown() throws Exception {
+        server.shutdown();
+    }
+
+    private DataAPI.Builder api() {
+        return new DataAPI.Builder().APIBaseURL(server.baseURL()).tokenRefresh(true);
+    }
+
+    private static class Outcome extends ActionCallback {
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile JSONObject response;
+        volatile JSONObject error;
+
+        public void onSuccess(JSONObject response) {
+            this.response = response;
+            done.countDown();
+        }
+
+        public void onFailure(JSONObject error) {
+            this.error = error;
+            done.countDown();
+        }
+
+        Outcome await() throws InterruptedException {
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            return this;
+        }
+    }
+
+    private static void authenticate(DataAPI api) throws InterruptedException {
+        Outcome outcome = new Outcome();
+        api.authenticate(MTStandIn.USERNAME, MTStandIn.PASSWORD, true, outcome);
+        assertNotNull(outcome.await().response);
+    }
+
+    public void testAsyncCallsRefreshAnExpiredToken() throws InterruptedException {
+        DataAPI api = api().async(true).build();
+        authenticate(api);
+        String expired = api.getAuthState().token;
+        server.expireTokens();
+
+        Outcome outcome = new Outcome();
+        api.getEntry("1", "3", null, outcome);
+        assertEquals(3, outcome.await().response.getInt("id"));
+        assertEquals(1, server.hits("POST token"));
+        assertFalse(expired.equals(api.getAuthState().token));
+    }
+
+    public void testConcurrentRejectionsShareOneRefresh() throws InterruptedException {
+        server.latency(20, 20, TimeUnit.MILLISECONDS);
+        DataAPI api = api().async(true).maxRequests(32, 32).build();
+        authenticate(api);
+        server.expireTokens();
+
+        List<Outcome> outcomes = new ArrayList<Outcome>();
+        for (int i = 1; i <= 10; i++) {
+            Outcome outcome = new Outcome();
+            api.getEntry("1", String.valueOf(i), null, outcome);
+            outcomes.add(outcome);
+        }
+        for (int i = 0; i < outcomes.size(); i++) {
+            assertEquals(i + 1, outcomes.get(i).await().response.getInt("id"));
+        }
+        assertEquals(1, server.hits("POST token"));
+    }
+
+    public void testConcurrentBlockingRejectionsShareOneRefresh() throws InterruptedException {
+        server.latency(20, 20, TimeUnit.MILLISECONDS);
+        final DataAPI api = api().build();
+        authenticate(api);
+        server.expireTokens();
+
+        final AtomicInteger succeeded = new AtomicInteger();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 1; i <= 8; i++) {
+            final String id = String.valueOf(i);
+            Thread thread = new Thread(new Runnable() {
+                public void run() {
+                    Outcome outcome = new Outcome();
+                    api.getEntry("1", id, null, outcome);
+                    if (outcome.response != null) {
+                        succeeded.incrementAndGet();
+                    }
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        }
+        assertEquals(8, succeeded.get());
+        assertEquals(1, server.hits("POST token"));
+    }
+
+    public void testRefreshesInsideTheMarginWithoutWaiting() throws InterruptedException {
+        // The first token runs out within the margin; the refreshed one does not.
+        server.tokenTTL(30, TimeUnit.SECONDS);
+        DataAPI api = api().async(true).tokenRefreshMargin(1, TimeUnit.MINUTES).build();
+        authenticate(api);
+        String first = api.getAuthState().token;
+        server.tokenTTL(1, TimeUnit.HOURS).latency(300, 300, TimeUnit.MILLISECONDS);
+
+        Outcome outcome = new Outcome();
+        long start = System.nanoTime();
+        api.getEntry("1", "2", null, outcome);
+        assertTrue(System.nanoTime() - start < TimeUnit.MILLISECONDS.toNanos(300));
+        assertEquals(2, outcome.await().response.getInt("id"));
+
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (api.getAuthState().token.equals(first) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertFalse(first.equals(api.getAuthState().token));
+        assertFalse(api.getAuthState().expiresWithin(TimeUnit.MINUTES.toMillis(1)));
+        assertEquals(1, server.hits("POST token"));
+
+        api.getEntry("1", "3", null, outcome = new Outcome());
+        assertEquals(3, outcome.await().response.getInt("id"));
+        assertEquals(1, server.hits("POST token"));
+    }
+
+    public void testOtherUnauthorizedErrorsAreNotRefreshed() throws InterruptedException {
+        for (boolean async : new boolean[]{false, true}) {
+            DataAPI api = api().async(async).build();
+            authenticate(api);
+            int entryHits = server.hits("GET sites/entries");
+
+            server.failNext(1, 401);
+            Outcome outcome = new Outcome();
+            api.getEntry("1", "2", null, outcome);
+            assertNotNull(outcome.await().error);
+            assertEquals(entryHits + 1, server.hits("GET sites/entries"));
+            assertEquals(0, server.hits("POST token"));
+        }
+
+        Outcome outcome = new Outcome();
+        api().build().authenticate(MTStandIn.USERNAME, "wrong", false, outcome);
+        assertNotNull(outcome.await().error);
+        assertEquals(0, server.hits("POST token"));
+    }
+
+    public void testRecognisesTokenRejections() {
+        assertTrue(DataAPI.isTokenRejection(new JSONObject("{\"code\":401,\"message\":\"Unauthorized\"}")));
+        assertTrue(DataAPI.isTokenRejection(new JSONObject("{\"code\":401,\"message\":\"Invalid access token\"}")));
+        assertFalse(DataAPI.isTokenRejection(new JSONObject("{\"code\":401,\"message\":\"Invalid login\"}")));
+        assertFalse(DataAPI.isTokenRejection(new JSONObject("{\"code\":401,\"message\":\"Permission denied.\"}")));
+    }
+}
@@ -0,0 +1,37 @@
+package com.github.masiuchi.mtdataapi;
+
+import junit.framework.TestCase;
+import okhttp3.RequestBody;
+import okio.Buffer;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+
+public class UploadSourceTest extends TestCase {
+    public void testReportsProgress() throws IOException {
+        final long[] last = new long[2];
+        RequestBody body = UploadSource.fromBytes(new byte[20000]).withProgress(new ProgressListener() {
+            public void onProgress(long bytesWritten, long contentLength) {
+                last[0] = bytesWritten;
+                last[1] = contentLength;
+            }
+        }).requestBody();
+
+        Buffer sink = new Buffer();
+        body.writeTo(sink);
+        assertEquals(20000, sink.size());
+        assertEquals(20000, last[0]);
+        assertEquals(20000, last[1]);
+    }
+
+    public void testStreamIsSentOnce() throws IOException {
+        RequestBody body = UploadSource.fromStream(new ByteArrayInputStream(new byte[10]), 10).requestBody();
+        body.writeTo(new Buffer());
+        try {
+            body.writeTo(new Buffer());
+            fail();
+        } catch (IOException e) {
+            // expected
+        }
+    }
+}